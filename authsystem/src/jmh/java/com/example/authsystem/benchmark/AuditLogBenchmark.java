@@ -0,0 +1,68 @@
+package com.example.authsystem.benchmark;
+
+import ch.qos.logback.classic.Level;
+import com.example.authsystem.model.TokenPurpose;
+import com.example.authsystem.util.AuditLog;
+import com.example.authsystem.util.AuditProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.slf4j.helpers.MessageFormatter;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request-thread cost of auditing a password change: one {@link AuditLog#record} against the three
+ * formatted INFO messages {@code UserService} used to build for it. Run with {@code -prof gc} and compare
+ * {@code gc.alloc.rate.norm}. The audit logger is switched off so only formatting is measured; at this rate
+ * the writer thread cannot keep up and most events are dropped, which costs the producer nothing extra.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuditLogBenchmark {
+
+    private static final String EMAIL = "bench-user@example.com";
+    private static final Long USER_ID = 42L;
+
+    private AuditLog auditLog;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger("audit")).setLevel(Level.OFF);
+        auditLog = new AuditLog(new AuditProperties(), new SimpleMeterRegistry());
+        auditLog.start();
+        token = UUID.randomUUID().toString();
+    }
+
+    @TearDown
+    public void tearDown() {
+        auditLog.stop();
+    }
+
+    @Benchmark
+    public void auditEvent() {
+        auditLog.record(AuditLog.Type.PASSWORD_SET, USER_ID, EMAIL, TokenPurpose.EMAIL_VERIFICATION, null);
+    }
+
+    @Benchmark
+    public int formattedLogMessages() {
+        return MessageFormatter.format("UserService.savePassword() - Attempting to save password for token: {}", token).getMessage().length()
+                + MessageFormatter.format("UserService.consumeStoredToken() - Password saved and token consumed for user ID: {}", USER_ID).getMessage().length()
+                + MessageFormatter.format("AuthController.setPassword() - Password set successfully for token: {}", token).getMessage().length();
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.authsystem.benchmark;
+
+import com.example.authsystem.AuthsystemApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Starts the application against the in-memory H2 database and mail sink of the {@code test}
+ * profile, with request logging, throttling and SQL echo turned down so they do not dominate
+ * the measurements.
+ */
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    /**
+     * Properties are passed as command-line arguments so they override {@code application.properties}.
+     */
+    static ConfigurableApplicationContext start(String... extraProperties) {
+        List<String> args = new ArrayList<>(List.of(
+                "server.port=0",
+                "spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "spring.jpa.show-sql=false",
+                "logging.level.root=WARN",
+                "app.rate-limit.enabled=false"));
+        args.addAll(List.of(extraProperties));
+        return new SpringApplicationBuilder(AuthsystemApplication.class)
+                .profiles("test")
+                .run(args.stream().map(property -> "--" + property).toArray(String[]::new));
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.authsystem.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Concurrent registrations over real HTTP against embedded Tomcat, once on the platform-thread pool
+ * and once with {@code spring.threads.virtual.enabled}. Each operation loads the form (session and
+ * CSRF token) and submits it with a fresh email. Raise the client count with {@code -t}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(64)
+public class ConcurrentRegistrationBenchmark {
+
+    private static final Pattern CSRF = Pattern.compile("name=\"_csrf\" value=\"([^\"]+)\"");
+
+    @State(Scope.Benchmark)
+    public static class Server {
+
+        @Param({"platform", "virtual"})
+        public String threadModel;
+
+        ConfigurableApplicationContext context;
+        URI base;
+        final AtomicLong sequence = new AtomicLong();
+
+        @Setup
+        public void start() {
+            context = BenchmarkApplication.start("spring.threads.virtual.enabled=" + "virtual".equals(threadModel));
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            base = URI.create("http://localhost:" + port);
+        }
+
+        @TearDown
+        public void stop() {
+            context.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+
+        HttpClient http;
+
+        @Setup
+        public void create() {
+            http = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .cookieHandler(new CookieManager())
+                    .build();
+        }
+    }
+
+    @Benchmark
+    public int register(Server server, Client client) throws IOException, InterruptedException {
+        HttpResponse<String> form = client.http.send(
+                HttpRequest.newBuilder(server.base.resolve("/register")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        Matcher csrf = CSRF.matcher(form.body());
+        if (!csrf.find()) {
+            throw new IllegalStateException("No CSRF token on /register (HTTP " + form.statusCode() + ")");
+        }
+        String body = "name=Load+User"
+                + "&email=" + URLEncoder.encode("load-" + server.sequence.incrementAndGet() + "@example.com", StandardCharsets.UTF_8)
+                + "&_csrf=" + URLEncoder.encode(csrf.group(1), StandardCharsets.UTF_8);
+        HttpResponse<Void> response = client.http.send(
+                HttpRequest.newBuilder(server.base.resolve("/register"))
+                        .header("Content-Type", "application/x-www-form-urlencoded")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build(),
+                HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Registration failed with HTTP " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.authsystem.benchmark;
+
+import com.example.authsystem.security.TokenBucketRateLimiter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one {@link TokenBucketRateLimiter#tryAcquire} on the request path: an allowed request on
+ * a warm key, a rejected request, and four threads spread over many client IPs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+    private static final int KEYS = 4096;
+
+    @State(Scope.Benchmark)
+    public static class Limiters {
+
+        TokenBucketRateLimiter unlimited;
+        TokenBucketRateLimiter exhausted;
+        String[] keys;
+
+        @Setup
+        public void setUp() {
+            unlimited = new TokenBucketRateLimiter(Long.MAX_VALUE / 2, Duration.ofDays(3650), 100_000);
+            exhausted = new TokenBucketRateLimiter(1, Duration.ofDays(1), 100_000);
+            exhausted.tryAcquire("203.0.113.7");
+            keys = new String[KEYS];
+            for (int i = 0; i < KEYS; i++) {
+                keys[i] = "10.0." + (i >> 8) + "." + (i & 0xff);
+                unlimited.tryAcquire(keys[i]);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        int next;
+
+        String key(String[] keys) {
+            next = (next + 1) & (KEYS - 1);
+            return keys[next];
+        }
+    }
+
+    @Benchmark
+    public boolean allowedSingleKey(Limiters limiters) {
+        return limiters.unlimited.tryAcquire("198.51.100.1");
+    }
+
+    @Benchmark
+    public boolean rejected(Limiters limiters) {
+        return limiters.exhausted.tryAcquire("203.0.113.7");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean allowedManyKeysContended(Limiters limiters, Cursor cursor) {
+        return limiters.unlimited.tryAcquire(cursor.key(limiters.keys));
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.authsystem.benchmark;
+
+import com.example.authsystem.model.User;
+import com.example.authsystem.repository.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Requests through the full {@code SecurityFilterChain} and MVC stack via MockMvc: rendering the
+ * anonymous login page, a complete form login (the BCrypt cost is the test profile's), and an
+ * authenticated dashboard view.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SecurityFilterChainBenchmark {
+
+    private static final String EMAIL = "bench-login@example.com";
+    private static final String PASSWORD = "Benchmark-Password-1";
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context)
+                .apply(springSecurity())
+                .build();
+
+        User seed = new User();
+        seed.setName("Bench Login");
+        seed.setEmail(EMAIL);
+        seed.setPassword(context.getBean(PasswordEncoder.class).encode(PASSWORD));
+        seed.setEnabled(true);
+        context.getBean(UserRepository.class).save(seed);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MvcResult loginPage() throws Exception {
+        return mockMvc.perform(get("/login")).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult formLogin() throws Exception {
+        return mockMvc.perform(post("/login").param("email", EMAIL).param("password", PASSWORD).with(csrf())).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult authenticatedDashboard() throws Exception {
+        return mockMvc.perform(get("/dashboard").with(user(EMAIL).roles("USER"))).andReturn();
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.authsystem.benchmark;
+
+import com.example.authsystem.model.TokenPurpose;
+import com.example.authsystem.model.User;
+import com.example.authsystem.repository.UserRepository;
+import com.example.authsystem.security.StoredTokens;
+import com.example.authsystem.service.UserDetailsCache;
+import com.example.authsystem.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link UserService} paths against the embedded H2 stand-in: user lookup with a warm and a cold
+ * {@link UserDetailsCache}, and issuing a verification token (replacing the previous one, as a
+ * password reset does).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserServiceBenchmark {
+
+    private static final String EMAIL = "bench-user@example.com";
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private UserDetailsCache userDetailsCache;
+    private TransactionTemplate transactionTemplate;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        userService = context.getBean(UserService.class);
+        userDetailsCache = context.getBean(UserDetailsCache.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        User seed = new User();
+        seed.setName("Bench User");
+        seed.setEmail(EMAIL);
+        seed.setPassword("{noop}unused");
+        seed.setEnabled(true);
+        user = context.getBean(UserRepository.class).save(seed);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserDetails loadUserByUsernameCached() {
+        return userService.loadUserByUsername(EMAIL);
+    }
+
+    @Benchmark
+    public UserDetails loadUserByUsernameUncached() {
+        userDetailsCache.invalidateAll();
+        return userService.loadUserByUsername(EMAIL);
+    }
+
+    @Benchmark
+    public String createVerificationToken() {
+        String token = StoredTokens.generate();
+        transactionTemplate.executeWithoutResult(status -> userService.createVerificationToken(user, TokenPurpose.PASSWORD_RESET, token));
+        return token;
+    }
+}
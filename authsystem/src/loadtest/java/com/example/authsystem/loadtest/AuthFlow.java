@@ -0,0 +1,166 @@
+package com.example.authsystem.loadtest;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One simulated user walking register, set-password, login, dashboard, forgot-password and
+ * reset-password over real HTTP. A step is the user-visible action: loading the form for its CSRF
+ * token and submitting it. The mail steps measure how long the outbox takes to deliver the link.
+ * Each worker thread owns one instance and reuses its connections; cookies are dropped between flows.
+ */
+class AuthFlow {
+
+    private static final Pattern CSRF = Pattern.compile("name=\"_csrf\" value=\"([^\"]+)\"");
+    private static final Pattern TOKEN = Pattern.compile("token=([A-Za-z0-9_\\-.~%]+)");
+
+    private final URI base;
+    private final MailLinks mailLinks;
+    private final LoadReport report;
+    private final Duration mailTimeout;
+    private final CookieManager cookies = new CookieManager();
+    private final HttpClient http;
+
+    AuthFlow(URI base, MailLinks mailLinks, LoadReport report, Duration mailTimeout) {
+        this.base = base;
+        this.mailLinks = mailLinks;
+        this.report = report;
+        this.mailTimeout = mailTimeout;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .cookieHandler(cookies)
+                .build();
+    }
+
+    /**
+     * Runs the whole flow for {@code email}, stopping at the first step that fails; the failure is
+     * counted against that step.
+     */
+    void run(String email, String password) throws InterruptedException {
+        cookies.getCookieStore().removeAll();
+        try {
+            CompletableFuture<String> verificationMail = mailLinks.expect(email);
+            step(Step.REGISTER, () -> submit("/register", 200, "name", "Load User", "email", email));
+            String verificationToken = awaitMail(Step.VERIFICATION_MAIL, verificationMail);
+            step(Step.SET_PASSWORD, () -> submit("/set-password?token=" + verificationToken, "/set-password", 200,
+                    "token", verificationToken, "password", password, "confirmPassword", password));
+            step(Step.LOGIN, () -> submit("/login", 302, "email", email, "password", password));
+            step(Step.DASHBOARD, () -> get("/dashboard", 200));
+
+            cookies.getCookieStore().removeAll();
+            CompletableFuture<String> resetMail = mailLinks.expect(email);
+            step(Step.FORGOT_PASSWORD, () -> submit("/forgot-password", 200, "email", email));
+            String resetToken = awaitMail(Step.RESET_MAIL, resetMail);
+            String newPassword = password + "-reset";
+            step(Step.RESET_PASSWORD, () -> submit("/reset-password?token=" + resetToken, "/reset-password", 302,
+                    "token", resetToken, "newPassword", newPassword, "confirmNewPassword", newPassword));
+        } catch (StepFailedException e) {
+            report.failure(e.step, e.getMessage());
+        } finally {
+            mailLinks.forget(email);
+        }
+    }
+
+    private void step(Step step, HttpAction action) throws InterruptedException, StepFailedException {
+        long start = System.nanoTime();
+        try {
+            action.run();
+        } catch (IOException | IllegalStateException e) {
+            throw new StepFailedException(step, e.toString());
+        }
+        report.record(step, System.nanoTime() - start);
+    }
+
+    private String awaitMail(Step step, CompletableFuture<String> mail) throws InterruptedException, StepFailedException {
+        long start = System.nanoTime();
+        String body;
+        try {
+            body = mail.get(mailTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new StepFailedException(step, "no mail within " + mailTimeout);
+        }
+        report.record(step, System.nanoTime() - start);
+        Matcher token = TOKEN.matcher(body);
+        if (!token.find()) {
+            throw new StepFailedException(step, "no token in mail");
+        }
+        return token.group(1);
+    }
+
+    private void get(String path, int expectedStatus) throws IOException, InterruptedException {
+        HttpResponse<Void> response = http.send(HttpRequest.newBuilder(base.resolve(path)).GET().build(),
+                HttpResponse.BodyHandlers.discarding());
+        expect(response, expectedStatus, path);
+    }
+
+    private void submit(String path, int expectedStatus, String... fields) throws IOException, InterruptedException {
+        submit(path, path, expectedStatus, fields);
+    }
+
+    private void submit(String formPath, String actionPath, int expectedStatus, String... fields)
+            throws IOException, InterruptedException {
+        HttpResponse<String> form = http.send(HttpRequest.newBuilder(base.resolve(formPath)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        expect(form, 200, formPath);
+        Matcher csrf = CSRF.matcher(form.body());
+        if (!csrf.find()) {
+            throw new IllegalStateException("no CSRF token on " + formPath);
+        }
+        StringBuilder body = new StringBuilder("_csrf=").append(encode(csrf.group(1)));
+        for (int i = 0; i < fields.length; i += 2) {
+            body.append('&').append(fields[i]).append('=').append(encode(fields[i + 1]));
+        }
+        HttpResponse<Void> response = http.send(
+                HttpRequest.newBuilder(base.resolve(actionPath))
+                        .header("Content-Type", "application/x-www-form-urlencoded")
+                        .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                        .build(),
+                HttpResponse.BodyHandlers.discarding());
+        expect(response, expectedStatus, actionPath);
+    }
+
+    private static void expect(HttpResponse<?> response, int expectedStatus, String path) {
+        if (response.statusCode() != expectedStatus) {
+            throw new IllegalStateException("HTTP " + response.statusCode() + " from " + path);
+        }
+        if (expectedStatus == 302) {
+            String location = response.headers().firstValue("Location").orElse("");
+            if (location.contains("error")) {
+                throw new IllegalStateException("redirected to " + location + " from " + path);
+            }
+        }
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    @FunctionalInterface
+    private interface HttpAction {
+        void run() throws IOException, InterruptedException;
+    }
+
+    private static class StepFailedException extends Exception {
+
+        final Step step;
+
+        StepFailedException(Step step, String message) {
+            super(message, null, false, false);
+            this.step = step;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.authsystem.loadtest;
+
+import com.example.authsystem.AuthsystemApplication;
+import com.example.authsystem.util.RecordingMailSender;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * End-to-end load test of the servlet stack: starts the application in-process on the {@code test}
+ * profile (H2 and the in-memory mail sink), then runs a fixed number of {@link AuthFlow}s from a fixed
+ * number of concurrent clients. The warmup flows are discarded; the measured ones are reported per step
+ * and written to {@code target/loadtest}. Passing the CSV of an earlier run as {@code baseline} prints
+ * the change per step, so releases or configurations can be compared on the same machine.
+ * <p>
+ * Arguments are {@code key=value}: {@code flows}, {@code warmup}, {@code concurrency},
+ * {@code mail-timeout} (an ISO-8601 duration), {@code report} and {@code baseline}. Any other key is
+ * passed to the application as a property, e.g. {@code spring.threads.virtual.enabled=true}.
+ */
+public final class AuthFlowLoadTest {
+
+    private AuthFlowLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>(Map.of(
+                "flows", "2000",
+                "warmup", "200",
+                "concurrency", "32",
+                "mail-timeout", "PT30S"));
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("server.port", "0");
+        properties.put("spring.datasource.url", "jdbc:h2:mem:loadtest;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        properties.put("logging.level.root", "WARN");
+        properties.put("logging.level.audit", "OFF");
+        properties.put("app.rate-limit.enabled", "false");
+        properties.put("app.mail.outbox.poll-interval-ms", "20");
+        properties.put("app.mail.outbox.batch-size", "500");
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Expected key=value but got " + arg);
+            }
+            String key = arg.substring(0, eq);
+            (key.contains(".") ? properties : options).put(key, arg.substring(eq + 1));
+        }
+        int flows = Integer.parseInt(options.get("flows"));
+        int warmup = Integer.parseInt(options.get("warmup"));
+        int concurrency = Integer.parseInt(options.get("concurrency"));
+        Duration mailTimeout = Duration.parse(options.get("mail-timeout"));
+        String runId = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        Path reportFile = Path.of(options.getOrDefault("report", "target/loadtest/auth-flow-" + runId + ".csv"));
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(AuthsystemApplication.class)
+                .profiles("test")
+                .run(properties.entrySet().stream().map(e -> "--" + e.getKey() + "=" + e.getValue()).toArray(String[]::new))) {
+            if (!(context.getBean("recordingMailSender") instanceof RecordingMailSender mailSender)) {
+                throw new IllegalStateException("The load test needs app.mail.sink=memory");
+            }
+            MailLinks mailLinks = new MailLinks();
+            mailSender.addListener(mailLinks::onMessage);
+            URI base = URI.create("http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort());
+            LoadReport report = new LoadReport();
+
+            System.out.printf("Warming up with %d flows...%n", warmup);
+            run(base, mailLinks, report, mailTimeout, runId + "-w", warmup, concurrency);
+            report.reset();
+            mailSender.clear();
+
+            System.out.printf("Measuring %d flows from %d concurrent clients...%n", flows, concurrency);
+            long start = System.nanoTime();
+            run(base, mailLinks, report, mailTimeout, runId, flows, concurrency);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            List<LoadReport.Row> rows = report.summarize();
+
+            Map<String, LoadReport.Row> baseline = options.containsKey("baseline")
+                    ? LoadReport.read(Path.of(options.get("baseline")))
+                    : Map.of();
+            System.out.printf("%n%d flows in %.1f s (%.1f flows/s)%n", flows, seconds, flows / seconds);
+            LoadReport.print(rows, baseline, System.out);
+            report.firstFailures().forEach((step, message) -> System.out.printf("First %s failure: %s%n", step, message));
+
+            List<String> comments = new ArrayList<>();
+            comments.add("run=" + runId + " flows=" + flows + " warmup=" + warmup + " concurrency=" + concurrency
+                    + String.format(" seconds=%.1f", seconds));
+            comments.add("jvm=" + Runtime.version() + " cpus=" + Runtime.getRuntime().availableProcessors());
+            properties.forEach((key, value) -> comments.add(key + "=" + value));
+            LoadReport.write(rows, comments, reportFile);
+            System.out.printf("%nReport written to %s%n", reportFile.toAbsolutePath());
+        }
+    }
+
+    private static void run(URI base, MailLinks mailLinks, LoadReport report, Duration mailTimeout, String runId,
+            int flows, int concurrency) throws InterruptedException {
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            clients.execute(() -> {
+                AuthFlow flow = new AuthFlow(base, mailLinks, report, mailTimeout);
+                for (int n = next.getAndIncrement(); n < flows; n = next.getAndIncrement()) {
+                    try {
+                        flow.run("load-" + runId + "-" + n + "@example.com", "Load-Test-" + runId + "-" + n);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            });
+        }
+        clients.shutdown();
+        if (!clients.awaitTermination(1, TimeUnit.HOURS)) {
+            throw new IllegalStateException("Load test did not finish within an hour");
+        }
+    }
+}
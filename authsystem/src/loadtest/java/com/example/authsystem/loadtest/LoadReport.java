@@ -0,0 +1,123 @@
+package com.example.authsystem.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms and failure counts per {@link Step}. Recording is lock-free, so the report can be
+ * shared by all workers. {@link #reset} discards the warmup; {@link #summarize} turns the interval since
+ * into one row per step, which is printed, written as CSV and compared with the CSV of an earlier run.
+ */
+class LoadReport {
+
+    private static final String HEADER = "step,count,errors,throughput_per_s,p50_ms,p95_ms,p99_ms,max_ms";
+    private static final long MAX_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private final Map<Step, Recorder> latencies = new EnumMap<>(Step.class);
+    private final Map<Step, LongAdder> failures = new EnumMap<>(Step.class);
+    private final ConcurrentMap<Step, String> firstFailure = new ConcurrentHashMap<>();
+    private volatile long intervalStart = System.nanoTime();
+
+    LoadReport() {
+        for (Step step : Step.values()) {
+            latencies.put(step, new Recorder(MAX_TRACKABLE_NANOS, 3));
+            failures.put(step, new LongAdder());
+        }
+    }
+
+    void record(Step step, long nanos) {
+        latencies.get(step).recordValue(Math.min(nanos, MAX_TRACKABLE_NANOS));
+    }
+
+    void failure(Step step, String message) {
+        failures.get(step).increment();
+        firstFailure.putIfAbsent(step, message);
+    }
+
+    void reset() {
+        latencies.values().forEach(Recorder::reset);
+        failures.values().forEach(LongAdder::reset);
+        firstFailure.clear();
+        intervalStart = System.nanoTime();
+    }
+
+    List<Row> summarize() {
+        double seconds = (System.nanoTime() - intervalStart) / 1e9;
+        List<Row> rows = new ArrayList<>();
+        for (Step step : Step.values()) {
+            Histogram histogram = latencies.get(step).getIntervalHistogram();
+            rows.add(new Row(step.name(), histogram.getTotalCount(), failures.get(step).sum(),
+                    histogram.getTotalCount() / seconds,
+                    millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(95)),
+                    millis(histogram.getValueAtPercentile(99)), millis(histogram.getMaxValue())));
+        }
+        return rows;
+    }
+
+    Map<Step, String> firstFailures() {
+        return Map.copyOf(firstFailure);
+    }
+
+    static void print(List<Row> rows, Map<String, Row> baseline, PrintStream out) {
+        out.printf(Locale.ROOT, "%-18s %8s %7s %10s %9s %9s %9s %9s%n",
+                "step", "count", "errors", "per sec", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        for (Row row : rows) {
+            out.printf(Locale.ROOT, "%-18s %8d %7d %10.1f %9.2f %9.2f %9.2f %9.2f%n", row.step(), row.count(),
+                    row.errors(), row.throughput(), row.p50(), row.p95(), row.p99(), row.max());
+            Row before = baseline.get(row.step());
+            if (before != null) {
+                out.printf(Locale.ROOT, "%-18s %8s %7s %10s %9s %9s %9s%n", "  vs baseline", "", "",
+                        change(before.throughput(), row.throughput()), change(before.p50(), row.p50()),
+                        change(before.p95(), row.p95()), change(before.p99(), row.p99()));
+            }
+        }
+    }
+
+    static void write(List<Row> rows, List<String> comments, Path file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        comments.forEach(comment -> lines.add("# " + comment));
+        lines.add(HEADER);
+        for (Row row : rows) {
+            lines.add(String.format(Locale.ROOT, "%s,%d,%d,%.2f,%.3f,%.3f,%.3f,%.3f", row.step(), row.count(),
+                    row.errors(), row.throughput(), row.p50(), row.p95(), row.p99(), row.max()));
+        }
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Files.write(file, lines);
+    }
+
+    static Map<String, Row> read(Path file) throws IOException {
+        Map<String, Row> rows = new ConcurrentHashMap<>();
+        for (String line : Files.readAllLines(file)) {
+            if (line.startsWith("#") || line.equals(HEADER) || line.isBlank()) {
+                continue;
+            }
+            String[] f = line.split(",");
+            rows.put(f[0], new Row(f[0], Long.parseLong(f[1]), Long.parseLong(f[2]), Double.parseDouble(f[3]),
+                    Double.parseDouble(f[4]), Double.parseDouble(f[5]), Double.parseDouble(f[6]), Double.parseDouble(f[7])));
+        }
+        return rows;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static String change(double before, double after) {
+        return before == 0 ? "n/a" : String.format(Locale.ROOT, "%+.1f%%", (after - before) / before * 100);
+    }
+
+    record Row(String step, long count, long errors, double throughput, double p50, double p95, double p99, double max) {}
+}
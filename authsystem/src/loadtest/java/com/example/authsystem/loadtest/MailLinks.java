@@ -0,0 +1,38 @@
+package com.example.authsystem.loadtest;
+
+import org.springframework.mail.SimpleMailMessage;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Hands the next mail sent to an address to the flow waiting for it. Registered as a listener on the
+ * application's {@code RecordingMailSender}; a flow calls {@link #expect} before the request that
+ * triggers the mail so the message cannot be missed.
+ */
+class MailLinks {
+
+    private final ConcurrentMap<String, CompletableFuture<String>> pending = new ConcurrentHashMap<>();
+
+    CompletableFuture<String> expect(String email) {
+        CompletableFuture<String> mail = new CompletableFuture<>();
+        pending.put(email, mail);
+        return mail;
+    }
+
+    void forget(String email) {
+        pending.remove(email);
+    }
+
+    void onMessage(SimpleMailMessage message) {
+        if (message.getTo() == null || message.getText() == null) {
+            return;
+        }
+        for (String recipient : message.getTo()) {
+            CompletableFuture<String> mail = pending.remove(recipient);
+            if (mail != null) {
+                mail.complete(message.getText());
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.authsystem.loadtest;
+
+/**
+ * The stages of one {@link AuthFlow}, in the order they run.
+ */
+enum Step {
+    REGISTER,
+    VERIFICATION_MAIL,
+    SET_PASSWORD,
+    LOGIN,
+    DASHBOARD,
+    FORGOT_PASSWORD,
+    RESET_MAIL,
+    RESET_PASSWORD
+}
@@ -0,0 +1,82 @@
+package com.example.authsystem.config;
+import com.example.authsystem.util.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Splits JDBC traffic between the primary and read replicas when {@code app.datasource.replicas.enabled}.
+ * The application sees one {@link LazyConnectionDataSourceProxy}: it defers fetching a physical connection
+ * until the first statement, by which time the transaction manager has marked the connection read-only
+ * or not, and then takes it from the replicas for {@code @Transactional(readOnly = true)} work and from
+ * the primary for everything else. Each pool is a separate Hikari pool with its own
+ * {@code hikaricp.*{pool=...}} metrics.
+ */
+@Slf4j
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(name = "app.datasource.replicas.enabled", havingValue = "true")
+@EnableConfigurationProperties({DataSourceProperties.class, ReplicaProperties.class})
+public class DataSourceRoutingConfig {
+
+    /**
+     * Owns the primary and replica pools (and closes them on shutdown); also a {@link DataSource} on its
+     * own, so the {@code db} health check covers the replicas.
+     */
+    @Bean
+    public ReplicaRoutingDataSource replicaDataSource(DataSourceProperties properties, ReplicaProperties replicas,
+                                                     Environment environment, ObjectProvider<MeterRegistry> meterRegistry) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        if (primary.getPoolName() == null) {
+            primary.setPoolName("primary");
+        }
+        List<HikariDataSource> replicaPools = new ArrayList<>();
+        for (String url : replicas.getUrls()) {
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(properties.determineDriverClassName())
+                    .url(url)
+                    .username(replicas.getUsername() != null ? replicas.getUsername() : properties.determineUsername())
+                    .password(replicas.getPassword() != null ? replicas.getPassword() : properties.determinePassword())
+                    .build();
+            replica.setPoolName("replica-" + (replicaPools.size() + 1));
+            replica.setMaximumPoolSize(replicas.getMaximumPoolSize());
+            replica.setConnectionTimeout(replicas.getConnectionTimeout().toMillis());
+            replica.setReadOnly(true);
+            replicaPools.add(replica);
+        }
+        meterRegistry.ifAvailable(registry -> {
+            primary.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+            replicaPools.forEach(replica -> replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+        });
+        log.info("DataSourceRoutingConfig.replicaDataSource() - Routing read-only transactions to {} replica(s)", replicaPools.size());
+        return new ReplicaRoutingDataSource(primary, replicaPools);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(replicaDataSource.getPrimary());
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+}
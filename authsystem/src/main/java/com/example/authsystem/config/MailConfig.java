@@ -0,0 +1,18 @@
+package com.example.authsystem.config;
+import com.example.authsystem.util.RecordingMailSender;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.mail.javamail.JavaMailSender;
+
+
+@Configuration
+public class MailConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.mail.sink", havingValue = "memory")
+    public JavaMailSender recordingMailSender(@Value("${app.mail.sink-capacity:10000}") int capacity) {
+        return new RecordingMailSender(capacity);
+    }
+}
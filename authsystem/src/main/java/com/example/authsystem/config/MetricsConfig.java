@@ -0,0 +1,38 @@
+package com.example.authsystem.config;
+import com.example.authsystem.model.EmailOutboxMessage;
+import com.example.authsystem.repository.EmailOutboxRepository;
+import com.example.authsystem.service.UserDetailsCache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+
+/**
+ * Meter binders for components that are not meters themselves. {@code BoundedPasswordEncoder}
+ * implements {@link MeterBinder} and is bound automatically.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder userDetailsCacheMetrics(UserDetailsCache userDetailsCache) {
+        return registry -> CaffeineCacheMetrics.monitor(registry, userDetailsCache.getNativeCache(), "userDetails");
+    }
+
+    /**
+     * Outbox depth is read from the table at scrape time, so it reflects every node's backlog.
+     */
+    @Bean
+    public MeterBinder emailOutboxMetrics(EmailOutboxRepository outboxRepository) {
+        return registry -> {
+            for (EmailOutboxMessage.Status status : EmailOutboxMessage.Status.values()) {
+                Gauge.builder("auth.email.outbox.size", outboxRepository, repository -> repository.countByStatus(status))
+                        .tag("status", status.name().toLowerCase())
+                        .description("Messages in the email outbox")
+                        .register(registry);
+            }
+        };
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.authsystem.config;
+
+import com.example.authsystem.model.EmailOutboxMessage;
+import com.example.authsystem.model.TokenPurpose;
+import com.example.authsystem.model.User;
+import com.example.authsystem.model.VerificationToken;
+import com.example.authsystem.service.BulkUserImportService;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import java.util.stream.Stream;
+
+/**
+ * Reflection a native image cannot discover on its own: the entities, the form objects of both
+ * controllers and the records read and written as JSON. Package-private and private types are
+ * registered by name.
+ */
+public class NativeHints implements RuntimeHintsRegistrar {
+
+    /** Hibernate uses field access; binding and Jackson go through the Lombok accessors. */
+    private static final MemberCategory[] MEMBERS = {
+            MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+            MemberCategory.INVOKE_PUBLIC_METHODS,
+            MemberCategory.DECLARED_FIELDS
+    };
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        Stream.of(User.class, VerificationToken.class, TokenPurpose.class, EmailOutboxMessage.class, EmailOutboxMessage.Status.class,
+                        BulkUserImportService.ImportRow.class, BulkUserImportService.ImportResult.class)
+                .forEach(type -> hints.reflection().registerType(type, MEMBERS));
+        Stream.of("com.example.authsystem.controller.RegistrationRequest",
+                        "com.example.authsystem.controller.SetPasswordRequest",
+                        "com.example.authsystem.controller.ForgotPasswordRequest",
+                        "com.example.authsystem.controller.ResetPasswordRequest",
+                        "com.example.authsystem.service.UserDetailsCache$SharedSnapshot")
+                .forEach(type -> hints.reflection().registerType(TypeReference.of(type), MEMBERS));
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.authsystem.config;
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * Infrastructure for the {@code reactive} profile: WebFlux on Netty with a fixed number of event-loop
+ * threads, R2DBC for the request path, and JDBC/JPA kept for the outbox dispatcher and token purge job.
+ */
+@Configuration
+@Profile("reactive")
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class ReactiveConfig {
+
+    /**
+     * Spring Boot backs off its own DataSource as soon as an R2DBC ConnectionFactory exists, so the
+     * JPA side gets an explicitly declared pool built from the usual {@code spring.datasource.*} settings.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * Transactions on the R2DBC connection, applied explicitly. The R2DBC transaction manager is not
+     * exposed as a bean so {@code @Transactional} keeps resolving to the JPA transaction manager.
+     */
+    @Bean
+    public TransactionalOperator reactiveTransactionalOperator(ConnectionFactory connectionFactory) {
+        return TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public LoopResources httpLoopResources(@Value("${app.reactive.io-threads:0}") int ioThreads) {
+        int threads = ioThreads > 0 ? ioThreads : Runtime.getRuntime().availableProcessors();
+        return LoopResources.create("auth-http", threads, true);
+    }
+
+    /**
+     * Declared explicitly because Tomcat is on the classpath as well and would otherwise be preferred.
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory(LoopResources httpLoopResources) {
+        NettyReactiveWebServerFactory factory = new NettyReactiveWebServerFactory();
+        factory.addServerCustomizers(server -> server.runOn(httpLoopResources));
+        return factory;
+    }
+}
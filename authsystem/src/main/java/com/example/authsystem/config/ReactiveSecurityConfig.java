@@ -0,0 +1,125 @@
+package com.example.authsystem.config;
+import com.example.authsystem.security.BoundedPasswordEncoder;
+import com.example.authsystem.security.HashingCapacityWebFilter;
+import com.example.authsystem.security.LoginAttemptGuard;
+import com.example.authsystem.security.LoginAttemptWebFilter;
+import com.example.authsystem.security.MetricsScrapeAuthenticationManager;
+import com.example.authsystem.security.ReactivePasswordAuthenticationManager;
+import com.example.authsystem.service.ReactiveUserService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.reactive.EndpointRequest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.AuthenticationWebFilter;
+import org.springframework.security.web.server.authentication.RedirectServerAuthenticationEntryPoint;
+import org.springframework.security.web.server.authentication.RedirectServerAuthenticationFailureHandler;
+import org.springframework.security.web.server.authentication.RedirectServerAuthenticationSuccessHandler;
+import org.springframework.security.web.server.authentication.ServerFormLoginAuthenticationConverter;
+import org.springframework.security.web.server.authentication.logout.RedirectServerLogoutSuccessHandler;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.security.web.server.context.WebSessionServerSecurityContextRepository;
+import org.springframework.security.web.server.savedrequest.NoOpServerRequestCache;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers;
+import java.net.URI;
+
+/**
+ * WebFlux equivalent of {@link SecurityConfig}: same public paths, form login with the {@code email}
+ * and {@code password} fields, and the same redirects.
+ */
+@Configuration
+@Profile("reactive")
+@EnableWebFluxSecurity
+public class ReactiveSecurityConfig {
+
+    @Bean
+    public ReactivePasswordAuthenticationManager reactiveAuthenticationManager(ReactiveUserService userService,
+                                                                               BoundedPasswordEncoder passwordEncoder) {
+        return new ReactivePasswordAuthenticationManager(userService, userService, passwordEncoder);
+    }
+
+    /**
+     * Same as {@link SecurityConfig#metricsFilterChain}: Prometheus scrapes authenticate with HTTP Basic
+     * using the dedicated scrape credential and never create a session.
+     */
+    @Bean
+    @Order(1)
+    public SecurityWebFilterChain metricsWebFilterChain(ServerHttpSecurity http,
+                                                        @Value("${app.metrics.scrape.username:prometheus}") String scrapeUsername,
+                                                        @Value("${app.metrics.scrape.password:}") String scrapePassword) {
+        MetricsScrapeAuthenticationManager scrapeAuthentication = new MetricsScrapeAuthenticationManager(scrapeUsername, scrapePassword);
+        http
+            .securityMatcher(EndpointRequest.to("prometheus"))
+            .authorizeExchange(exchanges -> exchanges.anyExchange().hasRole(MetricsScrapeAuthenticationManager.ROLE))
+            .httpBasic(basic -> basic.authenticationManager(scrapeAuthentication.reactive()))
+            .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+            .csrf(ServerHttpSecurity.CsrfSpec::disable);
+        return http.build();
+    }
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http,
+                                                         ReactivePasswordAuthenticationManager authenticationManager,
+                                                         LoginAttemptGuard loginAttemptGuard, ReactiveUserService userService) {
+        LoginAttemptWebFilter loginAttemptFilter = new LoginAttemptWebFilter(loginAttemptGuard, userService);
+        http
+            .addFilterBefore(new HashingCapacityWebFilter(), SecurityWebFiltersOrder.FORM_LOGIN)
+            .addFilterBefore(loginAttemptFilter, SecurityWebFiltersOrder.FORM_LOGIN)
+            .addFilterAt(formLoginFilter(authenticationManager, loginAttemptFilter), SecurityWebFiltersOrder.FORM_LOGIN)
+            .authorizeExchange(exchanges -> exchanges
+                .pathMatchers(
+                    "/login",
+                    "/register",
+                    "/set-password",
+                    "/forgot-password",
+                    "/reset-password",
+                    "/css/**",
+                    "/js/**",
+                    "/actuator/health"
+                ).permitAll()
+                .anyExchange().authenticated()
+            )
+            .exceptionHandling(exceptions -> exceptions
+                .authenticationEntryPoint(new RedirectServerAuthenticationEntryPoint("/login"))
+            )
+            .logout(logout -> logout
+                .logoutSuccessHandler(logoutSuccessHandler())
+            );
+        return http.build();
+    }
+
+    /**
+     * {@code ServerHttpSecurity.formLogin()} hard-codes the {@code username} parameter, so the login
+     * filter is assembled by hand. Its outcomes feed the failed-login lockout.
+     */
+    private static AuthenticationWebFilter formLoginFilter(ReactivePasswordAuthenticationManager authenticationManager,
+                                                           LoginAttemptWebFilter loginAttemptFilter) {
+        ServerFormLoginAuthenticationConverter converter = new ServerFormLoginAuthenticationConverter();
+        converter.setUsernameParameter("email");
+        converter.setPasswordParameter("password");
+
+        RedirectServerAuthenticationSuccessHandler successHandler = new RedirectServerAuthenticationSuccessHandler("/dashboard");
+        successHandler.setRequestCache(NoOpServerRequestCache.getInstance());
+
+        AuthenticationWebFilter filter = new AuthenticationWebFilter(authenticationManager);
+        filter.setRequiresAuthenticationMatcher(ServerWebExchangeMatchers.pathMatchers(HttpMethod.POST, "/login"));
+        filter.setServerAuthenticationConverter(converter);
+        filter.setSecurityContextRepository(new WebSessionServerSecurityContextRepository());
+        filter.setAuthenticationSuccessHandler(loginAttemptFilter.recordingSuccess(successHandler));
+        filter.setAuthenticationFailureHandler(
+                loginAttemptFilter.recordingFailures(new RedirectServerAuthenticationFailureHandler("/login?error")));
+        return filter;
+    }
+
+    private static RedirectServerLogoutSuccessHandler logoutSuccessHandler() {
+        RedirectServerLogoutSuccessHandler handler = new RedirectServerLogoutSuccessHandler();
+        handler.setLogoutSuccessUrl(URI.create("/login?logout"));
+        return handler;
+    }
+}
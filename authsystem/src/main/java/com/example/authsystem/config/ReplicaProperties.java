@@ -0,0 +1,35 @@
+package com.example.authsystem.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas for read-only transactions, bound from {@code app.datasource.replicas.*}. The primary is
+ * still configured with {@code spring.datasource.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.datasource.replicas")
+public class ReplicaProperties {
+
+    private boolean enabled = false;
+
+    /** JDBC URLs of the replicas, used in round-robin order. */
+    private List<String> urls = new ArrayList<>();
+
+    /** Defaults to {@code spring.datasource.username}. */
+    private String username;
+
+    /** Defaults to {@code spring.datasource.password}. */
+    private String password;
+
+    private int maximumPoolSize = 10;
+
+    /** How long to wait for a replica connection before trying the next replica, then the primary. */
+    private Duration connectionTimeout = Duration.ofSeconds(1);
+
+    /** After a user's row changes, that user is loaded from the primary for this long; keep it above the replica lag. */
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+}
@@ -1,25 +1,139 @@
 package com.example.authsystem.config;
+import com.example.authsystem.security.BCryptCostCalibrator;
+import com.example.authsystem.security.BoundedPasswordEncoder;
+import com.example.authsystem.security.HashingCapacityFilter;
+import com.example.authsystem.security.LoginAttemptFilter;
+import com.example.authsystem.security.LoginAttemptProperties;
+import com.example.authsystem.security.MetricsScrapeAuthenticationManager;
+import com.example.authsystem.security.RateLimitFilter;
+import com.example.authsystem.security.RateLimitProperties;
+import com.example.authsystem.security.SessionProperties;
+import com.example.authsystem.security.SessionTokenService;
+import com.example.authsystem.security.StatelessAuthenticationFilter;
+import com.example.authsystem.security.StatelessSessionHandler;
+import com.example.authsystem.security.TokenDenylist;
+import com.example.authsystem.security.TokenProperties;
+import com.example.authsystem.security.ValidationProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
+import org.springframework.security.web.csrf.CsrfFilter;
+import org.springframework.security.web.savedrequest.NullRequestCache;
+import org.springframework.util.ClassUtils;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
 
 
 @Configuration
+@Slf4j
+@EnableConfigurationProperties({RateLimitProperties.class, TokenProperties.class, SessionProperties.class, LoginAttemptProperties.class,
+        ValidationProperties.class})
 public class SecurityConfig {
 
+    /**
+     * New hashes use {@code app.security.password.encoding-id}; stored hashes with another id, an
+     * older BCrypt cost, or no {@code {id}} prefix at all still verify and are rehashed on the next
+     * successful login through {@link org.springframework.security.core.userdetails.UserDetailsPasswordService}.
+     */
+    @Bean
+    public BoundedPasswordEncoder passwordEncoder(@Value("${app.security.password.encoding-id:bcrypt}") String encodingId,
+                                           @Value("${app.security.password.bcrypt-strength:0}") int bcryptStrength,
+                                           @Value("${app.security.password.target-hash-time:PT0.25S}") Duration targetHashTime,
+                                           @Value("${app.security.hashing.threads:0}") int threads,
+                                           @Value("${app.security.hashing.queue-capacity:64}") int queueCapacity) {
+        int strength = bcryptStrength > 0 ? bcryptStrength : BCryptCostCalibrator.calibrate(targetHashTime);
+        log.info("SecurityConfig.passwordEncoder() - Encoding new passwords with '{}', BCrypt cost {}", encodingId, strength);
+
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put("bcrypt", bcrypt);
+        encoders.put("pbkdf2", Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        if (ClassUtils.isPresent("org.bouncycastle.crypto.params.Argon2Parameters", getClass().getClassLoader())) {
+            encoders.put("argon2", Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        }
+        if (!encoders.containsKey(encodingId)) {
+            throw new IllegalStateException("Unsupported app.security.password.encoding-id: " + encodingId);
+        }
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(encodingId, encoders);
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(delegating, poolSize, queueCapacity);
+    }
+
+    /**
+     * The rate limiter runs inside the security filter chain only; keep the servlet container from
+     * registering the bean a second time.
+     */
+    @Bean
+    @Profile("!reactive")
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter rateLimitFilter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    @Bean
+    @Profile("!reactive")
+    public FilterRegistrationBean<LoginAttemptFilter> loginAttemptFilterRegistration(LoginAttemptFilter loginAttemptFilter) {
+        FilterRegistrationBean<LoginAttemptFilter> registration = new FilterRegistrationBean<>(loginAttemptFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
 
+    /**
+     * The Prometheus scrape endpoint gets its own chain, checked before the application one: HTTP Basic
+     * with the dedicated scrape credential (never a user account, so no user is loaded and no password is
+     * hashed), no session and no CSRF token (scrapes are plain GETs). {@link EndpointRequest} also
+     * matches when the endpoint moves to {@code management.server.port}.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    @Order(1)
+    @Profile("!reactive")
+    public SecurityFilterChain metricsFilterChain(HttpSecurity http,
+                                                  @Value("${app.metrics.scrape.username:prometheus}") String scrapeUsername,
+                                                  @Value("${app.metrics.scrape.password:}") String scrapePassword) throws Exception {
+        http
+            .securityMatcher(EndpointRequest.to("prometheus"))
+            .authorizeHttpRequests(auth -> auth.anyRequest().hasRole(MetricsScrapeAuthenticationManager.ROLE))
+            .authenticationManager(new MetricsScrapeAuthenticationManager(scrapeUsername, scrapePassword))
+            .httpBasic(Customizer.withDefaults())
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .csrf(csrf -> csrf.disable());
+        return http.build();
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    @Profile("!reactive")
+    public SecurityFilterChain filterChain(HttpSecurity http, RateLimitFilter rateLimitFilter, LoginAttemptFilter loginAttemptFilter,
+                                           SessionProperties sessionProperties,
+                                           SessionTokenService sessionTokens, TokenDenylist denylist,
+                                           UserDetailsService userDetailsService) throws Exception {
         http
-           
+            .addFilterBefore(rateLimitFilter, CsrfFilter.class)
+            .addFilterBefore(loginAttemptFilter, UsernamePasswordAuthenticationFilter.class)
+            .addFilterBefore(new HashingCapacityFilter(), UsernamePasswordAuthenticationFilter.class)
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers(
                     "/register",
@@ -27,8 +141,11 @@ public class SecurityConfig {
                     "/forgot-password", 
                     "/reset-password",  
                     "/css/**",
-                    "/js/**"
+                    "/js/**",
+                    "/actuator/health",
+                    StatelessAuthenticationFilter.REFRESH_PATH
                 ).permitAll()
+                .requestMatchers("/admin/**").hasRole("ADMIN")
                 .anyRequest().authenticated()
             )
             .formLogin(form -> form
@@ -43,6 +160,33 @@ public class SecurityConfig {
                 .logoutSuccessUrl("/login?logout") 
                 .permitAll()
             );
+        if (sessionProperties.getMode() == SessionProperties.Mode.STATELESS) {
+            configureStatelessSessions(http, sessionProperties, sessionTokens, denylist, userDetailsService);
+        }
         return http.build();
     }
+
+    /**
+     * Nothing is kept in the {@code HttpSession}: the security context comes from signed tokens on
+     * every request, CSRF tokens live in a cookie, and no request is saved for after login. Requests
+     * authenticated by an {@code Authorization} header cannot be forged cross-site and skip CSRF.
+     */
+    private static void configureStatelessSessions(HttpSecurity http, SessionProperties sessionProperties,
+                                                   SessionTokenService sessionTokens, TokenDenylist denylist,
+                                                   UserDetailsService userDetailsService) throws Exception {
+        log.info("SecurityConfig.filterChain() - Stateless sessions: access tokens valid for {}", sessionProperties.getAccessTokenTtl());
+        StatelessSessionHandler sessionHandler = new StatelessSessionHandler(sessionProperties, sessionTokens, denylist, userDetailsService);
+        http
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .securityContext(context -> context.securityContextRepository(new RequestAttributeSecurityContextRepository()))
+            .requestCache(cache -> cache.requestCache(new NullRequestCache()))
+            .csrf(csrf -> csrf
+                .csrfTokenRepository(new CookieCsrfTokenRepository())
+                .ignoringRequestMatchers(request -> request.getHeader(HttpHeaders.AUTHORIZATION) != null)
+            )
+            .addFilterBefore(new StatelessAuthenticationFilter(sessionProperties, sessionTokens, denylist, userDetailsService, sessionHandler),
+                UsernamePasswordAuthenticationFilter.class)
+            .formLogin(form -> form.successHandler(sessionHandler))
+            .logout(logout -> logout.addLogoutHandler(sessionHandler));
+    }
 }
\ No newline at end of file
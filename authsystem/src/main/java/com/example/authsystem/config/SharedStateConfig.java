@@ -0,0 +1,129 @@
+package com.example.authsystem.config;
+import com.example.authsystem.util.InMemorySharedState;
+import com.example.authsystem.util.RedisSharedState;
+import com.example.authsystem.util.SharedState;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisPassword;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.session.MapSession;
+import org.springframework.session.MapSessionRepository;
+import org.springframework.session.Session;
+import org.springframework.session.config.SessionRepositoryCustomizer;
+import org.springframework.session.config.annotation.web.http.EnableSpringHttpSession;
+import org.springframework.session.data.redis.RedisSessionRepository;
+import org.springframework.session.data.redis.config.annotation.web.http.EnableRedisHttpSession;
+import org.springframework.util.StringUtils;
+import java.time.Duration;
+import java.util.Map;
+
+
+/**
+ * State shared between nodes, selected with {@code app.shared-state.store}:
+ * <ul>
+ *   <li>{@code none} (default): no {@link SharedState} bean, servlet sessions stay in Tomcat.</li>
+ *   <li>{@code in-memory}: in-process stand-in with Spring Session over a bounded map, for tests and
+ *       single-node runs exercising the same code paths as a cluster.</li>
+ *   <li>{@code redis}: Spring Session and {@link SharedState} on Redis, configured through the usual
+ *       {@code spring.data.redis.*} properties.</li>
+ * </ul>
+ */
+@Configuration
+public class SharedStateConfig {
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(name = "app.shared-state.store", havingValue = "in-memory")
+    static class InMemoryStateConfig {
+
+        @Bean
+        public SharedState sharedState(@Value("${app.shared-state.in-memory.max-size:100000}") long maxSize) {
+            return new InMemorySharedState(maxSize);
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(name = "app.shared-state.store", havingValue = "in-memory")
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    @EnableSpringHttpSession
+    static class InMemorySessionConfig {
+
+        /**
+         * Idle sessions are dropped by the map itself; {@link MapSessionRepository} alone never purges them.
+         */
+        @Bean
+        public MapSessionRepository sessionRepository(@Value("${server.servlet.session.timeout:30m}") Duration timeout,
+                                                      @Value("${app.shared-state.in-memory.max-size:100000}") long maxSize) {
+            Map<String, Session> sessions = Caffeine.newBuilder()
+                    .maximumSize(maxSize)
+                    .expireAfterAccess(timeout)
+                    .<String, Session>build()
+                    .asMap();
+            MapSessionRepository repository = new MapSessionRepository(sessions);
+            repository.setDefaultMaxInactiveInterval(timeout.isZero() ? MapSession.DEFAULT_MAX_INACTIVE_INTERVAL : timeout);
+            return repository;
+        }
+    }
+
+    /**
+     * Redis beans are declared here rather than left to auto-configuration, which is excluded so that the
+     * default {@code none} store never opens a connection; {@code spring.data.redis.*} still applies.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(name = "app.shared-state.store", havingValue = "redis")
+    @EnableConfigurationProperties(RedisProperties.class)
+    static class RedisStateConfig {
+
+        @Bean
+        public LettuceConnectionFactory redisConnectionFactory(RedisProperties properties) {
+            if (StringUtils.hasText(properties.getUrl())) {
+                return new LettuceConnectionFactory(LettuceConnectionFactory.createRedisConfiguration(properties.getUrl()));
+            }
+            RedisStandaloneConfiguration standalone = new RedisStandaloneConfiguration(properties.getHost(), properties.getPort());
+            standalone.setDatabase(properties.getDatabase());
+            standalone.setUsername(properties.getUsername());
+            standalone.setPassword(RedisPassword.of(properties.getPassword()));
+            return new LettuceConnectionFactory(standalone);
+        }
+
+        @Bean
+        public StringRedisTemplate stringRedisTemplate(RedisConnectionFactory connectionFactory) {
+            return new StringRedisTemplate(connectionFactory);
+        }
+
+        @Bean
+        public RedisMessageListenerContainer sharedStateListenerContainer(RedisConnectionFactory connectionFactory) {
+            RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+            container.setConnectionFactory(connectionFactory);
+            return container;
+        }
+
+        @Bean
+        public SharedState sharedState(StringRedisTemplate redis, RedisMessageListenerContainer sharedStateListenerContainer,
+                                       @Value("${app.shared-state.key-prefix:authsystem:}") String keyPrefix) {
+            return new RedisSharedState(redis, sharedStateListenerContainer, keyPrefix);
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(name = "app.shared-state.store", havingValue = "redis")
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    @EnableRedisHttpSession(redisNamespace = "${app.shared-state.key-prefix:authsystem:}session")
+    static class RedisSessionConfig {
+
+        @Bean
+        public SessionRepositoryCustomizer<RedisSessionRepository> sessionTimeoutCustomizer(
+                @Value("${server.servlet.session.timeout:30m}") Duration timeout) {
+            return repository -> repository.setDefaultMaxInactiveInterval(timeout);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.authsystem.config;
+
+import com.example.authsystem.util.GzipResourceResolver;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Static assets of the servlet stack under content-hashed URLs ({@code /css/styles-<md5>.css}). Templates
+ * link them with {@code @{...}}, which the resource URL encoding filter rewrites to the hashed form, so a
+ * changed file gets a new URL and the old one can be cached by browsers and proxies for a year.
+ */
+@Configuration
+@Profile("!reactive")
+public class WebConfig implements WebMvcConfigurer {
+
+    private static final List<String> ASSET_DIRECTORIES = List.of("css", "js");
+    private static final Duration ASSET_MAX_AGE = Duration.ofDays(365);
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        for (String directory : ASSET_DIRECTORIES) {
+            registry.addResourceHandler("/" + directory + "/**")
+                    .addResourceLocations("classpath:/static/" + directory + "/")
+                    .setCacheControl(CacheControl.maxAge(ASSET_MAX_AGE).cachePublic().immutable())
+                    .resourceChain(true)
+                    .addResolver(new GzipResourceResolver())
+                    .addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"));
+        }
+    }
+}
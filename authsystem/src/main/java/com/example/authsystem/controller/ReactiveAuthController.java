@@ -0,0 +1,184 @@
+package com.example.authsystem.controller;
+import com.example.authsystem.model.TokenPurpose;
+import com.example.authsystem.service.ReactiveUserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.web.reactive.result.view.CsrfRequestDataValueProcessor;
+import org.springframework.security.web.server.csrf.CsrfToken;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.server.ServerWebExchange;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+@Data
+class SetPasswordRequest
+{
+    private String token;
+    private String password;
+}
+
+@Data
+class ForgotPasswordRequest
+{
+    private String email;
+}
+
+@Data
+class ResetPasswordRequest
+{
+    private String token;
+    private String newPassword;
+    private String confirmNewPassword;
+}
+
+/**
+ * WebFlux version of {@link AuthController} for the {@code reactive} profile. It renders the same
+ * templates; form posts are bound with {@code @ModelAttribute} because WebFlux does not expose form
+ * fields as request parameters.
+ */
+@Controller
+@Profile("reactive")
+@Slf4j
+public class ReactiveAuthController
+{
+
+    @Autowired
+    private ReactiveUserService userService;
+
+    /**
+     * Resolves the CSRF token before rendering so templates can read {@code _csrf} and
+     * {@code th:action} forms get the hidden field, as they do under Spring MVC.
+     */
+    @ModelAttribute("_csrf")
+    public Mono<CsrfToken> csrfToken(ServerWebExchange exchange)
+    {
+        Mono<CsrfToken> csrfToken = exchange.getAttribute(CsrfToken.class.getName());
+        if (csrfToken == null)
+        {
+            return Mono.empty();
+        }
+        return csrfToken.doOnSuccess(token -> exchange.getAttributes()
+                .put(CsrfRequestDataValueProcessor.DEFAULT_CSRF_ATTR_NAME, token));
+    }
+
+    @GetMapping("/register")
+    public String showRegister()
+    {
+        return "register";
+    }
+
+    @PostMapping("/register")
+    public Mono<String> register(@ModelAttribute RegistrationRequest request, Model model)
+    {
+        return userService.registerUser(request.getName(), request.getEmail())
+                .map(result -> {
+                    if (result.startsWith("Registration successful"))
+                    {
+                        model.addAttribute("message", "Registration successful. Please check your email to set your password.");
+                        return "register-success";
+                    }
+                    model.addAttribute("error", result);
+                    log.debug("ReactiveAuthController.register() - Registration failed: {}", result);
+                    return "register";
+                })
+                .onErrorResume(RuntimeException.class, e -> {
+                    model.addAttribute("error", "Registration failed: " + e.getMessage());
+                    log.error("ReactiveAuthController.register() - Exception during registration for email {}: {}", request.getEmail(), e.getMessage(), e);
+                    return Mono.just("register");
+                });
+    }
+
+    @GetMapping("/set-password")
+    public String showSetPassword(@RequestParam String token, Model model)
+    {
+        model.addAttribute("token", token);
+        return "set-password";
+    }
+
+    @PostMapping("/set-password")
+    public Mono<String> setPassword(@ModelAttribute SetPasswordRequest request, Model model)
+    {
+        return userService.savePassword(request.getToken(), request.getPassword())
+                .map(result -> {
+                    if (result.equals("Password set successfully"))
+                    {
+                        model.addAttribute("message", "Password set successfully. You can now login.");
+                        model.addAttribute("redirect", true);
+                    }
+                    else
+                    {
+                        model.addAttribute("error", result);
+                        model.addAttribute("token", request.getToken());
+                        log.debug("ReactiveAuthController.setPassword() - Failed to set password: {}", result);
+                    }
+                    return "set-password";
+                });
+    }
+
+    @GetMapping("/login")
+    public String login()
+    {
+        return "login";
+    }
+
+    @GetMapping("/dashboard")
+    public String dashboard()
+    {
+        return "dashboard";
+    }
+
+    @GetMapping("/forgot-password")
+    public String showForgotPasswordPage()
+    {
+        return "forgot-password";
+    }
+
+    @PostMapping("/forgot-password")
+    public Mono<String> processForgotPasswordRequest(@ModelAttribute ForgotPasswordRequest request, Model model)
+    {
+        return userService.createPasswordResetTokenForUser(request.getEmail())
+                .map(message -> {
+                    model.addAttribute("message", message);
+                    return "forgot-password";
+                });
+    }
+
+    @GetMapping("/reset-password")
+    public Mono<String> showResetPasswordPage(@RequestParam("token") String token, Model model)
+    {
+        return userService.isTokenValid(token, TokenPurpose.PASSWORD_RESET)
+                .map(valid -> {
+                    if (valid)
+                    {
+                        model.addAttribute("token", token);
+                    }
+                    else
+                    {
+                        model.addAttribute("message", "Invalid or expired password reset token.");
+                    }
+                    return "reset-password";
+                });
+    }
+
+    @PostMapping("/reset-password")
+    public Mono<String> processResetPassword(@ModelAttribute ResetPasswordRequest request, Model model)
+    {
+        return userService.resetPassword(request.getToken(), request.getNewPassword(), request.getConfirmNewPassword())
+                .map(result -> {
+                    if (result.equals("Your password has been successfully reset."))
+                    {
+                        return "redirect:/login?reset";
+                    }
+                    model.addAttribute("error", result);
+                    model.addAttribute("token", request.getToken());
+                    log.debug("ReactiveAuthController.processResetPassword() - Password reset failed: {}", result);
+                    return "reset-password";
+                });
+    }
+}
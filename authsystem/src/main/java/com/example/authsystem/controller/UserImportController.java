@@ -0,0 +1,30 @@
+package com.example.authsystem.controller;
+import com.example.authsystem.service.BulkUserImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import java.io.IOException;
+
+/**
+ * Bulk provisioning for administrators. The request body is streamed straight into
+ * {@link BulkUserImportService}, so uploads of any size are imported without buffering the file.
+ */
+@RestController
+@Profile("!reactive")
+@Slf4j
+public class UserImportController
+{
+
+    @Autowired
+    private BulkUserImportService importService;
+
+    @PostMapping(value = "/admin/users/import", consumes = {"text/csv", "application/json", "application/x-ndjson"})
+    public BulkUserImportService.ImportResult importUsers(HttpServletRequest request) throws IOException
+    {
+        log.info("UserImportController.importUsers() - Bulk import of {} requested by {}", request.getContentType(), request.getRemoteUser());
+        return importService.importUsers(request.getInputStream(), BulkUserImportService.Format.fromContentType(request.getContentType()));
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.authsystem.model;
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "email_outbox", indexes = {
+        @Index(name = "idx_email_outbox_status_next_attempt", columnList = "status, next_attempt_at"),
+        @Index(name = "idx_email_outbox_claim_token", columnList = "claim_token")
+})
+public class EmailOutboxMessage {
+
+    public enum Status { PENDING, FAILED }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    @Column(nullable = false)
+    private String subject;
+
+    /** Holds the emailed link, token included. */
+    @Column(nullable = false, length = 2000)
+    @ToString.Exclude
+    private String body;
+
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    private int attempts;
+
+    @Column(length = 500)
+    private String lastError;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    /** Set by the dispatcher that claimed the row; it owns the row until {@link #nextAttemptAt}. */
+    @Column(length = 36)
+    private String claimToken;
+}
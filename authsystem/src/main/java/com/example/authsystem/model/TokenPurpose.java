@@ -0,0 +1,12 @@
+package com.example.authsystem.model;
+
+/**
+ * What an emailed link authorizes. Stored and signed tokens carry the purpose so a link issued for one
+ * flow cannot be replayed against another, and each purpose has its own lifetime
+ * ({@code app.tokens.ttls.*}). Signed tokens encode the ordinal and stored tokens the name, so append
+ * new purposes at the end and never rename one.
+ */
+public enum TokenPurpose {
+    EMAIL_VERIFICATION,
+    PASSWORD_RESET
+}
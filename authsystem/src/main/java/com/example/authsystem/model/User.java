@@ -1,6 +1,8 @@
 package com.example.authsystem.model;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.ToString;
+import java.time.LocalDateTime;
 
 @Entity
 @Data
@@ -18,7 +20,12 @@ public class User {
     private String email;
 
     @Column
+    @ToString.Exclude
     private String password;
 
     private boolean enabled;
+
+    /** Set for long login lockouts when {@code app.security.login-attempts.persist-lockouts} is on. */
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
 }
\ No newline at end of file
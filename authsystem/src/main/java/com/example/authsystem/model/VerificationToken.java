@@ -2,22 +2,43 @@ package com.example.authsystem.model;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import java.time.LocalDateTime;
 
+/**
+ * An emailed link of database mode. The token itself is not stored, only its SHA-256 (see
+ * {@code StoredTokens}); a user holds at most one unexpired token per purpose.
+ */
 @Entity
 @Data
 @NoArgsConstructor
+@Table(name = "verification_token", indexes = {
+        @Index(name = "uk_verification_token_token_hash", columnList = "token_hash", unique = true),
+        @Index(name = "uk_verification_token_user_purpose", columnList = "user_id, purpose", unique = true),
+        @Index(name = "idx_verification_token_expiry_date", columnList = "expiry_date")
+})
 public class VerificationToken {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    private String token;
+    @Column(name = "token_hash", nullable = false, length = 32)
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @ToString.Exclude
+    private byte[] tokenHash;
 
-    @OneToOne(fetch = FetchType.EAGER)
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private TokenPurpose purpose;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false, foreignKey = @ForeignKey(name = "FK_USER_VERIFICATION_TOKEN"))
+    @ToString.Exclude
     private User user;
 
+    @Column(name = "expiry_date", nullable = false)
     private LocalDateTime expiryDate;
-}
\ No newline at end of file
+}
@@ -0,0 +1,32 @@
+package com.example.authsystem.repository;
+import com.example.authsystem.model.EmailOutboxMessage;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxMessage, Long>
+{
+    @Query("select m.id from EmailOutboxMessage m where m.status = :status and m.nextAttemptAt <= :now order by m.id")
+    List<Long> findDueIds(@Param("status") EmailOutboxMessage.Status status, @Param("now") LocalDateTime now, Pageable page);
+
+    /**
+     * Claims those of {@code ids} that are still due: the conditional update takes each row's lock, so of
+     * several dispatchers claiming the same row exactly one matches it. The row is then skipped by
+     * everyone else until {@code leaseUntil}.
+     */
+    @Modifying
+    @Query("update EmailOutboxMessage m set m.claimToken = :claimToken, m.nextAttemptAt = :leaseUntil"
+            + " where m.id in :ids and m.status = :status and m.nextAttemptAt <= :now")
+    int claim(@Param("ids") List<Long> ids, @Param("status") EmailOutboxMessage.Status status, @Param("now") LocalDateTime now,
+              @Param("claimToken") String claimToken, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    List<EmailOutboxMessage> findByClaimTokenOrderById(String claimToken);
+
+    long countByStatus(EmailOutboxMessage.Status status);
+}
@@ -0,0 +1,33 @@
+package com.example.authsystem.repository;
+import com.example.authsystem.model.EmailOutboxMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Inserts outbox rows from the reactive stack; delivery stays with the JPA-based
+ * {@link com.example.authsystem.service.EmailOutboxDispatcher}.
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveEmailOutboxRepository
+{
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    public Mono<Void> save(EmailOutboxMessage message)
+    {
+        return databaseClient.sql("insert into email_outbox (recipient, subject, body, status, attempts, created_at, next_attempt_at)"
+                        + " values (:recipient, :subject, :body, :status, :attempts, :createdAt, :nextAttemptAt)")
+                .bind("recipient", message.getRecipient())
+                .bind("subject", message.getSubject())
+                .bind("body", message.getBody())
+                .bind("status", message.getStatus().name())
+                .bind("attempts", message.getAttempts())
+                .bind("createdAt", message.getCreatedAt())
+                .bind("nextAttemptAt", message.getNextAttemptAt())
+                .then();
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.authsystem.repository;
+import com.example.authsystem.model.User;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+import java.time.LocalDateTime;
+
+/**
+ * Non-blocking mirror of {@link UserRepository} for the {@code reactive} profile. Written against
+ * {@link DatabaseClient} rather than Spring Data R2DBC so it can share the JPA-mapped {@link User}.
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveUserRepository
+{
+    static final String COLUMNS = "u.id, u.name, u.email, u.password, u.enabled, u.locked_until";
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    public Mono<User> findByEmail(String email)
+    {
+        return databaseClient.sql("select " + COLUMNS + " from users u where u.email = :email")
+                .bind("email", email)
+                .map(ReactiveUserRepository::mapUser)
+                .one();
+    }
+
+    public Mono<User> findById(Long id)
+    {
+        return databaseClient.sql("select " + COLUMNS + " from users u where u.id = :id")
+                .bind("id", id)
+                .map(ReactiveUserRepository::mapUser)
+                .one();
+    }
+
+    /**
+     * Inserts a new user and returns it with the generated id set.
+     */
+    public Mono<User> save(User user)
+    {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient
+                .sql("insert into users (name, email, password, enabled) values (:name, :email, :password, :enabled)")
+                .filter(statement -> statement.returnGeneratedValues("id"))
+                .bind("name", user.getName())
+                .bind("email", user.getEmail())
+                .bind("enabled", user.isEnabled());
+        spec = user.getPassword() == null ? spec.bindNull("password", String.class) : spec.bind("password", user.getPassword());
+        return spec.map(row -> row.get("id", Long.class))
+                .one()
+                .map(id -> {
+                    user.setId(id);
+                    return user;
+                });
+    }
+
+    public Mono<Long> updatePassword(Long id, String password, boolean enabled)
+    {
+        return databaseClient.sql("update users set password = :password, enabled = :enabled where id = :id")
+                .bind("password", password)
+                .bind("enabled", enabled)
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * Same as {@link UserRepository#lockUntil}: never shortens a lock that is already stored.
+     */
+    public Mono<Long> lockUntil(String email, LocalDateTime until)
+    {
+        return databaseClient.sql("update users set locked_until = :until where email = :email"
+                        + " and (locked_until is null or locked_until < :until)")
+                .bind("until", until)
+                .bind("email", email)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    static User mapUser(Readable row)
+    {
+        User user = new User();
+        user.setId(row.get("id", Long.class));
+        user.setName(row.get("name", String.class));
+        user.setEmail(row.get("email", String.class));
+        user.setPassword(row.get("password", String.class));
+        user.setEnabled(Boolean.TRUE.equals(row.get("enabled", Boolean.class)));
+        user.setLockedUntil(row.get("locked_until", LocalDateTime.class));
+        return user;
+    }
+}
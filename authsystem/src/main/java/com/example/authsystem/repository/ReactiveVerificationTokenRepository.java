@@ -0,0 +1,72 @@
+package com.example.authsystem.repository;
+import com.example.authsystem.model.TokenPurpose;
+import com.example.authsystem.model.VerificationToken;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+import java.time.LocalDateTime;
+
+/**
+ * Non-blocking mirror of {@link VerificationTokenRepository}. {@link #findByTokenHash} joins the owning
+ * user in the same query, so the service has the token and its user from one round trip.
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveVerificationTokenRepository
+{
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    public Mono<VerificationToken> findByTokenHash(byte[] tokenHash, TokenPurpose purpose)
+    {
+        return databaseClient.sql("select t.id as token_id, t.expiry_date, " + ReactiveUserRepository.COLUMNS
+                        + " from verification_token t join users u on u.id = t.user_id where t.token_hash = :tokenHash and t.purpose = :purpose")
+                .bind("tokenHash", tokenHash)
+                .bind("purpose", purpose.name())
+                .map(row -> {
+                    VerificationToken verificationToken = new VerificationToken();
+                    verificationToken.setId(row.get("token_id", Long.class));
+                    verificationToken.setTokenHash(tokenHash);
+                    verificationToken.setPurpose(purpose);
+                    verificationToken.setExpiryDate(row.get("expiry_date", LocalDateTime.class));
+                    verificationToken.setUser(ReactiveUserRepository.mapUser(row));
+                    return verificationToken;
+                })
+                .one();
+    }
+
+    /**
+     * Stores a user's token for a purpose, replacing the previous one in the same statement; see
+     * {@link VerificationTokenRepository#replaceToken}.
+     */
+    public Mono<Long> replaceToken(VerificationToken verificationToken)
+    {
+        return databaseClient.sql("insert into verification_token (token_hash, purpose, user_id, expiry_date)"
+                        + " values (:tokenHash, :purpose, :userId, :expiryDate)"
+                        + " on duplicate key update token_hash = values(token_hash), expiry_date = values(expiry_date)")
+                .bind("tokenHash", verificationToken.getTokenHash())
+                .bind("purpose", verificationToken.getPurpose().name())
+                .bind("userId", verificationToken.getUser().getId())
+                .bind("expiryDate", verificationToken.getExpiryDate())
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> deleteById(Long id)
+    {
+        return databaseClient.sql("delete from verification_token where id = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> deleteByUserId(Long userId)
+    {
+        return databaseClient.sql("delete from verification_token where user_id = :userId")
+                .bind("userId", userId)
+                .fetch()
+                .rowsUpdated();
+    }
+}
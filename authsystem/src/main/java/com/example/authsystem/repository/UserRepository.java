@@ -1,11 +1,40 @@
 package com.example.authsystem.repository;
 import com.example.authsystem.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> 
 {
+    /**
+     * Read-only on its own, so login lookups go to a replica when replicas are configured; inside a
+     * write transaction it joins that transaction on the primary.
+     */
+    @Transactional(readOnly = true)
     Optional<User> findByEmail(String email);
+
+    @Modifying
+    @Query("update User u set u.password = :password, u.enabled = true where u.id = :id")
+    int setPasswordAndEnable(@Param("id") Long id, @Param("password") String password);
+
+    /**
+     * Compare-and-set on the password hash: only succeeds while the hash is still {@code expected}
+     * ({@code null} for a user who never had a password).
+     */
+    @Modifying
+    @Query("update User u set u.password = :password, u.enabled = true where u.id = :id and coalesce(u.password, '') = coalesce(:expected, '')")
+    int setPasswordAndEnableIfUnchanged(@Param("id") Long id, @Param("expected") String expected, @Param("password") String password);
+
+    /**
+     * Extends the account's lockout to {@code until}; never shortens one already in place.
+     */
+    @Modifying
+    @Query("update User u set u.lockedUntil = :until where u.email = :email and (u.lockedUntil is null or u.lockedUntil < :until)")
+    int lockUntil(@Param("email") String email, @Param("until") LocalDateTime until);
 }
\ No newline at end of file
@@ -1,13 +1,66 @@
 package com.example.authsystem.repository;
-import com.example.authsystem.model.User; 
+import com.example.authsystem.model.TokenPurpose;
 import com.example.authsystem.model.VerificationToken;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.stereotype.Repository;import java.util.Optional;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 
+/**
+ * Stored link tokens, looked up by the SHA-256 of the token and the purpose it was issued for.
+ */
 @Repository
 public interface VerificationTokenRepository extends JpaRepository<VerificationToken, Long> 
 {
-    Optional<VerificationToken> findByToken(String token);
+    interface TokenOwner
+    {
+        Long getUserId();
 
-    void deleteByUser(User user);
-}
\ No newline at end of file
+        String getEmail();
+    }
+
+    @Transactional(readOnly = true)
+    boolean existsByTokenHashAndPurposeAndExpiryDateAfter(byte[] tokenHash, TokenPurpose purpose, LocalDateTime now);
+
+    /**
+     * Id and email of the user an unexpired token belongs to, in one query without loading either entity.
+     */
+    @Query("select u.id as userId, u.email as email from VerificationToken t join t.user u"
+            + " where t.tokenHash = :tokenHash and t.purpose = :purpose and t.expiryDate > :now")
+    Optional<TokenOwner> findActiveTokenOwner(@Param("tokenHash") byte[] tokenHash, @Param("purpose") TokenPurpose purpose,
+                                              @Param("now") LocalDateTime now);
+
+    /**
+     * Claims an unexpired token by deleting it. The row lock taken by the delete serialises concurrent
+     * claims, so exactly one of them sees 1.
+     */
+    @Modifying
+    @Query("delete from VerificationToken t where t.tokenHash = :tokenHash and t.purpose = :purpose and t.expiryDate > :now")
+    int deleteActiveToken(@Param("tokenHash") byte[] tokenHash, @Param("purpose") TokenPurpose purpose,
+                          @Param("now") LocalDateTime now);
+
+    /**
+     * Stores a user's token for a purpose, replacing the one issued before it in the same statement. The
+     * unique key on (user_id, purpose) makes concurrent requests overwrite each other instead of leaving
+     * two live tokens behind.
+     */
+    @Modifying
+    @Query(value = "insert into verification_token (token_hash, purpose, user_id, expiry_date)"
+            + " values (:tokenHash, :purpose, :userId, :expiryDate)"
+            + " on duplicate key update token_hash = values(token_hash), expiry_date = values(expiry_date)", nativeQuery = true)
+    int replaceToken(@Param("userId") Long userId, @Param("purpose") String purpose, @Param("tokenHash") byte[] tokenHash,
+                     @Param("expiryDate") LocalDateTime expiryDate);
+
+    @Modifying
+    @Query("delete from VerificationToken t where t.user.id = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    @Query("select t.id from VerificationToken t where t.expiryDate < :cutoff order by t.expiryDate")
+    List<Long> findExpiredIds(@Param("cutoff") LocalDateTime cutoff, Pageable page);
+}
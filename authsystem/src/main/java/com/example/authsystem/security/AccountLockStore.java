@@ -0,0 +1,15 @@
+package com.example.authsystem.security;
+
+import java.time.LocalDateTime;
+
+/**
+ * Where {@link LoginAttemptFilter} persists long lockouts, so they outlive this node's in-memory
+ * counters. Implemented by the user service; kept here so security code does not depend on it.
+ */
+public interface AccountLockStore {
+
+    /**
+     * Reports the account with the (normalized) {@code email} as locked until {@code until}.
+     */
+    void lockAccount(String email, LocalDateTime until);
+}
@@ -0,0 +1,32 @@
+package com.example.authsystem.security;
+
+import com.example.authsystem.util.AuditLog;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.authentication.event.AbstractAuthenticationFailureEvent;
+import org.springframework.security.authentication.event.AuthenticationSuccessEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes form logins to the {@link AuditLog}. Requests authenticated by a session or a stateless access
+ * token are not logins and publish no event.
+ */
+@Component
+public class AuthenticationAuditListener {
+
+    private final AuditLog auditLog;
+
+    public AuthenticationAuditListener(AuditLog auditLog) {
+        this.auditLog = auditLog;
+    }
+
+    @EventListener
+    public void onAuthenticationSuccess(AuthenticationSuccessEvent event) {
+        auditLog.record(AuditLog.Type.LOGIN_SUCCEEDED, null, event.getAuthentication().getName());
+    }
+
+    @EventListener
+    public void onAuthenticationFailure(AbstractAuthenticationFailureEvent event) {
+        auditLog.record(AuditLog.Type.LOGIN_FAILED, null, event.getAuthentication().getName(), null,
+                event.getException().getClass().getSimpleName());
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.authsystem.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import java.time.Duration;
+
+/**
+ * Picks the highest BCrypt cost whose hash time on this machine stays within a latency budget.
+ * Each cost step doubles the work, so one timed hash at the minimum cost is enough to extrapolate.
+ */
+public final class BCryptCostCalibrator {
+
+    public static final int MIN_STRENGTH = 10;
+    public static final int MAX_STRENGTH = 16;
+
+    private BCryptCostCalibrator() {
+    }
+
+    public static int calibrate(Duration target) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(MIN_STRENGTH);
+        encoder.encode("calibration-warmup");
+        long start = System.nanoTime();
+        encoder.encode("calibration-sample");
+        long elapsed = Math.max(1L, System.nanoTime() - start);
+
+        int strength = MIN_STRENGTH;
+        long budget = target.toNanos();
+        while (strength < MAX_STRENGTH && elapsed * 2 <= budget) {
+            elapsed *= 2;
+            strength++;
+        }
+        return strength;
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.authsystem.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs every encode/matches call of the delegate on a fixed pool of platform threads with a bounded
+ * queue. The caller still waits for the result, but at most {@code threads} hashes run at once, so a
+ * login burst cannot occupy every core. When the queue is full the call fails immediately with
+ * {@link HashingCapacityExceededException} instead of piling up more waiting requests.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, MeterBinder, AutoCloseable {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private volatile Timer encodeTimer;
+    private volatile Timer matchesTimer;
+    private volatile Counter rejected;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity) {
+        this.delegate = delegate;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new HashingThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+        this.executor.prestartAllCoreThreads();
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> timedEncode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> timedMatches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Non-blocking variant for the reactive stack: the future completes on a hashing thread, and a
+     * full queue fails it with {@link HashingCapacityExceededException} instead of throwing.
+     */
+    public CompletableFuture<String> encodeAsync(CharSequence rawPassword) {
+        return submit(() -> timedEncode(rawPassword));
+    }
+
+    /**
+     * Non-blocking variant of {@link #matches}; see {@link #encodeAsync}.
+     */
+    public CompletableFuture<Boolean> matchesAsync(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> timedMatches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * Publishes hashing time (measured on the worker, excluding queue wait), pool saturation and
+     * rejections under {@code auth.password.hash*}.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        encodeTimer = Timer.builder("auth.password.hash").tag("operation", "encode").register(registry);
+        matchesTimer = Timer.builder("auth.password.hash").tag("operation", "matches").register(registry);
+        rejected = Counter.builder("auth.password.hash.rejected").register(registry);
+        Gauge.builder("auth.password.hash.queued", executor, e -> e.getQueue().size()).register(registry);
+        Gauge.builder("auth.password.hash.active", executor, ThreadPoolExecutor::getActiveCount).register(registry);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private String timedEncode(CharSequence rawPassword) {
+        long start = System.nanoTime();
+        String encoded = delegate.encode(rawPassword);
+        record(encodeTimer, start);
+        return encoded;
+    }
+
+    private boolean timedMatches(CharSequence rawPassword, String encodedPassword) {
+        long start = System.nanoTime();
+        boolean matches = delegate.matches(rawPassword, encodedPassword);
+        record(matchesTimer, start);
+        return matches;
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(capacityExceeded());
+        }
+    }
+
+    private <T> T execute(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw capacityExceeded();
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private HashingCapacityExceededException capacityExceeded() {
+        Counter counter = rejected;
+        if (counter != null) {
+            counter.increment();
+        }
+        return new HashingCapacityExceededException("Password hashing capacity exceeded");
+    }
+
+    private static void record(Timer timer, long start) {
+        if (timer != null) {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static final class HashingThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hash-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.authsystem.security;
+
+import com.example.authsystem.util.BloomFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * In-memory checks run before a registration or password change touches the database: email syntax,
+ * blocked domains (a set compiled at startup), password length, and a Bloom filter of breached
+ * passwords loaded from {@code app.validation.password.breached-file}. Each check returns the message
+ * to show, or {@code null} when the input is acceptable.
+ */
+@Slf4j
+@Component
+public class CredentialValidator {
+
+    public static final String INVALID_EMAIL = "Please enter a valid email address.";
+    public static final String BLOCKED_DOMAIN = "Registrations from this email domain are not accepted.";
+    public static final String PASSWORD_TOO_LONG = "Password must be at most 72 bytes long.";
+    public static final String PASSWORD_BREACHED = "This password has appeared in a data breach. Please choose a different one.";
+
+    private static final int MAX_EMAIL_LENGTH = 254;
+    private static final int MAX_LOCAL_PART_LENGTH = 64;
+    private static final int MAX_LABEL_LENGTH = 63;
+    /** BCrypt ignores (and Spring Security rejects) anything past 72 bytes. */
+    private static final int MAX_PASSWORD_BYTES = 72;
+    private static final String LOCAL_PART_SYMBOLS = "!#$%&'*+/=?^_`{|}~.-";
+
+    private final Set<String> blockedDomains = new HashSet<>();
+    private final int minPasswordLength;
+    private final String passwordTooShort;
+    private final BloomFilter breachedPasswords;
+
+    public CredentialValidator(ValidationProperties properties, ResourceLoader resourceLoader) throws IOException {
+        properties.getBlockedDomains().forEach(this::addBlockedDomain);
+        if (StringUtils.hasText(properties.getBlockedDomainsFile())) {
+            forEachLine(resourceLoader.getResource(properties.getBlockedDomainsFile()), this::addBlockedDomain);
+        }
+        this.minPasswordLength = properties.getPassword().getMinLength();
+        this.passwordTooShort = "Password must be at least " + minPasswordLength + " characters long.";
+        this.breachedPasswords = StringUtils.hasText(properties.getPassword().getBreachedFile())
+                ? loadBreachedPasswords(resourceLoader.getResource(properties.getPassword().getBreachedFile()),
+                        properties.getPassword().getBreachedFalsePositiveRate())
+                : null;
+    }
+
+    /**
+     * Checks an email that has already been through {@link com.example.authsystem.util.EmailAddresses#normalize}.
+     */
+    public String checkEmail(String email) {
+        if (email == null || email.length() > MAX_EMAIL_LENGTH) {
+            return INVALID_EMAIL;
+        }
+        int at = email.indexOf('@');
+        if (at <= 0 || at > MAX_LOCAL_PART_LENGTH || at != email.lastIndexOf('@')
+                || !isValidLocalPart(email, at) || !isValidDomain(email, at + 1)) {
+            return INVALID_EMAIL;
+        }
+        for (int i = at; i >= 0; i = email.indexOf('.', i + 1)) {
+            if (blockedDomains.contains(email.substring(i + 1))) {
+                return BLOCKED_DOMAIN;
+            }
+        }
+        return null;
+    }
+
+    public String checkPassword(String password) {
+        if (password == null || password.codePointCount(0, password.length()) < minPasswordLength) {
+            return passwordTooShort;
+        }
+        if (password.getBytes(StandardCharsets.UTF_8).length > MAX_PASSWORD_BYTES) {
+            return PASSWORD_TOO_LONG;
+        }
+        if (breachedPasswords != null) {
+            ByteBuffer digest = ByteBuffer.wrap(sha1(password.getBytes(StandardCharsets.UTF_8)));
+            if (breachedPasswords.mightContain(digest.getLong(0), digest.getLong(8))) {
+                return PASSWORD_BREACHED;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isValidLocalPart(String email, int end) {
+        if (email.charAt(0) == '.' || email.charAt(end - 1) == '.') {
+            return false;
+        }
+        for (int i = 0; i < end; i++) {
+            char c = email.charAt(i);
+            boolean allowed = (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || LOCAL_PART_SYMBOLS.indexOf(c) >= 0;
+            if (!allowed || (c == '.' && email.charAt(i + 1) == '.')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * At least two labels of letters, digits and inner hyphens, ending in an alphabetic top-level domain.
+     */
+    private static boolean isValidDomain(String email, int start) {
+        int labels = 0;
+        int labelStart = start;
+        for (int i = start; i <= email.length(); i++) {
+            if (i < email.length() && email.charAt(i) != '.') {
+                char c = email.charAt(i);
+                if (!((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-')) {
+                    return false;
+                }
+                continue;
+            }
+            int length = i - labelStart;
+            if (length == 0 || length > MAX_LABEL_LENGTH || email.charAt(labelStart) == '-' || email.charAt(i - 1) == '-') {
+                return false;
+            }
+            labels++;
+            if (i == email.length()) {
+                return labels >= 2 && length >= 2 && isAlphabetic(email, labelStart);
+            }
+            labelStart = i + 1;
+        }
+        return false;
+    }
+
+    private static boolean isAlphabetic(String value, int start) {
+        for (int i = start; i < value.length(); i++) {
+            if (value.charAt(i) < 'a' || value.charAt(i) > 'z') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void addBlockedDomain(String domain) {
+        String normalized = domain.trim().toLowerCase(Locale.ROOT);
+        if (!normalized.isEmpty() && !normalized.startsWith("#")) {
+            blockedDomains.add(normalized.startsWith("@") ? normalized.substring(1) : normalized);
+        }
+    }
+
+    private static BloomFilter loadBreachedPasswords(Resource resource, double falsePositiveRate) throws IOException {
+        long[] entries = new long[1];
+        forEachLine(resource, line -> entries[0]++);
+        BloomFilter filter = new BloomFilter(entries[0], falsePositiveRate);
+        forEachLine(resource, line -> {
+            ByteBuffer digest = ByteBuffer.wrap(isSha1Hex(line) ? hexPrefix(line) : sha1(line.getBytes(StandardCharsets.UTF_8)));
+            filter.put(digest.getLong(0), digest.getLong(8));
+        });
+        log.info("CredentialValidator - Loaded {} breached passwords from {} into a {} KiB Bloom filter",
+                filter.size(), resource.getDescription(), filter.bitCount() / 8 / 1024);
+        return filter;
+    }
+
+    private static void forEachLine(Resource resource, Consumer<String> action) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (!line.isEmpty()) {
+                    action.accept(line);
+                }
+            }
+        }
+    }
+
+    /**
+     * A 40-digit hex SHA-1, optionally followed by {@code :count}.
+     */
+    private static boolean isSha1Hex(String line) {
+        if (line.length() < 40 || (line.length() > 40 && line.charAt(40) != ':')) {
+            return false;
+        }
+        for (int i = 0; i < 40; i++) {
+            if (Character.digit(line.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] hexPrefix(String line) {
+        return ByteBuffer.allocate(16)
+                .putLong(Long.parseUnsignedLong(line.substring(0, 16), 16))
+                .putLong(Long.parseUnsignedLong(line.substring(16, 32), 16))
+                .array();
+    }
+
+    private static byte[] sha1(byte[] input) {
+        try {
+            return MessageDigest.getInstance("SHA-1").digest(input);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is not available", e);
+        }
+    }
+}
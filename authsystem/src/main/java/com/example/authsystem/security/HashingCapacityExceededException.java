@@ -0,0 +1,12 @@
+package com.example.authsystem.security;
+
+/**
+ * Thrown when the password hashing pool and its queue are both full. Translated to
+ * HTTP 503 by {@link HashingCapacityFilter}.
+ */
+public class HashingCapacityExceededException extends RuntimeException {
+
+    public HashingCapacityExceededException(String message) {
+        super(message);
+    }
+}
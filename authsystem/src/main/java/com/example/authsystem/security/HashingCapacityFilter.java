@@ -0,0 +1,45 @@
+package com.example.authsystem.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+
+/**
+ * Turns {@link HashingCapacityExceededException}, whether thrown by the login filter or wrapped by
+ * the dispatcher servlet, into a 503 with {@code Retry-After} so clients back off instead of queueing.
+ */
+@Slf4j
+public class HashingCapacityFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try {
+            filterChain.doFilter(request, response);
+        } catch (ServletException | RuntimeException e) {
+            if (!isCapacityExceeded(e) || response.isCommitted()) {
+                throw e;
+            }
+            log.warn("HashingCapacityFilter - Rejecting {} {}: password hashing pool is saturated", request.getMethod(), request.getRequestURI());
+            response.resetBuffer();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader("Retry-After", "1");
+            response.setContentType("text/plain;charset=UTF-8");
+            response.getWriter().write("The service is busy. Please try again in a moment.");
+        }
+    }
+
+    static boolean isCapacityExceeded(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof HashingCapacityExceededException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.authsystem.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reactive counterpart of {@link HashingCapacityFilter}: answers 503 with {@code Retry-After} when the
+ * password hashing pool rejects work, whether during form login or inside a handler.
+ */
+@Slf4j
+public class HashingCapacityWebFilter implements WebFilter {
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        return chain.filter(exchange)
+                .onErrorResume(HashingCapacityFilter::isCapacityExceeded, e -> reject(exchange));
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange) {
+        ServerHttpResponse response = exchange.getResponse();
+        if (response.isCommitted()) {
+            return Mono.empty();
+        }
+        log.warn("HashingCapacityWebFilter - Rejecting {} {}: password hashing pool is saturated",
+                exchange.getRequest().getMethod(), exchange.getRequest().getPath());
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().set("Retry-After", "1");
+        response.getHeaders().setContentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8));
+        DataBuffer body = response.bufferFactory()
+                .wrap("The service is busy. Please try again in a moment.".getBytes(StandardCharsets.UTF_8));
+        return response.writeWith(Mono.just(body));
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.authsystem.security;
+
+import com.example.authsystem.util.EmailAddresses;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.event.AuthenticationFailureBadCredentialsEvent;
+import org.springframework.security.authentication.event.AuthenticationSuccessEvent;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rejects form logins for an email or from a client IP that is locked out by its recent failures,
+ * answering 429 with {@code Retry-After} before the user is loaded or a password is hashed. Failures
+ * and successes are taken from Spring Security's authentication events; a successful login clears
+ * the email's failures but not the IP's.
+ * <p>
+ * With {@code persist-lockouts}, long email lockouts are also written to {@code users.locked_until}:
+ * they survive restarts, apply on every node, and are enforced as a locked account, which the
+ * authentication provider checks before comparing the password.
+ * <p>
+ * The counters live in {@link LoginAttemptGuard}; {@link LoginAttemptWebFilter} applies them to the
+ * reactive stack.
+ */
+@Slf4j
+@Component
+@Profile("!reactive")
+public class LoginAttemptFilter extends OncePerRequestFilter {
+
+    static final String LOGIN_PATH = "/login";
+    static final String EMAIL_PARAMETER = "email";
+
+    private final LoginAttemptGuard guard;
+    private final ObjectProvider<AccountLockStore> accountLockStore;
+
+    public LoginAttemptFilter(LoginAttemptGuard guard, ObjectProvider<AccountLockStore> accountLockStore) {
+        this.guard = guard;
+        this.accountLockStore = accountLockStore;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !guard.isEnabled() || !"POST".equals(request.getMethod()) || !LOGIN_PATH.equals(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String email = request.getParameter(EMAIL_PARAMETER);
+        long waitNanos = guard.lockedFor(email == null ? null : EmailAddresses.normalize(email), request.getRemoteAddr());
+        if (waitNanos > 0L) {
+            log.debug("LoginAttemptFilter - Login from {} rejected, locked out for another {} ms", request.getRemoteAddr(),
+                    TimeUnit.NANOSECONDS.toMillis(waitNanos));
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader("Retry-After", String.valueOf(TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1));
+            response.setContentType("text/plain;charset=UTF-8");
+            response.getWriter().write("Too many failed login attempts. Please try again later.");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    @EventListener
+    public void onBadCredentials(AuthenticationFailureBadCredentialsEvent event) {
+        String email = EmailAddresses.normalize(event.getAuthentication().getName());
+        LocalDateTime persistUntil = guard.recordFailure(email, remoteAddress(event.getAuthentication()));
+        if (persistUntil != null) {
+            persistLockout(email, persistUntil);
+        }
+    }
+
+    @EventListener
+    public void onSuccess(AuthenticationSuccessEvent event) {
+        guard.recordSuccess(EmailAddresses.normalize(event.getAuthentication().getName()));
+    }
+
+    private void persistLockout(String email, LocalDateTime until) {
+        try {
+            accountLockStore.getObject().lockAccount(email, until);
+        } catch (RuntimeException e) {
+            // The in-memory lockout still applies on this node.
+            log.warn("LoginAttemptFilter - Could not persist lockout: {}", e.toString());
+        }
+    }
+
+    private static String remoteAddress(Authentication authentication) {
+        return authentication.getDetails() instanceof WebAuthenticationDetails details ? details.getRemoteAddress() : null;
+    }
+}
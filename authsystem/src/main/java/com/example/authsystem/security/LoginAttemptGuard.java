@@ -0,0 +1,74 @@
+package com.example.authsystem.security;
+
+import com.example.authsystem.util.AuditLog;
+import org.springframework.stereotype.Component;
+import java.time.LocalDateTime;
+
+/**
+ * Failed-login counters per email and per client IP, shared by {@link LoginAttemptFilter} and
+ * {@link LoginAttemptWebFilter}. Emails are expected in normalized form; either key may be null when the
+ * request does not carry it. Persisting long lockouts is left to the caller, which knows whether it may
+ * block.
+ */
+@Component
+public class LoginAttemptGuard {
+
+    private final LoginAttemptProperties properties;
+    private final LoginAttemptTracker byEmail;
+    private final LoginAttemptTracker byIp;
+    private final AuditLog auditLog;
+
+    public LoginAttemptGuard(LoginAttemptProperties properties, AuditLog auditLog) {
+        this.properties = properties;
+        this.byEmail = new LoginAttemptTracker(properties.getFreeFailuresPerEmail(), properties.getBaseLockout(),
+                properties.getMaxLockout(), properties.getDecayInterval(), properties.getMaxKeys());
+        this.byIp = new LoginAttemptTracker(properties.getFreeFailuresPerIp(), properties.getBaseLockout(),
+                properties.getMaxLockout(), properties.getDecayInterval(), properties.getMaxKeys());
+        this.auditLog = auditLog;
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Nanoseconds until a login for {@code email} from {@code ip} is let through again, or 0.
+     */
+    public long lockedFor(String email, String ip) {
+        long now = System.nanoTime();
+        long waitNanos = ip == null ? 0L : byIp.lockedFor(ip, now);
+        return email == null ? waitNanos : Math.max(waitNanos, byEmail.lockedFor(email, now));
+    }
+
+    /**
+     * Counts a bad password. Returns the time until which the account should be stored as locked when
+     * the email's new lockout is long enough to persist, otherwise null.
+     */
+    public LocalDateTime recordFailure(String email, String ip) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        long now = System.nanoTime();
+        LocalDateTime persistUntil = null;
+        if (email != null) {
+            long emailLockout = byEmail.recordFailure(email, now);
+            if (emailLockout > 0L) {
+                auditLog.record(AuditLog.Type.LOGIN_LOCKED_OUT, null, email, null, "email");
+                if (properties.isPersistLockouts() && emailLockout >= properties.getPersistMinLockout().toNanos()) {
+                    persistUntil = LocalDateTime.now().plusNanos(emailLockout);
+                }
+            }
+        }
+        if (ip != null && byIp.recordFailure(ip, now) > 0L) {
+            auditLog.record(AuditLog.Type.LOGIN_LOCKED_OUT, null, null, null, "client_ip");
+        }
+        return persistUntil;
+    }
+
+    /**
+     * Clears the email's failures; the client IP's are kept.
+     */
+    public void recordSuccess(String email) {
+        byEmail.reset(email);
+    }
+}
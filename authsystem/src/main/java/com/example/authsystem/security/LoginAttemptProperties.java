@@ -0,0 +1,38 @@
+package com.example.authsystem.security;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import java.time.Duration;
+
+/**
+ * Failed-login lockout for {@link LoginAttemptFilter} and {@link LoginAttemptWebFilter}, bound from
+ * {@code app.security.login-attempts.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.security.login-attempts")
+public class LoginAttemptProperties {
+
+    private boolean enabled = true;
+
+    /** Upper bound on emails and on client IPs tracked at once. */
+    private int maxKeys = 100_000;
+
+    /** Failed logins for one email before lockouts start. */
+    private int freeFailuresPerEmail = 5;
+
+    /** Failed logins from one client IP before lockouts start; higher, since many users can share an address. */
+    private int freeFailuresPerIp = 50;
+
+    /** Lockout after the first failure past the free ones; doubles with every further failure. */
+    private Duration baseLockout = Duration.ofSeconds(1);
+
+    private Duration maxLockout = Duration.ofMinutes(15);
+
+    /** One failure is forgotten per interval without failures. */
+    private Duration decayInterval = Duration.ofMinutes(5);
+
+    /** Also store email lockouts of at least {@link #persistMinLockout} in {@code users.locked_until}. */
+    private boolean persistLockouts = false;
+
+    private Duration persistMinLockout = Duration.ofMinutes(1);
+}
@@ -0,0 +1,82 @@
+package com.example.authsystem.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+
+/**
+ * Failed-login counters per key (an email or a client IP) with progressive lockout. Each failure past
+ * {@code freeFailures} locks the key for {@code baseLockout}, doubled for every further failure up to
+ * {@code maxLockout}, and one failure is forgotten per {@code decayInterval} without failures. Each key
+ * holds an immutable {@link Attempts}, replaced atomically, in a cache bounded to {@code maxKeys} that
+ * drops keys once their failures would have decayed anyway.
+ */
+public class LoginAttemptTracker {
+
+    record Attempts(int failures, long lastFailure, long lockedUntil) {
+    }
+
+    private final int freeFailures;
+    private final long baseLockoutNanos;
+    private final long maxLockoutNanos;
+    private final long decayIntervalNanos;
+    private final Cache<String, Attempts> attempts;
+
+    public LoginAttemptTracker(int freeFailures, Duration baseLockout, Duration maxLockout, Duration decayInterval, int maxKeys) {
+        this.freeFailures = freeFailures;
+        this.baseLockoutNanos = Math.max(1L, baseLockout.toNanos());
+        this.maxLockoutNanos = Math.max(baseLockoutNanos, maxLockout.toNanos());
+        this.decayIntervalNanos = Math.max(1L, decayInterval.toNanos());
+        this.attempts = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(maxLockout.plus(decayInterval.multipliedBy(freeFailures + 1L)))
+                .build();
+    }
+
+    /**
+     * Nanoseconds until {@code key} may try again, or 0 if it is not locked.
+     */
+    public long lockedFor(String key, long now) {
+        Attempts current = attempts.getIfPresent(key);
+        return current == null ? 0L : Math.max(0L, current.lockedUntil() - now);
+    }
+
+    /**
+     * Counts a failed login for {@code key}. Returns the lockout this failure started in nanoseconds,
+     * or 0 if the key is still within its free failures.
+     */
+    public long recordFailure(String key, long now) {
+        Attempts updated = attempts.asMap().compute(key, (k, current) -> {
+            int failures = current == null ? 1 : decayed(current, now) + 1;
+            long lockout = lockoutFor(failures);
+            long lockedUntil = current == null ? 0L : current.lockedUntil();
+            return new Attempts(failures, now, lockout > 0 ? Math.max(lockedUntil, now + lockout) : lockedUntil);
+        });
+        return lockoutFor(updated.failures());
+    }
+
+    public void reset(String key) {
+        attempts.invalidate(key);
+    }
+
+    public long size() {
+        return attempts.estimatedSize();
+    }
+
+    private int decayed(Attempts current, long now) {
+        long forgiven = Math.max(0L, now - current.lastFailure()) / decayIntervalNanos;
+        return (int) Math.max(0L, current.failures() - forgiven);
+    }
+
+    private long lockoutFor(int failures) {
+        int excess = failures - freeFailures;
+        if (excess <= 0) {
+            return 0L;
+        }
+        long lockout = baseLockoutNanos;
+        for (int i = 1; i < excess && lockout < maxLockoutNanos; i++) {
+            lockout <<= 1;
+        }
+        return Math.min(lockout, maxLockoutNanos);
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.authsystem.security;
+
+import com.example.authsystem.util.EmailAddresses;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.web.server.authentication.ServerAuthenticationFailureHandler;
+import org.springframework.security.web.server.authentication.ServerAuthenticationSuccessHandler;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatcher;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reactive counterpart of {@link LoginAttemptFilter}: answers 429 with {@code Retry-After} to form logins
+ * for a locked-out email or client IP before the user is loaded or a password is hashed. WebFlux
+ * publishes no authentication events, so outcomes are recorded by wrapping the login filter's success
+ * and failure handlers ({@link #recordingSuccess}, {@link #recordingFailures}). Long lockouts are stored
+ * through {@link ReactiveAccountLockStore}.
+ */
+@Slf4j
+public class LoginAttemptWebFilter implements WebFilter {
+
+    private final LoginAttemptGuard guard;
+    private final ReactiveAccountLockStore accountLockStore;
+    private final ServerWebExchangeMatcher loginMatcher =
+            ServerWebExchangeMatchers.pathMatchers(HttpMethod.POST, LoginAttemptFilter.LOGIN_PATH);
+
+    public LoginAttemptWebFilter(LoginAttemptGuard guard, ReactiveAccountLockStore accountLockStore) {
+        this.guard = guard;
+        this.accountLockStore = accountLockStore;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!guard.isEnabled()) {
+            return chain.filter(exchange);
+        }
+        return loginMatcher.matches(exchange)
+                .flatMap(match -> match.isMatch() ? checkLockout(exchange, chain) : chain.filter(exchange));
+    }
+
+    private Mono<Void> checkLockout(ServerWebExchange exchange, WebFilterChain chain) {
+        return email(exchange)
+                .map(email -> guard.lockedFor(email.isEmpty() ? null : email, remoteAddress(exchange)))
+                .flatMap(waitNanos -> waitNanos > 0L ? reject(exchange, waitNanos) : chain.filter(exchange));
+    }
+
+    /**
+     * Clears the email's failures before {@code delegate} completes the login.
+     */
+    public ServerAuthenticationSuccessHandler recordingSuccess(ServerAuthenticationSuccessHandler delegate) {
+        return (webFilterExchange, authentication) -> {
+            guard.recordSuccess(EmailAddresses.normalize(authentication.getName()));
+            return delegate.onAuthenticationSuccess(webFilterExchange, authentication);
+        };
+    }
+
+    /**
+     * Counts bad passwords, persisting long lockouts, before {@code delegate} answers the failed login.
+     * Other failures, such as a locked or disabled account, are not counted.
+     */
+    public ServerAuthenticationFailureHandler recordingFailures(ServerAuthenticationFailureHandler delegate) {
+        return (webFilterExchange, exception) -> {
+            Mono<Void> respond = Mono.defer(() -> delegate.onAuthenticationFailure(webFilterExchange, exception));
+            if (!(exception instanceof BadCredentialsException) || !guard.isEnabled()) {
+                return respond;
+            }
+            ServerWebExchange exchange = webFilterExchange.getExchange();
+            return email(exchange)
+                    .flatMap(email -> {
+                        LocalDateTime persistUntil = guard.recordFailure(email.isEmpty() ? null : email, remoteAddress(exchange));
+                        return persistUntil == null ? Mono.<Void>empty() : persistLockout(email, persistUntil);
+                    })
+                    .then(respond);
+        };
+    }
+
+    private Mono<Void> persistLockout(String email, LocalDateTime until) {
+        return accountLockStore.lockAccount(email, until)
+                .onErrorResume(e -> {
+                    // The in-memory lockout still applies on this node.
+                    log.warn("LoginAttemptWebFilter - Could not persist lockout: {}", e.toString());
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * The normalized email of the login form, or an empty string if it has none. The form data is cached
+     * by the exchange, so the login filter can still read it.
+     */
+    private static Mono<String> email(ServerWebExchange exchange) {
+        return exchange.getFormData()
+                .map(form -> {
+                    String email = form.getFirst(LoginAttemptFilter.EMAIL_PARAMETER);
+                    return email == null ? "" : EmailAddresses.normalize(email);
+                });
+    }
+
+    private static String remoteAddress(ServerWebExchange exchange) {
+        InetSocketAddress address = exchange.getRequest().getRemoteAddress();
+        if (address == null) {
+            return null;
+        }
+        return address.getAddress() != null ? address.getAddress().getHostAddress() : address.getHostString();
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange, long waitNanos) {
+        log.debug("LoginAttemptWebFilter - Login from {} rejected, locked out for another {} ms", remoteAddress(exchange),
+                TimeUnit.NANOSECONDS.toMillis(waitNanos));
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().set("Retry-After", String.valueOf(TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1));
+        response.getHeaders().setContentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8));
+        DataBuffer body = response.bufferFactory()
+                .wrap("Too many failed login attempts. Please try again later.".getBytes(StandardCharsets.UTF_8));
+        return response.writeWith(Mono.just(body));
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.authsystem.security;
+
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import reactor.core.publisher.Mono;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Authenticates Prometheus scrapes against the one credential in {@code app.metrics.scrape.*} instead of
+ * the user store. A scrape never loads a user or runs a password hash, so the endpoint can neither be
+ * used to guess account passwords nor to queue BCrypt work past the login protections. The comparison
+ * is over SHA-256 digests and takes the same time whatever the input. With no password configured
+ * every scrape is rejected.
+ */
+public class MetricsScrapeAuthenticationManager implements AuthenticationManager {
+
+    public static final String ROLE = "METRICS";
+
+    private final String username;
+    private final byte[] usernameDigest;
+    private final byte[] passwordDigest;
+
+    public MetricsScrapeAuthenticationManager(String username, String password) {
+        this.username = username;
+        this.usernameDigest = sha256(username);
+        this.passwordDigest = password == null || password.isEmpty() ? null : sha256(password);
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) {
+        boolean usernameMatches = MessageDigest.isEqual(usernameDigest, sha256(authentication.getName()));
+        boolean passwordMatches = passwordDigest != null
+                && MessageDigest.isEqual(passwordDigest, sha256(String.valueOf(authentication.getCredentials())));
+        if (!usernameMatches || !passwordMatches) {
+            throw new BadCredentialsException("Bad credentials");
+        }
+        return UsernamePasswordAuthenticationToken.authenticated(username, null, AuthorityUtils.createAuthorityList("ROLE_" + ROLE));
+    }
+
+    /**
+     * The same check for the reactive stack; it does no I/O, so it runs on the calling thread.
+     */
+    public ReactiveAuthenticationManager reactive() {
+        return authentication -> Mono.fromCallable(() -> authenticate(authentication));
+    }
+
+    private static byte[] sha256(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
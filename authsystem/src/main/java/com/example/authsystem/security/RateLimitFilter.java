@@ -0,0 +1,102 @@
+package com.example.authsystem.security;
+
+import com.example.authsystem.util.EmailAddresses;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throttles the endpoints listed in {@link RateLimitProperties} by client IP and by the submitted
+ * email, answering 429 with {@code Retry-After} once either bucket is empty. Registered in the
+ * security filter chain by {@code SecurityConfig}; requests to other paths pass straight through.
+ */
+@Slf4j
+@Component
+@Profile("!reactive")
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final List<CompiledRule> rules = new ArrayList<>();
+    private final String emailParameter;
+    private final boolean enabled;
+
+    public RateLimitFilter(RateLimitProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.emailParameter = properties.getEmailParameter();
+        properties.getRules().forEach((name, rule) -> rules.add(new CompiledRule(name, rule.getPath(), rule.getMethod(),
+                limiter(rule.getPerIp(), properties.getMaxKeys()), limiter(rule.getPerEmail(), properties.getMaxKeys()))));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || match(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        CompiledRule rule = match(request);
+        long waitNanos = 0L;
+        long now = System.nanoTime();
+        if (rule.perIp() != null) {
+            waitNanos = rule.perIp().tryAcquire(request.getRemoteAddr(), now);
+        }
+        if (waitNanos == 0L && rule.perEmail() != null) {
+            String email = request.getParameter(emailParameter);
+            if (email != null && !email.isBlank()) {
+                waitNanos = rule.perEmail().tryAcquire(EmailAddresses.normalize(email), now);
+            }
+        }
+        if (waitNanos > 0L) {
+            log.warn("RateLimitFilter - Throttled {} {} from {}", request.getMethod(), request.getRequestURI(), request.getRemoteAddr());
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader("Retry-After", String.valueOf(Math.max(1L, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1)));
+            response.setContentType("text/plain;charset=UTF-8");
+            response.getWriter().write("Too many requests. Please try again later.");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.eviction-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        for (CompiledRule rule : rules) {
+            if (rule.perIp() != null) {
+                rule.perIp().evictIdle();
+            }
+            if (rule.perEmail() != null) {
+                rule.perEmail().evictIdle();
+            }
+        }
+    }
+
+    private CompiledRule match(HttpServletRequest request) {
+        String path = request.getServletPath();
+        for (CompiledRule rule : rules) {
+            if (rule.path().equals(path) && rule.method().equalsIgnoreCase(request.getMethod())) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    private static TokenBucketRateLimiter limiter(RateLimitProperties.Limit limit, int maxKeys) {
+        if (limit == null || limit.getCapacity() <= 0 || limit.getPeriod() == null) {
+            return null;
+        }
+        return new TokenBucketRateLimiter(limit.getCapacity(), limit.getPeriod(), maxKeys);
+    }
+
+    private record CompiledRule(String name, String path, String method, TokenBucketRateLimiter perIp, TokenBucketRateLimiter perEmail) {
+    }
+}
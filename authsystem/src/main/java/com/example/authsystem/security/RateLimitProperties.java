@@ -0,0 +1,47 @@
+package com.example.authsystem.security;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-endpoint limits for {@link RateLimitFilter}, bound from {@code app.rate-limit.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /** Upper bound on buckets kept per limiter; beyond it the least recently and frequently used are evicted. */
+    private int maxKeys = 100_000;
+
+    /** Request parameter holding the target email on limited endpoints. */
+    private String emailParameter = "email";
+
+    private Map<String, Rule> rules = new LinkedHashMap<>();
+
+    @Data
+    public static class Rule {
+
+        private String path;
+
+        private String method = "POST";
+
+        private Limit perIp;
+
+        private Limit perEmail;
+    }
+
+    @Data
+    public static class Limit {
+
+        /** Requests allowed in a burst. */
+        private long capacity;
+
+        /** Time in which the full capacity is replenished. */
+        private Duration period;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.authsystem.security;
+
+import reactor.core.publisher.Mono;
+import java.time.LocalDateTime;
+
+/**
+ * Non-blocking counterpart of {@link AccountLockStore}, where {@link LoginAttemptWebFilter} persists
+ * long lockouts. Implemented by the reactive user service.
+ */
+public interface ReactiveAccountLockStore {
+
+    /**
+     * Reports the account with the (normalized) {@code email} as locked until {@code until}.
+     */
+    Mono<Void> lockAccount(String email, LocalDateTime until);
+}
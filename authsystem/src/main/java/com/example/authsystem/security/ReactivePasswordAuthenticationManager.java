@@ -0,0 +1,70 @@
+package com.example.authsystem.security;
+
+import org.springframework.security.authentication.AccountStatusUserDetailsChecker;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsPasswordService;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsChecker;
+import reactor.core.publisher.Mono;
+
+/**
+ * Form-login authentication for the reactive stack. Unlike Spring Security's
+ * {@code UserDetailsRepositoryReactiveAuthenticationManager}, which calls the blocking encoder on a
+ * {@code boundedElastic} thread, the hash comparison is handed to the {@link BoundedPasswordEncoder}
+ * pool and no event-loop or elastic thread waits for it. Mirrors {@code DaoAuthenticationProvider}:
+ * account status is checked first, unknown emails still pay for one hash comparison, and outdated
+ * hashes are upgraded after a successful login.
+ */
+public class ReactivePasswordAuthenticationManager implements ReactiveAuthenticationManager {
+
+    private static final String BAD_CREDENTIALS = "Bad credentials";
+    private static final String USER_NOT_FOUND_PASSWORD = "userNotFoundPassword";
+
+    private final ReactiveUserDetailsService userDetailsService;
+    private final ReactiveUserDetailsPasswordService passwordService;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final UserDetailsChecker statusChecker = new AccountStatusUserDetailsChecker();
+    private volatile String userNotFoundEncodedPassword;
+
+    public ReactivePasswordAuthenticationManager(ReactiveUserDetailsService userDetailsService,
+                                                 ReactiveUserDetailsPasswordService passwordService,
+                                                 BoundedPasswordEncoder passwordEncoder) {
+        this.userDetailsService = userDetailsService;
+        this.passwordService = passwordService;
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    @Override
+    public Mono<Authentication> authenticate(Authentication authentication) {
+        String presentedPassword = String.valueOf(authentication.getCredentials());
+        return userDetailsService.findByUsername(authentication.getName())
+                .switchIfEmpty(Mono.defer(() -> mitigateTiming(presentedPassword)
+                        .then(Mono.error(new BadCredentialsException(BAD_CREDENTIALS)))))
+                .doOnNext(statusChecker::check)
+                .flatMap(user -> Mono.fromFuture(() -> passwordEncoder.matchesAsync(presentedPassword, user.getPassword()))
+                        .flatMap(matches -> matches ? Mono.just(user) : Mono.error(new BadCredentialsException(BAD_CREDENTIALS))))
+                .flatMap(user -> upgradeEncodingIfNecessary(user, presentedPassword))
+                .map(user -> UsernamePasswordAuthenticationToken.authenticated(user, user.getPassword(), user.getAuthorities()));
+    }
+
+    private Mono<UserDetails> upgradeEncodingIfNecessary(UserDetails user, String presentedPassword) {
+        if (!passwordEncoder.upgradeEncoding(user.getPassword())) {
+            return Mono.just(user);
+        }
+        return Mono.fromFuture(() -> passwordEncoder.encodeAsync(presentedPassword))
+                .flatMap(encoded -> passwordService.updatePassword(user, encoded));
+    }
+
+    private Mono<Boolean> mitigateTiming(String presentedPassword) {
+        String encoded = userNotFoundEncodedPassword;
+        Mono<String> dummy = encoded != null
+                ? Mono.just(encoded)
+                : Mono.fromFuture(() -> passwordEncoder.encodeAsync(USER_NOT_FOUND_PASSWORD))
+                        .doOnNext(value -> userNotFoundEncodedPassword = value);
+        return dummy.flatMap(value -> Mono.fromFuture(() -> passwordEncoder.matchesAsync(presentedPassword, value)));
+    }
+}
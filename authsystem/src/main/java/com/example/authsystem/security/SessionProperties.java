@@ -0,0 +1,36 @@
+package com.example.authsystem.security;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import java.time.Duration;
+
+/**
+ * How a logged-in user is remembered between requests, bound from {@code app.session.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.session")
+public class SessionProperties {
+
+    public enum Mode { HTTP_SESSION, STATELESS }
+
+    /** HTTP_SESSION keeps the security context in the servlet session; STATELESS issues signed access/refresh tokens. */
+    private Mode mode = Mode.HTTP_SESSION;
+
+    /** Lifetime of an access token; requests carrying it are authenticated without any lookup. */
+    private Duration accessTokenTtl = Duration.ofMinutes(15);
+
+    /** Lifetime of a refresh token, which is checked against the user's current password before use. */
+    private Duration refreshTokenTtl = Duration.ofHours(12);
+
+    private String accessCookieName = "AUTH_TOKEN";
+
+    private String refreshCookieName = "AUTH_REFRESH";
+
+    /** Mark token cookies {@code Secure}; enable whenever the site is served over HTTPS. */
+    private boolean secureCookies = false;
+
+    /** Upper bound on revoked token ids remembered until they expire. */
+    private long denylistMaxSize = 100_000;
+
+    private TokenProperties.Signing signing = new TokenProperties.Signing();
+}
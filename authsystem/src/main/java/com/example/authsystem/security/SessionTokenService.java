@@ -0,0 +1,178 @@
+package com.example.authsystem.security;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Issues and validates the HS256 JWTs used by {@link SessionProperties.Mode#STATELESS}. An access token
+ * carries the user's email and roles and is trusted until it expires unless its id is on the
+ * {@link TokenDenylist}. A refresh token additionally carries a fingerprint of the password hash, so
+ * changing the password invalidates every refresh token issued before. Keys are selected by the
+ * {@code kid} header and rotate the same way as {@link SignedTokenService} keys.
+ */
+@Component
+public class SessionTokenService {
+
+    public enum Type { ACCESS, REFRESH }
+
+    public record Claims(String keyId, String id, Type type, String subject, List<String> roles,
+                         Instant issuedAt, Instant expiresAt, Long passwordFingerprint) {
+    }
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final Map<String, Mac> macs = new HashMap<>();
+    private final String activeKeyId;
+    private final SessionProperties properties;
+    private final Clock clock;
+
+    @Autowired
+    public SessionTokenService(SessionProperties properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    SessionTokenService(SessionProperties properties, Clock clock) {
+        this.properties = properties;
+        this.clock = clock;
+        this.activeKeyId = properties.getSigning().getActiveKeyId();
+        properties.getSigning().getKeys().forEach((keyId, secret) -> macs.put(keyId, newMac(Base64.getDecoder().decode(secret.trim()))));
+        if (properties.getMode() == SessionProperties.Mode.STATELESS && (activeKeyId == null || !macs.containsKey(activeKeyId))) {
+            throw new IllegalStateException("app.session.mode=stateless requires app.session.signing.active-key-id to name a configured key");
+        }
+    }
+
+    public String issueAccessToken(String subject, List<String> roles) {
+        return issue(Type.ACCESS, subject, roles, null);
+    }
+
+    public String issueRefreshToken(String subject, String passwordHash) {
+        return issue(Type.REFRESH, subject, List.of(), fingerprint(activeKeyId, passwordHash));
+    }
+
+    /**
+     * Returns the claims if the signature verifies, the token is of {@code expectedType} and it has
+     * not expired. Revocation is checked separately against the {@link TokenDenylist}.
+     */
+    public Optional<Claims> parse(String token, Type expectedType) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        int firstDot = token.indexOf('.');
+        int lastDot = token.lastIndexOf('.');
+        if (firstDot <= 0 || lastDot <= firstDot) {
+            return Optional.empty();
+        }
+        try {
+            Map<String, Object> header = JSON.readValue(DECODER.decode(token.substring(0, firstDot)), new TypeReference<>() { });
+            Object keyId = header.get("kid");
+            if (!"HS256".equals(header.get("alg")) || !(keyId instanceof String) || !macs.containsKey(keyId)) {
+                return Optional.empty();
+            }
+            byte[] signature = DECODER.decode(token.substring(lastDot + 1));
+            if (!MessageDigest.isEqual(signature, sign((String) keyId, token.substring(0, lastDot)))) {
+                return Optional.empty();
+            }
+            Map<String, Object> payload = JSON.readValue(DECODER.decode(token.substring(firstDot + 1, lastDot)), new TypeReference<>() { });
+            Type type = Type.valueOf(String.valueOf(payload.get("typ")).toUpperCase(Locale.ROOT));
+            Instant expiresAt = Instant.ofEpochSecond(((Number) payload.get("exp")).longValue());
+            if (type != expectedType || !expiresAt.isAfter(clock.instant())) {
+                return Optional.empty();
+            }
+            @SuppressWarnings("unchecked")
+            List<String> roles = (List<String>) payload.getOrDefault("roles", List.of());
+            Object fingerprint = payload.get("pwd");
+            return Optional.of(new Claims((String) keyId, (String) payload.get("jti"), type, (String) payload.get("sub"), roles,
+                    Instant.ofEpochSecond(((Number) payload.get("iat")).longValue()), expiresAt,
+                    fingerprint == null ? null : ((Number) fingerprint).longValue()));
+        } catch (IllegalArgumentException | ClassCastException | NullPointerException | IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * True if the refresh token was issued while the user's password hash was {@code passwordHash}.
+     */
+    public boolean matchesPassword(Claims claims, String passwordHash) {
+        return claims.passwordFingerprint() != null && fingerprint(claims.keyId(), passwordHash) == claims.passwordFingerprint();
+    }
+
+    private String issue(Type type, String subject, List<String> roles, Long passwordFingerprint) {
+        Instant now = clock.instant();
+        Instant expiresAt = now.plus(type == Type.ACCESS ? properties.getAccessTokenTtl() : properties.getRefreshTokenTtl());
+        Map<String, Object> header = new LinkedHashMap<>();
+        header.put("alg", "HS256");
+        header.put("typ", "JWT");
+        header.put("kid", activeKeyId);
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("jti", UUID.randomUUID().toString());
+        payload.put("typ", type.name().toLowerCase(Locale.ROOT));
+        payload.put("sub", subject);
+        if (!roles.isEmpty()) {
+            payload.put("roles", roles);
+        }
+        payload.put("iat", now.getEpochSecond());
+        payload.put("exp", expiresAt.getEpochSecond());
+        if (passwordFingerprint != null) {
+            payload.put("pwd", passwordFingerprint);
+        }
+        try {
+            String signedPart = ENCODER.encodeToString(JSON.writeValueAsBytes(header)) + "." + ENCODER.encodeToString(JSON.writeValueAsBytes(payload));
+            return signedPart + "." + ENCODER.encodeToString(sign(activeKeyId, signedPart));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialise session token", e);
+        }
+    }
+
+    private long fingerprint(String keyId, String passwordHash) {
+        byte[] input = ("fp:" + (passwordHash == null ? "" : passwordHash)).getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.wrap(mac(keyId).doFinal(input), 0, Long.BYTES).getLong();
+    }
+
+    private byte[] sign(String keyId, String signedPart) {
+        return mac(keyId).doFinal(signedPart.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private Mac mac(String keyId) {
+        try {
+            return (Mac) macs.get(keyId).clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Mac newMac(byte[] secret) {
+        if (secret.length < 32) {
+            throw new IllegalStateException("Session signing keys must be at least 256 bits");
+        }
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(secret, ALGORITHM));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialise " + ALGORITHM, e);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.authsystem.security;
+
+import com.example.authsystem.model.TokenPurpose;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Issues and validates self-contained link tokens of the form {@code <keyId>.<payload>.<signature>}.
+ * The payload holds the user id, purpose, expiry and a fingerprint of the user's password hash at
+ * issue time; the signature is HMAC-SHA256 under the key named by {@code keyId}, so keys can be
+ * rotated by adding a new active key while older ones still verify. {@link #parse} needs no storage;
+ * single use comes from the fingerprint, which stops matching once the password has been changed and
+ * is checked with {@link #matchesPassword} when the new password is submitted.
+ * Any change of the stored hash counts, including the transparent rehash on login after the encoding
+ * or BCrypt cost was raised: that login proves the user knows the password, and a fresh link can be
+ * requested, so outstanding links for that user are deliberately dropped rather than tracked separately.
+ */
+@Component
+public class SignedTokenService {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int PAYLOAD_LENGTH = Long.BYTES + 1 + Long.BYTES + Long.BYTES;
+    private static final int FINGERPRINT_LENGTH = Long.BYTES;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    public record Claims(long userId, TokenPurpose purpose, Instant expiresAt, long passwordFingerprint) {
+    }
+
+    private final Map<String, Mac> macs = new HashMap<>();
+    private final String activeKeyId;
+    private final Clock clock;
+
+    @Autowired
+    public SignedTokenService(TokenProperties properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    SignedTokenService(TokenProperties properties, Clock clock) {
+        this.clock = clock;
+        this.activeKeyId = properties.getSigning().getActiveKeyId();
+        properties.getSigning().getKeys().forEach((keyId, secret) -> {
+            if (keyId.indexOf('.') >= 0) {
+                throw new IllegalStateException("Token signing key id must not contain '.': " + keyId);
+            }
+            macs.put(keyId, newMac(Base64.getDecoder().decode(secret.trim())));
+        });
+        if (properties.getMode() == TokenProperties.Mode.SIGNED && (activeKeyId == null || !macs.containsKey(activeKeyId))) {
+            throw new IllegalStateException("app.tokens.mode=signed requires app.tokens.signing.active-key-id to name a configured key");
+        }
+    }
+
+    public String issue(long userId, TokenPurpose purpose, String passwordHash, Instant expiresAt) {
+        ByteBuffer payload = ByteBuffer.allocate(PAYLOAD_LENGTH)
+                .putLong(userId)
+                .put((byte) purpose.ordinal())
+                .putLong(expiresAt.getEpochSecond())
+                .putLong(fingerprint(activeKeyId, passwordHash));
+        String signedPart = activeKeyId + "." + ENCODER.encodeToString(payload.array());
+        return signedPart + "." + ENCODER.encodeToString(sign(activeKeyId, signedPart));
+    }
+
+    /**
+     * Returns the claims if the signature verifies, the purpose matches and the token has not
+     * expired. The password fingerprint is returned for the caller to compare.
+     */
+    public Optional<Claims> parse(String token, TokenPurpose expectedPurpose) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        int firstDot = token.indexOf('.');
+        int lastDot = token.lastIndexOf('.');
+        if (firstDot <= 0 || lastDot <= firstDot) {
+            return Optional.empty();
+        }
+        String keyId = token.substring(0, firstDot);
+        if (!macs.containsKey(keyId)) {
+            return Optional.empty();
+        }
+        byte[] payloadBytes;
+        byte[] signature;
+        try {
+            payloadBytes = DECODER.decode(token.substring(firstDot + 1, lastDot));
+            signature = DECODER.decode(token.substring(lastDot + 1));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        if (payloadBytes.length != PAYLOAD_LENGTH
+                || !MessageDigest.isEqual(signature, sign(keyId, token.substring(0, lastDot)))) {
+            return Optional.empty();
+        }
+        ByteBuffer payload = ByteBuffer.wrap(payloadBytes);
+        long userId = payload.getLong();
+        int purposeOrdinal = payload.get();
+        Instant expiresAt = Instant.ofEpochSecond(payload.getLong());
+        long fingerprint = payload.getLong();
+        if (purposeOrdinal != expectedPurpose.ordinal() || !expiresAt.isAfter(clock.instant())) {
+            return Optional.empty();
+        }
+        return Optional.of(new Claims(userId, expectedPurpose, expiresAt, fingerprint));
+    }
+
+    /**
+     * True if {@code passwordHash} is the hash the token was issued against, i.e. the password has
+     * not changed since and the token has not been used.
+     */
+    public boolean matchesPassword(String token, Claims claims, String passwordHash) {
+        String keyId = token.substring(0, token.indexOf('.'));
+        return fingerprint(keyId, passwordHash) == claims.passwordFingerprint();
+    }
+
+    private long fingerprint(String keyId, String passwordHash) {
+        byte[] input = ("fp:" + (passwordHash == null ? "" : passwordHash)).getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.wrap(mac(keyId).doFinal(input), 0, FINGERPRINT_LENGTH).getLong();
+    }
+
+    private byte[] sign(String keyId, String signedPart) {
+        return mac(keyId).doFinal(signedPart.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private Mac mac(String keyId) {
+        try {
+            return (Mac) macs.get(keyId).clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Mac newMac(byte[] secret) {
+        if (secret.length < 32) {
+            throw new IllegalStateException("Token signing keys must be at least 256 bits");
+        }
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(secret, ALGORITHM));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialise " + ALGORITHM, e);
+        }
+    }
+}
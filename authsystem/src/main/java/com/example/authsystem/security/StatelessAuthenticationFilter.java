@@ -0,0 +1,146 @@
+package com.example.authsystem.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextHolderStrategy;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Authenticates requests in {@link SessionProperties.Mode#STATELESS} from the access token in the
+ * {@code Authorization: Bearer} header or the access cookie. A valid, non-revoked token is trusted as
+ * is: the principal is rebuilt from its claims without touching the database or a session.
+ * <p>
+ * When a browser's access cookie has expired, the refresh cookie is used to issue a new access token
+ * on the fly. Clients using headers call {@code POST /auth/refresh} with the refresh token as bearer
+ * token instead. Either way the user is reloaded once and the refresh token is only honoured if the
+ * account is still enabled and its password is unchanged since the token was issued.
+ */
+@Slf4j
+public class StatelessAuthenticationFilter extends OncePerRequestFilter {
+
+    public static final String REFRESH_PATH = "/auth/refresh";
+
+    private final SessionProperties properties;
+    private final SessionTokenService sessionTokens;
+    private final TokenDenylist denylist;
+    private final UserDetailsService userDetailsService;
+    private final StatelessSessionHandler sessionHandler;
+    private final SecurityContextHolderStrategy securityContextHolderStrategy = SecurityContextHolder.getContextHolderStrategy();
+    private final SecurityContextRepository securityContextRepository = new RequestAttributeSecurityContextRepository();
+
+    public StatelessAuthenticationFilter(SessionProperties properties, SessionTokenService sessionTokens, TokenDenylist denylist,
+                                         UserDetailsService userDetailsService, StatelessSessionHandler sessionHandler) {
+        this.properties = properties;
+        this.sessionTokens = sessionTokens;
+        this.denylist = denylist;
+        this.userDetailsService = userDetailsService;
+        this.sessionHandler = sessionHandler;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if ("POST".equals(request.getMethod()) && REFRESH_PATH.equals(request.getServletPath())) {
+            refreshForBearerClient(request, response);
+            return;
+        }
+
+        String bearerToken = bearerToken(request);
+        String accessToken = bearerToken != null ? bearerToken : StatelessSessionHandler.cookieValue(request, properties.getAccessCookieName());
+        Optional<SessionTokenService.Claims> claims = validAccessToken(accessToken);
+        if (claims.isEmpty() && bearerToken == null) {
+            claims = refreshFromCookie(request, response);
+        }
+        claims.ifPresent(tokenClaims -> authenticate(tokenClaims, request, response));
+        filterChain.doFilter(request, response);
+    }
+
+    private Optional<SessionTokenService.Claims> validAccessToken(String token) {
+        return sessionTokens.parse(token, SessionTokenService.Type.ACCESS)
+                .filter(claims -> !denylist.isRevoked(claims.id()));
+    }
+
+    private Optional<SessionTokenService.Claims> refreshFromCookie(HttpServletRequest request, HttpServletResponse response) {
+        String refreshToken = StatelessSessionHandler.cookieValue(request, properties.getRefreshCookieName());
+        if (refreshToken == null) {
+            return Optional.empty();
+        }
+        Optional<UserDetails> user = userForRefreshToken(refreshToken);
+        if (user.isEmpty()) {
+            sessionHandler.setCookie(response, properties.getRefreshCookieName(), "", Duration.ZERO);
+            return Optional.empty();
+        }
+        String accessToken = sessionTokens.issueAccessToken(user.get().getUsername(),
+                AuthorityUtils.authorityListToSet(user.get().getAuthorities()).stream().toList());
+        sessionHandler.setCookie(response, properties.getAccessCookieName(), accessToken, properties.getAccessTokenTtl());
+        return validAccessToken(accessToken);
+    }
+
+    private void refreshForBearerClient(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Optional<UserDetails> user = userForRefreshToken(bearerToken(request));
+        if (user.isEmpty()) {
+            response.setStatus(HttpStatus.UNAUTHORIZED.value());
+            return;
+        }
+        String accessToken = sessionTokens.issueAccessToken(user.get().getUsername(),
+                AuthorityUtils.authorityListToSet(user.get().getAuthorities()).stream().toList());
+        sessionHandler.writeTokens(response, accessToken, null);
+    }
+
+    private Optional<UserDetails> userForRefreshToken(String refreshToken) {
+        Optional<SessionTokenService.Claims> claims = sessionTokens.parse(refreshToken, SessionTokenService.Type.REFRESH)
+                .filter(refreshClaims -> !denylist.isRevoked(refreshClaims.id()));
+        if (claims.isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            UserDetails user = userDetailsService.loadUserByUsername(claims.get().subject());
+            if (user.isEnabled() && user.isAccountNonLocked() && sessionTokens.matchesPassword(claims.get(), user.getPassword())) {
+                return Optional.of(user);
+            }
+            log.info("StatelessAuthenticationFilter - Refresh token for {} rejected: account disabled or password changed", claims.get().subject());
+        } catch (UsernameNotFoundException e) {
+            log.info("StatelessAuthenticationFilter - Refresh token for unknown user {}", claims.get().subject());
+        }
+        return Optional.empty();
+    }
+
+    private void authenticate(SessionTokenService.Claims claims, HttpServletRequest request, HttpServletResponse response) {
+        UserDetails principal = User.withUsername(claims.subject())
+                .password("")
+                .authorities(claims.roles().toArray(String[]::new))
+                .build();
+        SecurityContext context = securityContextHolderStrategy.createEmptyContext();
+        context.setAuthentication(UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities()));
+        securityContextHolderStrategy.setContext(context);
+        // Marks the request as already authenticated, so session management does not treat it as a fresh login.
+        securityContextRepository.saveContext(context, request, response);
+    }
+
+    static String bearerToken(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            return null;
+        }
+        String token = header.substring(7).trim();
+        return token.isEmpty() ? null : token;
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.authsystem.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseCookie;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
+import org.springframework.security.web.authentication.logout.LogoutHandler;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Login and logout for {@link SessionProperties.Mode#STATELESS}. A successful form login issues an
+ * access and a refresh token: browsers get them as {@code HttpOnly} cookies and are redirected to the
+ * dashboard, clients sending {@code Accept: application/json} get them in the response body. Logout
+ * puts both tokens on the {@link TokenDenylist} and clears the cookies; clients that keep the refresh
+ * token themselves send it in the {@value #REFRESH_TOKEN_HEADER} header, or as {@value #REFRESH_TOKEN_PARAMETER}
+ * in a form or JSON body.
+ */
+@Slf4j
+public class StatelessSessionHandler implements AuthenticationSuccessHandler, LogoutHandler {
+
+    public static final String REFRESH_TOKEN_HEADER = "X-Refresh-Token";
+    public static final String REFRESH_TOKEN_PARAMETER = "refresh_token";
+
+    private static final JsonMapper JSON = new JsonMapper();
+    private static final int MAX_LOGOUT_BODY_BYTES = 8192;
+
+    private final SessionProperties properties;
+    private final SessionTokenService sessionTokens;
+    private final TokenDenylist denylist;
+    private final UserDetailsService userDetailsService;
+
+    public StatelessSessionHandler(SessionProperties properties, SessionTokenService sessionTokens, TokenDenylist denylist,
+                                   UserDetailsService userDetailsService) {
+        this.properties = properties;
+        this.sessionTokens = sessionTokens;
+        this.denylist = denylist;
+        this.userDetailsService = userDetailsService;
+    }
+
+    @Override
+    public void onAuthenticationSuccess(HttpServletRequest request, HttpServletResponse response, Authentication authentication)
+            throws IOException {
+        String username = authentication.getName();
+        // Credentials were erased from the authenticated principal; the refresh token is bound to the stored hash.
+        UserDetails user = userDetailsService.loadUserByUsername(username);
+        String accessToken = sessionTokens.issueAccessToken(username, roles(authentication));
+        String refreshToken = sessionTokens.issueRefreshToken(username, user.getPassword());
+        log.debug("StatelessSessionHandler.onAuthenticationSuccess() - Issued session tokens for {}", username);
+
+        if (wantsJson(request)) {
+            writeTokens(response, accessToken, refreshToken);
+            return;
+        }
+        setCookie(response, properties.getAccessCookieName(), accessToken, properties.getAccessTokenTtl());
+        setCookie(response, properties.getRefreshCookieName(), refreshToken, properties.getRefreshTokenTtl());
+        response.sendRedirect(request.getContextPath() + "/dashboard");
+    }
+
+    @Override
+    public void logout(HttpServletRequest request, HttpServletResponse response, Authentication authentication) {
+        String accessToken = StatelessAuthenticationFilter.bearerToken(request);
+        if (accessToken == null) {
+            accessToken = cookieValue(request, properties.getAccessCookieName());
+        }
+        sessionTokens.parse(accessToken, SessionTokenService.Type.ACCESS).ifPresent(denylist::revoke);
+        for (String refreshToken : refreshTokens(request)) {
+            sessionTokens.parse(refreshToken, SessionTokenService.Type.REFRESH).ifPresent(denylist::revoke);
+        }
+        setCookie(response, properties.getAccessCookieName(), "", Duration.ZERO);
+        setCookie(response, properties.getRefreshCookieName(), "", Duration.ZERO);
+    }
+
+    void setCookie(HttpServletResponse response, String name, String value, Duration maxAge) {
+        ResponseCookie cookie = ResponseCookie.from(name, value)
+                .httpOnly(true)
+                .secure(properties.isSecureCookies())
+                .sameSite("Lax")
+                .path("/")
+                .maxAge(maxAge)
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+    }
+
+    void writeTokens(HttpServletResponse response, String accessToken, String refreshToken) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+        StringBuilder body = new StringBuilder("{\"access_token\":\"").append(accessToken)
+                .append("\",\"token_type\":\"Bearer\",\"expires_in\":").append(properties.getAccessTokenTtl().toSeconds());
+        if (refreshToken != null) {
+            body.append(",\"refresh_token\":\"").append(refreshToken).append('"');
+        }
+        response.getWriter().write(body.append('}').toString());
+    }
+
+    /**
+     * Every refresh token the logout request carries: header, form or JSON body, and cookie.
+     */
+    private Set<String> refreshTokens(HttpServletRequest request) {
+        Set<String> tokens = new LinkedHashSet<>();
+        addIfPresent(tokens, request.getHeader(REFRESH_TOKEN_HEADER));
+        addIfPresent(tokens, request.getParameter(REFRESH_TOKEN_PARAMETER));
+        if (isJson(request.getContentType())) {
+            addIfPresent(tokens, jsonRefreshToken(request));
+        }
+        addIfPresent(tokens, cookieValue(request, properties.getRefreshCookieName()));
+        return tokens;
+    }
+
+    private static String jsonRefreshToken(HttpServletRequest request) {
+        try {
+            JsonNode body = JSON.readTree(request.getInputStream().readNBytes(MAX_LOGOUT_BODY_BYTES));
+            JsonNode token = body == null ? null : body.get(REFRESH_TOKEN_PARAMETER);
+            return token != null && token.isTextual() ? token.asText() : null;
+        } catch (IOException e) {
+            log.debug("StatelessSessionHandler.logout() - Ignoring unreadable JSON body: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static void addIfPresent(Set<String> tokens, String token) {
+        if (token != null && !token.isBlank()) {
+            tokens.add(token.trim());
+        }
+    }
+
+    static List<String> roles(Authentication authentication) {
+        return authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
+    }
+
+    static String cookieValue(HttpServletRequest request, String name) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return null;
+        }
+        for (Cookie cookie : cookies) {
+            if (name.equals(cookie.getName()) && !cookie.getValue().isEmpty()) {
+                return cookie.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static boolean wantsJson(HttpServletRequest request) {
+        return isJson(request.getHeader(HttpHeaders.ACCEPT));
+    }
+
+    private static boolean isJson(String mediaTypes) {
+        return mediaTypes != null && mediaTypes.contains(MediaType.APPLICATION_JSON_VALUE);
+    }
+}
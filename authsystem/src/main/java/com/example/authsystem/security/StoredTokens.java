@@ -0,0 +1,38 @@
+package com.example.authsystem.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Link tokens of database mode. A token is 256 random bits, URL-safe base64 encoded; only its SHA-256 is
+ * stored, as a fixed 32-byte key, so the table or a backup of it cannot be replayed as links. A plain
+ * hash is enough because the tokens are random rather than chosen by users.
+ */
+public final class StoredTokens {
+
+    public static final int HASH_LENGTH = 32;
+
+    private static final int TOKEN_BYTES = 32;
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private StoredTokens() {
+    }
+
+    public static String generate() {
+        byte[] token = new byte[TOKEN_BYTES];
+        RANDOM.nextBytes(token);
+        return ENCODER.encodeToString(token);
+    }
+
+    public static byte[] hash(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.authsystem.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keyed token-bucket limiter. Each bucket is a single {@link AtomicLong} holding its theoretical
+ * arrival time (the GCRA form of a token bucket), so acquiring is one CAS with no locks. Buckets live
+ * in a Caffeine cache bounded to {@code maxKeys}: a full bucket carries no state, so idle buckets are
+ * dropped by {@link #evictIdle()}, and when the cache is full Caffeine evicts the least valuable bucket
+ * (rarely and least recently used). Every key keeps a bucket of its own, so a flood of new keys can
+ * never throttle an unrelated client.
+ */
+public class TokenBucketRateLimiter {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final Cache<String, AtomicLong> buckets;
+
+    /**
+     * @param capacity requests allowed in a burst
+     * @param period   time in which {@code capacity} tokens are refilled
+     * @param maxKeys  maximum number of buckets kept in memory
+     */
+    public TokenBucketRateLimiter(long capacity, Duration period, int maxKeys) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        this.emissionIntervalNanos = Math.max(1L, period.toNanos() / capacity);
+        this.burstToleranceNanos = emissionIntervalNanos * (capacity - 1);
+        this.buckets = Caffeine.newBuilder().maximumSize(maxKeys).build();
+    }
+
+    public boolean tryAcquire(String key) {
+        return tryAcquire(key, System.nanoTime()) == 0L;
+    }
+
+    /**
+     * Takes one token for {@code key}. Returns 0 when allowed, otherwise the nanoseconds until a
+     * token becomes available.
+     */
+    public long tryAcquire(String key, long now) {
+        AtomicLong bucket = buckets.get(key, k -> new AtomicLong(now));
+        while (true) {
+            long tat = bucket.get();
+            long base = Math.max(tat, now);
+            long waitNanos = base - now - burstToleranceNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (bucket.compareAndSet(tat, base + emissionIntervalNanos)) {
+                return 0L;
+            }
+        }
+    }
+
+    /**
+     * Drops buckets that have refilled completely; they are recreated on demand in the same state.
+     */
+    public int evictIdle() {
+        return evictIdle(System.nanoTime());
+    }
+
+    int evictIdle(long now) {
+        int before = size();
+        buckets.asMap().values().removeIf(bucket -> bucket.get() - now <= 0);
+        return before - size();
+    }
+
+    public int size() {
+        buckets.cleanUp();
+        return (int) buckets.estimatedSize();
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.authsystem.security;
+
+import com.example.authsystem.util.SharedState;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Ids of revoked session tokens, each kept only until the token itself would have expired, so the
+ * set stays proportional to the number of logouts within one refresh-token lifetime. It is bounded
+ * by {@code app.session.denylist-max-size}; should that ever overflow, the oldest entries go first,
+ * and those tokens become usable again until they expire.
+ * <p>
+ * Lookups are always local. With a {@link SharedState} configured, revocations are broadcast so that
+ * every running node adds them to its own list; a node started later only learns of new revocations.
+ */
+@Slf4j
+@Component
+public class TokenDenylist {
+
+    private static final String REVOCATION_CHANNEL = "token-revocations";
+
+    private final Cache<String, Instant> revoked;
+    private final SharedState sharedState;
+
+    public TokenDenylist(SessionProperties properties) {
+        this(properties, null);
+    }
+
+    @Autowired
+    public TokenDenylist(SessionProperties properties, ObjectProvider<SharedState> sharedState) {
+        this.revoked = Caffeine.newBuilder()
+                .maximumSize(properties.getDenylistMaxSize())
+                .expireAfter(new Expiry<String, Instant>() {
+                    @Override
+                    public long expireAfterCreate(String id, Instant expiresAt, long currentTime) {
+                        return Math.max(0, Duration.between(Instant.now(), expiresAt).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String id, Instant expiresAt, long currentTime, long currentDuration) {
+                        return expireAfterCreate(id, expiresAt, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String id, Instant expiresAt, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        this.sharedState = sharedState == null ? null : sharedState.getIfAvailable();
+        if (this.sharedState != null) {
+            this.sharedState.subscribe(REVOCATION_CHANNEL, this::revokeFromMessage);
+        }
+    }
+
+    public void revoke(SessionTokenService.Claims claims) {
+        if (!claims.expiresAt().isAfter(Instant.now())) {
+            return;
+        }
+        revoked.put(claims.id(), claims.expiresAt());
+        if (sharedState != null) {
+            try {
+                sharedState.publish(REVOCATION_CHANNEL, claims.id() + " " + claims.expiresAt().getEpochSecond());
+            } catch (RuntimeException e) {
+                log.warn("TokenDenylist.revoke() - Could not broadcast revocation of {}: {}", claims.id(), e.toString());
+            }
+        }
+    }
+
+    private void revokeFromMessage(String message) {
+        int separator = message.indexOf(' ');
+        Instant expiresAt = Instant.ofEpochSecond(Long.parseLong(message.substring(separator + 1)));
+        if (expiresAt.isAfter(Instant.now())) {
+            revoked.put(message.substring(0, separator), expiresAt);
+        }
+    }
+
+    public boolean isRevoked(String tokenId) {
+        return revoked.getIfPresent(tokenId) != null;
+    }
+
+    public long size() {
+        return revoked.estimatedSize();
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.authsystem.security;
+
+import com.example.authsystem.model.TokenPurpose;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Settings for the links sent in verification and password-reset emails, bound from {@code app.tokens.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.tokens")
+public class TokenProperties {
+
+    public enum Mode { DATABASE, SIGNED }
+
+    /** DATABASE stores a random token per link; SIGNED issues HMAC-signed tokens validated in memory. */
+    private Mode mode = Mode.DATABASE;
+
+    /** How long an emailed link stays valid, unless {@link #ttls} has an entry for its purpose. */
+    private Duration ttl = Duration.ofMinutes(30);
+
+    /** Link lifetimes by purpose, e.g. {@code app.tokens.ttls.email-verification=P1D}. */
+    private Map<TokenPurpose, Duration> ttls = new EnumMap<>(TokenPurpose.class);
+
+    private Signing signing = new Signing();
+
+    public Duration ttlFor(TokenPurpose purpose) {
+        return ttls.getOrDefault(purpose, ttl);
+    }
+
+    @Data
+    public static class Signing {
+
+        /** Key id used to sign new tokens; must be present in {@link #keys}. */
+        private String activeKeyId;
+
+        /** Base64-encoded HMAC secrets by key id. Keep retired keys here until their tokens expire. */
+        private Map<String, String> keys = new LinkedHashMap<>();
+    }
+}
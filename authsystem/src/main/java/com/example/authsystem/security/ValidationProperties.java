@@ -0,0 +1,37 @@
+package com.example.authsystem.security;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Rules applied by {@link CredentialValidator}, bound from {@code app.validation.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.validation")
+public class ValidationProperties {
+
+    /** Domains that may not register; subdomains are blocked too. */
+    private Set<String> blockedDomains = new LinkedHashSet<>();
+
+    /** Optional resource with more blocked domains, one per line; {@code #} starts a comment. */
+    private String blockedDomainsFile;
+
+    private Password password = new Password();
+
+    @Data
+    public static class Password {
+
+        private int minLength = 8;
+
+        /**
+         * Optional resource listing breached passwords, one per line, either in plain text or as the
+         * SHA-1 hex digest (optionally followed by {@code :count}, as in the Pwned Passwords dumps).
+         */
+        private String breachedFile;
+
+        /** False positive rate the breached-password Bloom filter is sized for. */
+        private double breachedFalsePositiveRate = 0.001;
+    }
+}
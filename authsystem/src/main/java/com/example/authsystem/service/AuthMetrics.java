@@ -0,0 +1,94 @@
+package com.example.authsystem.service;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.authentication.event.AbstractAuthenticationFailureEvent;
+import org.springframework.security.authentication.event.AuthenticationSuccessEvent;
+import org.springframework.stereotype.Component;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Meters for the registration, token and login flows. All names start with {@code auth.} so a single
+ * {@code management.metrics.distribution.percentiles-histogram.auth} switch publishes histogram
+ * buckets for every timer here.
+ */
+@Component
+public class AuthMetrics
+{
+    private final MeterRegistry registry;
+    private final Counter loginSuccess;
+    private final Counter emailSent;
+    private final Counter emailFailed;
+    private final Timer emailBatch;
+
+    public AuthMetrics(MeterRegistry registry)
+    {
+        this.registry = registry;
+        this.loginSuccess = Counter.builder("auth.login").tag("result", "success").tag("reason", "none").register(registry);
+        this.emailSent = Counter.builder("auth.email.delivered").tag("result", "sent").register(registry);
+        this.emailFailed = Counter.builder("auth.email.delivered").tag("result", "failed").register(registry);
+        this.emailBatch = Timer.builder("auth.email.batch").description("Time to send one outbox batch over SMTP").register(registry);
+    }
+
+    /**
+     * Runs {@code action} under the {@code auth.register.stage} timer for {@code stage}.
+     */
+    public <T> T timeRegistrationStage(String stage, Supplier<T> action)
+    {
+        return Timer.builder("auth.register.stage").tag("stage", stage).register(registry).record(action);
+    }
+
+    public void timeRegistrationStage(String stage, Runnable action)
+    {
+        Timer.builder("auth.register.stage").tag("stage", stage).register(registry).record(action);
+    }
+
+    /**
+     * Times a service call that reports its outcome as a message string: {@code success} when it
+     * returns {@code successResult}, {@code rejected} for any other message, {@code error} if it throws.
+     */
+    public String timeOutcome(String name, String successResult, Supplier<String> action)
+    {
+        long start = System.nanoTime();
+        String outcome = "error";
+        try
+        {
+            String result = action.get();
+            outcome = successResult.equals(result) ? "success" : "rejected";
+            return result;
+        } finally
+        {
+            Timer.builder(name).tag("outcome", outcome).register(registry).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public <T> T time(String name, Supplier<T> action)
+    {
+        return Timer.builder(name).register(registry).record(action);
+    }
+
+    public void recordEmailBatch(int sent, int failed, long durationNanos)
+    {
+        emailSent.increment(sent);
+        emailFailed.increment(failed);
+        emailBatch.record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @EventListener
+    public void onAuthenticationSuccess(AuthenticationSuccessEvent event)
+    {
+        loginSuccess.increment();
+    }
+
+    @EventListener
+    public void onAuthenticationFailure(AbstractAuthenticationFailureEvent event)
+    {
+        Counter.builder("auth.login")
+                .tag("result", "failure")
+                .tag("reason", event.getException().getClass().getSimpleName())
+                .register(registry)
+                .increment();
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.authsystem.service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Command-line entry point for {@link BulkUserImportService}:
+ * {@code java -jar authsystem.jar --app.import.file=users.csv --server.port=0}. The format follows the
+ * file extension. Invitations are only queued in the outbox, so the context is closed through
+ * {@link SpringApplication#exit} once the import is done (unless {@code app.import.exit-when-done=false})
+ * and the running servers deliver them. The JVM then ends on its own with exit code 0; a failed import
+ * propagates out of {@link #run}, which makes Spring Boot report the startup failure and exit with 1.
+ */
+@Component
+@ConditionalOnProperty(name = "app.import.file")
+public class BulkUserImportRunner implements ApplicationRunner
+{
+    private static final Logger logger = LoggerFactory.getLogger(BulkUserImportRunner.class);
+
+    private final BulkUserImportService importService;
+    private final ConfigurableApplicationContext context;
+
+    @Value("${app.import.file}")
+    private String file;
+
+    @Value("${app.import.exit-when-done:true}")
+    private boolean exitWhenDone;
+
+    public BulkUserImportRunner(BulkUserImportService importService, ConfigurableApplicationContext context)
+    {
+        this.importService = importService;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception
+    {
+        logger.info("BulkUserImportRunner.run() - Importing users from {}", file);
+        BulkUserImportService.ImportResult result;
+        try (InputStream input = Files.newInputStream(Path.of(file)))
+        {
+            result = importService.importUsers(input, BulkUserImportService.Format.fromFileName(file));
+        }
+        logger.info("BulkUserImportRunner.run() - Imported {} of {} rows in {} ({} already registered, {} duplicates, {} invalid)",
+                result.imported(), result.read(), result.elapsed(), result.existing(), result.duplicates(), result.invalid());
+        if (exitWhenDone)
+        {
+            SpringApplication.exit(context);
+        }
+    }
+}
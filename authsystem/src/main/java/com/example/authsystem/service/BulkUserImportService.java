@@ -0,0 +1,397 @@
+package com.example.authsystem.service;
+import com.example.authsystem.model.EmailOutboxMessage;
+import com.example.authsystem.model.TokenPurpose;
+import com.example.authsystem.security.CredentialValidator;
+import com.example.authsystem.security.SignedTokenService;
+import com.example.authsystem.security.StoredTokens;
+import com.example.authsystem.security.TokenProperties;
+import com.example.authsystem.util.EmailAddresses;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Provisions users in bulk from a CSV or JSON stream of (name, email). Rows are read one at a time and
+ * handled in chunks of {@code app.import.batch-size}: one set-based query filters out emails that
+ * already exist, then users, verification tokens and invitation emails are written with JDBC batch
+ * inserts in a single short transaction per chunk. Memory use depends on the chunk size only, never
+ * on the size of the input. Invitations go through the outbox and are sent by
+ * {@link EmailOutboxDispatcher} like any other registration email.
+ */
+@Service
+public class BulkUserImportService
+{
+    private static final Logger logger = LoggerFactory.getLogger(BulkUserImportService.class);
+
+    public enum Format
+    {
+        CSV, JSON;
+
+        /**
+         * JSON accepts a top-level array as well as newline-delimited objects; anything else is read as CSV.
+         */
+        public static Format fromContentType(String contentType)
+        {
+            return contentType != null && contentType.toLowerCase(Locale.ROOT).contains("json") ? JSON : CSV;
+        }
+
+        public static Format fromFileName(String fileName)
+        {
+            String name = fileName.toLowerCase(Locale.ROOT);
+            return name.endsWith(".json") || name.endsWith(".jsonl") || name.endsWith(".ndjson") ? JSON : CSV;
+        }
+    }
+
+    public record ImportRow(String name, String email) {}
+
+    public record ImportResult(long read, long imported, long existing, long duplicates, long invalid, Duration elapsed) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final SignedTokenService signedTokenService;
+    private final TokenProperties tokenProperties;
+    private final CredentialValidator credentialValidator;
+    private final Counter importedCounter;
+    private final Counter existingCounter;
+    private final Counter duplicateCounter;
+    private final Counter invalidCounter;
+
+    @Value("${app.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.import.progress-interval:50000}")
+    private long progressInterval;
+
+    public BulkUserImportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+                                 SignedTokenService signedTokenService, TokenProperties tokenProperties, CredentialValidator credentialValidator,
+                                 MeterRegistry meterRegistry)
+    {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.signedTokenService = signedTokenService;
+        this.tokenProperties = tokenProperties;
+        this.credentialValidator = credentialValidator;
+        this.importedCounter = counter(meterRegistry, "imported");
+        this.existingCounter = counter(meterRegistry, "existing");
+        this.duplicateCounter = counter(meterRegistry, "duplicate");
+        this.invalidCounter = counter(meterRegistry, "invalid");
+    }
+
+    private static Counter counter(MeterRegistry registry, String result)
+    {
+        return Counter.builder("auth.import.users").tag("result", result).register(registry);
+    }
+
+    public ImportResult importUsers(InputStream input, Format format) throws IOException
+    {
+        Progress progress = new Progress();
+        Iterator<ImportRow> rows = format == Format.JSON
+                ? objectMapper.readerFor(ImportRow.class).readValues(input)
+                : new CsvRowIterator(new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)));
+        logger.info("BulkUserImportService.importUsers() - Starting {} import in chunks of {}", format, batchSize);
+
+        List<ImportRow> chunk = new ArrayList<>(batchSize);
+        try
+        {
+            while (rows.hasNext())
+            {
+                chunk.add(rows.next());
+                progress.read++;
+                if (chunk.size() == batchSize)
+                {
+                    importChunk(chunk, progress);
+                    chunk.clear();
+                }
+            }
+        }
+        catch (UncheckedIOException e)
+        {
+            throw e.getCause();
+        }
+        if (!chunk.isEmpty())
+        {
+            importChunk(chunk, progress);
+        }
+
+        ImportResult result = progress.toResult();
+        logger.info("BulkUserImportService.importUsers() - Finished: {}", result);
+        return result;
+    }
+
+    private void importChunk(List<ImportRow> chunk, Progress progress)
+    {
+        Map<String, ImportRow> candidates = new LinkedHashMap<>();
+        for (ImportRow row : chunk)
+        {
+            String name = row.name() == null ? "" : row.name().trim();
+            String email = EmailAddresses.normalize(row.email());
+            if (name.isEmpty() || name.length() > 255 || credentialValidator.checkEmail(email) != null)
+            {
+                progress.invalid++;
+                invalidCounter.increment();
+                continue;
+            }
+            if (candidates.putIfAbsent(email, new ImportRow(name, email)) != null)
+            {
+                progress.duplicates++;
+                duplicateCounter.increment();
+            }
+        }
+        if (candidates.isEmpty())
+        {
+            return;
+        }
+
+        ChunkOutcome outcome;
+        try
+        {
+            outcome = transactionTemplate.execute(status -> insertNewUsers(candidates));
+        }
+        catch (DuplicateKeyException e)
+        {
+            // A concurrent registration took one of the emails between the existence check and the insert;
+            // the chunk was rolled back, so check again and retry once.
+            logger.warn("BulkUserImportService.importChunk() - Duplicate email while inserting chunk, retrying: {}", e.getMessage());
+            outcome = transactionTemplate.execute(status -> insertNewUsers(candidates));
+        }
+        // Counted only once the chunk has committed, so a rolled-back attempt never shows up in the totals.
+        progress.imported += outcome.inserted();
+        importedCounter.increment(outcome.inserted());
+        if (outcome.existing() > 0)
+        {
+            progress.existing += outcome.existing();
+            existingCounter.increment(outcome.existing());
+        }
+
+        if (progress.read / progressInterval != (progress.read - chunk.size()) / progressInterval)
+        {
+            logger.info("BulkUserImportService.importUsers() - Progress: {}", progress.toResult());
+        }
+    }
+
+    /**
+     * Runs inside the chunk transaction. {@code candidates} is left untouched and nothing outside the
+     * transaction is updated, so a retry after a rollback starts from the same input.
+     */
+    private ChunkOutcome insertNewUsers(Map<String, ImportRow> candidates)
+    {
+        Set<String> existing = new HashSet<>();
+        namedJdbcTemplate.query("select email from users where email in (:emails)",
+                new MapSqlParameterSource("emails", emailsOf(candidates.values())),
+                rs -> { existing.add(rs.getString(1).toLowerCase(Locale.ROOT)); });
+
+        List<ImportRow> newUsers = new ArrayList<>(candidates.size());
+        for (Map.Entry<String, ImportRow> entry : candidates.entrySet())
+        {
+            if (!existing.contains(entry.getKey()))
+            {
+                newUsers.add(entry.getValue());
+            }
+        }
+        int skipped = candidates.size() - newUsers.size();
+        if (newUsers.isEmpty())
+        {
+            return new ChunkOutcome(0, skipped);
+        }
+
+        jdbcTemplate.batchUpdate("insert into users (name, email, password, enabled) values (?, ?, null, false)",
+                newUsers, newUsers.size(), (ps, row) -> {
+                    ps.setString(1, row.name());
+                    ps.setString(2, row.email());
+                });
+
+        Map<String, Long> ids = new HashMap<>();
+        namedJdbcTemplate.query("select id, email from users where email in (:emails)",
+                new MapSqlParameterSource("emails", emailsOf(newUsers)),
+                rs -> { ids.put(rs.getString(2).toLowerCase(Locale.ROOT), rs.getLong(1)); });
+
+        LocalDateTime now = LocalDateTime.now();
+        Duration ttl = tokenProperties.ttlFor(TokenPurpose.EMAIL_VERIFICATION);
+        LocalDateTime expiry = now.plus(ttl);
+        boolean signed = tokenProperties.getMode() == TokenProperties.Mode.SIGNED;
+        List<Object[]> tokens = new ArrayList<>(newUsers.size());
+        List<Object[]> emails = new ArrayList<>(newUsers.size());
+        for (ImportRow row : newUsers)
+        {
+            long userId = ids.get(row.email().toLowerCase(Locale.ROOT));
+            String token;
+            if (signed)
+            {
+                token = signedTokenService.issue(userId, TokenPurpose.EMAIL_VERIFICATION, null, Instant.now().plus(ttl));
+            }
+            else
+            {
+                token = StoredTokens.generate();
+                tokens.add(new Object[] {StoredTokens.hash(token), TokenPurpose.EMAIL_VERIFICATION.name(), userId, Timestamp.valueOf(expiry)});
+            }
+            emails.add(new Object[] {row.email(), "Set Your Password", "http://localhost:8080/set-password?token=" + token,
+                    EmailOutboxMessage.Status.PENDING.name(), Timestamp.valueOf(now), Timestamp.valueOf(now)});
+        }
+        if (!tokens.isEmpty())
+        {
+            jdbcTemplate.batchUpdate("insert into verification_token (token_hash, purpose, user_id, expiry_date) values (?, ?, ?, ?)", tokens);
+        }
+        jdbcTemplate.batchUpdate("insert into email_outbox (recipient, subject, body, status, attempts, created_at, next_attempt_at)"
+                + " values (?, ?, ?, ?, 0, ?, ?)", emails);
+        return new ChunkOutcome(newUsers.size(), skipped);
+    }
+
+    private static List<String> emailsOf(Iterable<ImportRow> rows)
+    {
+        List<String> emails = new ArrayList<>();
+        for (ImportRow row : rows)
+        {
+            emails.add(row.email());
+        }
+        return emails;
+    }
+
+    private record ChunkOutcome(int inserted, int existing) {}
+
+    private static final class Progress
+    {
+        private final long start = System.nanoTime();
+        private long read;
+        private long imported;
+        private long existing;
+        private long duplicates;
+        private long invalid;
+
+        ImportResult toResult()
+        {
+            return new ImportResult(read, imported, existing, duplicates, invalid, Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    /**
+     * Reads {@code name,email} lines; fields may be double-quoted (with {@code ""} as an escaped quote)
+     * and a leading {@code name,email} header line is skipped.
+     */
+    static final class CsvRowIterator implements Iterator<ImportRow>
+    {
+        private final BufferedReader reader;
+        private ImportRow next;
+        private boolean firstLine = true;
+
+        CsvRowIterator(BufferedReader reader)
+        {
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            while (next == null)
+            {
+                String line;
+                try
+                {
+                    line = reader.readLine();
+                }
+                catch (IOException e)
+                {
+                    throw new UncheckedIOException(e);
+                }
+                if (line == null)
+                {
+                    return false;
+                }
+                boolean header = firstLine && line.replace("\"", "").trim().equalsIgnoreCase("name,email");
+                firstLine = false;
+                if (!header && !line.isBlank())
+                {
+                    next = parse(line);
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public ImportRow next()
+        {
+            if (!hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            ImportRow row = next;
+            next = null;
+            return row;
+        }
+
+        static ImportRow parse(String line)
+        {
+            List<String> fields = new ArrayList<>(2);
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++)
+            {
+                char c = line.charAt(i);
+                if (quoted)
+                {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"')
+                    {
+                        field.append('"');
+                        i++;
+                    }
+                    else if (c == '"')
+                    {
+                        quoted = false;
+                    }
+                    else
+                    {
+                        field.append(c);
+                    }
+                }
+                else if (c == '"')
+                {
+                    quoted = true;
+                }
+                else if (c == ',')
+                {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                }
+                else
+                {
+                    field.append(c);
+                }
+            }
+            fields.add(field.toString());
+            return new ImportRow(fields.get(0), fields.size() > 1 ? fields.get(1) : null);
+        }
+    }
+}
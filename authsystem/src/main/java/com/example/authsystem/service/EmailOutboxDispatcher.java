@@ -0,0 +1,183 @@
+package com.example.authsystem.service;
+import com.example.authsystem.model.EmailOutboxMessage;
+import com.example.authsystem.repository.EmailOutboxRepository;
+import com.example.authsystem.util.EmailUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Drains the email outbox in batches. Each batch is sent over one SMTP connection, so mail throughput
+ * is governed by {@code app.mail.outbox.batch-size} and {@code app.mail.outbox.poll-interval-ms}
+ * rather than by the number of HTTP request threads. Failed messages are retried with exponential
+ * backoff until {@code app.mail.outbox.max-attempts} is reached, after which they are parked as FAILED.
+ * <p>
+ * Rows are claimed before they are sent, so dispatchers on several nodes never send the same message
+ * twice while they are alive; a claim lasts {@code app.mail.outbox.lease}, after which the rows of a node
+ * that died mid-batch are picked up again. The table is the queue: it is durable and unbounded by
+ * design, and a node holds at most one batch of it in memory.
+ */
+@Service
+@Lazy(false)
+public class EmailOutboxDispatcher
+{
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+
+    @Autowired
+    private EmailOutboxRepository outboxRepository;
+
+    @Autowired
+    private EmailUtil emailUtil;
+
+    @Autowired
+    private AuthMetrics metrics;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${app.mail.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.mail.outbox.max-batches-per-poll:20}")
+    private int maxBatchesPerPoll;
+
+    @Value("${app.mail.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.mail.outbox.backoff-base:PT10S}")
+    private Duration backoffBase;
+
+    @Value("${app.mail.outbox.backoff-max:PT1H}")
+    private Duration backoffMax;
+
+    @Value("${app.mail.outbox.lease:PT5M}")
+    private Duration lease;
+
+    @Scheduled(fixedDelayString = "${app.mail.outbox.poll-interval-ms:1000}")
+    public void dispatchPending()
+    {
+        for (int i = 0; i < maxBatchesPerPoll; i++)
+        {
+            if (dispatchBatch() < batchSize)
+            {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Claims and sends one batch of due messages. Returns how many due messages were found, including
+     * any claimed by another node in the meantime, so the caller keeps going while a backlog remains.
+     */
+    public int dispatchBatch()
+    {
+        LocalDateTime now = LocalDateTime.now();
+        String claimToken = UUID.randomUUID().toString();
+        List<EmailOutboxMessage> due = new ArrayList<>();
+        Integer found = transactionTemplate.execute(status -> {
+            List<Long> ids = outboxRepository.findDueIds(EmailOutboxMessage.Status.PENDING, now, PageRequest.of(0, batchSize));
+            if (!ids.isEmpty() && outboxRepository.claim(ids, EmailOutboxMessage.Status.PENDING, now, claimToken, now.plus(lease)) > 0)
+            {
+                due.addAll(outboxRepository.findByClaimTokenOrderById(claimToken));
+            }
+            return ids.size();
+        });
+        if (due.isEmpty())
+        {
+            return found;
+        }
+
+        Map<SimpleMailMessage, EmailOutboxMessage> byMail = new IdentityHashMap<>();
+        List<SimpleMailMessage> mails = new ArrayList<>(due.size());
+        for (EmailOutboxMessage row : due)
+        {
+            SimpleMailMessage mail = new SimpleMailMessage();
+            mail.setTo(row.getRecipient());
+            mail.setSubject(row.getSubject());
+            mail.setText(row.getBody());
+            mails.add(mail);
+            byMail.put(mail, row);
+        }
+
+        Map<EmailOutboxMessage, Exception> failures = new IdentityHashMap<>();
+        long start = System.nanoTime();
+        try
+        {
+            emailUtil.sendBatch(mails);
+        } catch (MailSendException e)
+        {
+            if (e.getFailedMessages().isEmpty())
+            {
+                due.forEach(row -> failures.put(row, e));
+            }
+            e.getFailedMessages().forEach((mail, cause) -> {
+                EmailOutboxMessage row = byMail.get(mail);
+                if (row != null)
+                {
+                    failures.put(row, cause);
+                }
+            });
+        } catch (RuntimeException e)
+        {
+            due.forEach(row -> failures.put(row, e));
+        }
+
+        List<Long> sentIds = new ArrayList<>(due.size());
+        List<EmailOutboxMessage> failed = new ArrayList<>(failures.size());
+        for (EmailOutboxMessage row : due)
+        {
+            Exception cause = failures.get(row);
+            if (cause == null)
+            {
+                sentIds.add(row.getId());
+            } else
+            {
+                markFailedAttempt(row, cause, now);
+                failed.add(row);
+            }
+        }
+        metrics.recordEmailBatch(sentIds.size(), failed.size(), System.nanoTime() - start);
+        if (!sentIds.isEmpty())
+        {
+            outboxRepository.deleteAllByIdInBatch(sentIds);
+        }
+        if (!failed.isEmpty())
+        {
+            outboxRepository.saveAll(failed);
+            logger.warn("EmailOutboxDispatcher.dispatchBatch() - {} of {} emails failed and were rescheduled", failed.size(), due.size());
+        }
+        return found;
+    }
+
+    private void markFailedAttempt(EmailOutboxMessage row, Exception cause, LocalDateTime now)
+    {
+        int attempts = row.getAttempts() + 1;
+        row.setAttempts(attempts);
+        row.setClaimToken(null);
+        String error = String.valueOf(cause.getMessage());
+        row.setLastError(error.length() > 500 ? error.substring(0, 500) : error);
+        if (attempts >= maxAttempts)
+        {
+            row.setStatus(EmailOutboxMessage.Status.FAILED);
+            logger.error("EmailOutboxDispatcher - Giving up on email ID {} after {} attempts: {}", row.getId(), attempts, error);
+            return;
+        }
+        Duration delay = backoffBase.multipliedBy(1L << Math.min(attempts - 1, 20));
+        row.setNextAttemptAt(now.plus(delay.compareTo(backoffMax) > 0 ? backoffMax : delay));
+    }
+}
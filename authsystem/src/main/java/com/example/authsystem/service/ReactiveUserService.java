@@ -0,0 +1,305 @@
+package com.example.authsystem.service;
+import com.example.authsystem.model.TokenPurpose;
+import com.example.authsystem.model.User;
+import com.example.authsystem.model.VerificationToken;
+import com.example.authsystem.repository.ReactiveEmailOutboxRepository;
+import com.example.authsystem.repository.ReactiveUserRepository;
+import com.example.authsystem.repository.ReactiveVerificationTokenRepository;
+import com.example.authsystem.security.BoundedPasswordEncoder;
+import com.example.authsystem.security.CredentialValidator;
+import com.example.authsystem.security.ReactiveAccountLockStore;
+import com.example.authsystem.security.SignedTokenService;
+import com.example.authsystem.security.StoredTokens;
+import com.example.authsystem.security.TokenProperties;
+import com.example.authsystem.util.AuditLog;
+import com.example.authsystem.util.EmailAddresses;
+import com.example.authsystem.util.EmailUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsPasswordService;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reactive counterpart of {@link UserService} for the {@code reactive} profile, returning the same
+ * messages. Password hashing runs on the {@link BoundedPasswordEncoder} pool and always happens
+ * before the transaction that stores the hash, so no R2DBC connection is held while BCrypt runs.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveUserService implements ReactiveUserDetailsService, ReactiveUserDetailsPasswordService, ReactiveAccountLockStore
+{
+
+    private static final String RESET_REQUESTED = "If an account with that email exists, a password reset link has been sent.";
+
+    private record TokenOwner(User user, Long tokenId) {}
+
+    private final Set<String> registrationsInFlight = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    private ReactiveUserRepository userRepository;
+
+    @Autowired
+    private ReactiveVerificationTokenRepository tokenRepository;
+
+    @Autowired
+    private ReactiveEmailOutboxRepository outboxRepository;
+
+    @Autowired
+    private BoundedPasswordEncoder passwordEncoder;
+
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
+    @Autowired
+    private SignedTokenService signedTokenService;
+
+    @Autowired
+    private TokenProperties tokenProperties;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Autowired
+    private CredentialValidator credentialValidator;
+
+    @Value("${app.security.admin-emails:}")
+    private Set<String> adminEmails;
+
+    @Override
+    public Mono<UserDetails> findByUsername(String email)
+    {
+        return userRepository.findByEmail(EmailAddresses.normalize(email))
+                .map(user -> new UserDetailsCache.Snapshot(
+                        user.getEmail(),
+                        user.getPassword(),
+                        user.isEnabled(),
+                        authoritiesFor(user.getEmail()),
+                        user.getLockedUntil()
+                ).toUserDetails());
+    }
+
+    /**
+     * Same as {@link UserService#lockAccount}; there is no user cache to invalidate on this stack.
+     */
+    @Override
+    public Mono<Void> lockAccount(String email, LocalDateTime until)
+    {
+        return userRepository.lockUntil(email, until).then();
+    }
+
+    /**
+     * Same roles as {@link UserService}: {@code ROLE_ADMIN} for {@code app.security.admin-emails}.
+     */
+    private List<GrantedAuthority> authoritiesFor(String email)
+    {
+        boolean admin = adminEmails.stream().anyMatch(adminEmail -> EmailAddresses.normalize(adminEmail).equals(EmailAddresses.normalize(email)));
+        if (admin)
+        {
+            return List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN"));
+        }
+        return Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"));
+    }
+
+    /**
+     * Called after a successful login whose stored hash is outdated; {@code newPassword} is already encoded.
+     */
+    @Override
+    public Mono<UserDetails> updatePassword(UserDetails userDetails, String newPassword)
+    {
+        return userRepository.findByEmail(userDetails.getUsername())
+                .flatMap(user -> userRepository.updatePassword(user.getId(), newPassword, user.isEnabled())
+                        .doOnSuccess(updated -> auditLog.record(AuditLog.Type.PASSWORD_REHASHED, user.getId(), user.getEmail())))
+                .thenReturn(org.springframework.security.core.userdetails.User.withUserDetails(userDetails)
+                        .password(newPassword)
+                        .build());
+    }
+
+    /**
+     * Same in-memory checks as {@link UserService#registerUser} before the first query.
+     */
+    public Mono<String> registerUser(String name, String requestedEmail)
+    {
+        String email = EmailAddresses.normalize(requestedEmail);
+        String invalid = credentialValidator.checkEmail(email);
+        if (invalid != null)
+        {
+            auditLog.record(AuditLog.Type.REGISTRATION_REJECTED, null, email, null,
+                    invalid.equals(CredentialValidator.BLOCKED_DOMAIN) ? "blocked_domain" : "invalid_email");
+            return Mono.just(invalid);
+        }
+        if (name == null || name.isBlank())
+        {
+            return Mono.just(UserService.NAME_REQUIRED);
+        }
+        if (!registrationsInFlight.add(email))
+        {
+            auditLog.record(AuditLog.Type.REGISTRATION_REJECTED, null, email, null, "in_flight");
+            return Mono.just(UserService.REGISTRATION_IN_PROGRESS);
+        }
+        return userRepository.findByEmail(email)
+                .map(existing -> {
+                    auditLog.record(AuditLog.Type.REGISTRATION_REJECTED, null, email, null, "email_taken");
+                    return "User with this email already exists";
+                })
+                .switchIfEmpty(Mono.defer(() -> createUser(name.trim(), email)))
+                .as(transactionalOperator::transactional)
+                .doFinally(signal -> registrationsInFlight.remove(email));
+    }
+
+    private Mono<String> createUser(String name, String email)
+    {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(email);
+        user.setPassword(null);
+        user.setEnabled(false);
+        return userRepository.save(user)
+                .flatMap(savedUser -> auditLog.deferUntilCommit(AuditLog.Type.USER_REGISTERED, savedUser.getId(), email, null, null)
+                        .thenReturn(savedUser))
+                .flatMap(savedUser -> issueToken(savedUser, TokenPurpose.EMAIL_VERIFICATION))
+                .flatMap(token -> outboxRepository.save(EmailUtil.newOutboxMessage(email, "Set Your Password",
+                        "http://localhost:8080/set-password?token=" + token)))
+                .thenReturn(UserService.REGISTRATION_SUCCESSFUL);
+    }
+
+    private Mono<String> issueToken(User user, TokenPurpose purpose)
+    {
+        Mono<Void> issued = auditLog.deferUntilCommit(AuditLog.Type.TOKEN_ISSUED, user.getId(), user.getEmail(), purpose,
+                tokenProperties.getMode().name());
+        if (signedTokens())
+        {
+            return issued.then(Mono.fromSupplier(() -> signedTokenService.issue(user.getId(), purpose, user.getPassword(),
+                    Instant.now().plus(tokenProperties.ttlFor(purpose)))));
+        }
+        String token = StoredTokens.generate();
+        VerificationToken verificationToken = new VerificationToken();
+        verificationToken.setTokenHash(StoredTokens.hash(token));
+        verificationToken.setPurpose(purpose);
+        verificationToken.setUser(user);
+        verificationToken.setExpiryDate(LocalDateTime.now().plus(tokenProperties.ttlFor(purpose)));
+        return issued.then(tokenRepository.replaceToken(verificationToken)).thenReturn(token);
+    }
+
+    private boolean signedTokens()
+    {
+        return tokenProperties.getMode() == TokenProperties.Mode.SIGNED;
+    }
+
+    public Mono<Boolean> isTokenValid(String token, TokenPurpose purpose)
+    {
+        if (signedTokens())
+        {
+            return Mono.just(signedTokenService.parse(token, purpose).isPresent());
+        }
+        return findTokenOwner(token, purpose).hasElement();
+    }
+
+    public Mono<String> savePassword(String token, String password)
+    {
+        String weak = credentialValidator.checkPassword(password);
+        if (weak != null)
+        {
+            return Mono.just(weak);
+        }
+        return applyPassword(token, TokenPurpose.EMAIL_VERIFICATION, password)
+                .map(applied -> applied ? UserService.PASSWORD_SET : "Invalid or expired token");
+    }
+
+    public Mono<String> createPasswordResetTokenForUser(String requestedEmail)
+    {
+        String email = EmailAddresses.normalize(requestedEmail);
+        if (credentialValidator.checkEmail(email) != null)
+        {
+            return Mono.just(RESET_REQUESTED);
+        }
+        return userRepository.findByEmail(email)
+                .flatMap(user -> issueToken(user, TokenPurpose.PASSWORD_RESET)
+                        .flatMap(token -> outboxRepository.save(EmailUtil.newOutboxMessage(email, "Password Reset Request",
+                                "http://localhost:8080/reset-password?token=" + token))))
+                .switchIfEmpty(Mono.fromRunnable(() -> auditLog.record(AuditLog.Type.RESET_REQUEST_IGNORED, null, email,
+                        TokenPurpose.PASSWORD_RESET, "unknown_email")))
+                .as(transactionalOperator::transactional)
+                .thenReturn(RESET_REQUESTED);
+    }
+
+    public Mono<String> resetPassword(String token, String newPassword, String confirmNewPassword)
+    {
+        if (newPassword == null || confirmNewPassword == null || !newPassword.equals(confirmNewPassword))
+        {
+            return Mono.just("Passwords do not match.");
+        }
+        String weak = credentialValidator.checkPassword(newPassword);
+        if (weak != null)
+        {
+            return Mono.just(weak);
+        }
+        return applyPassword(token, TokenPurpose.PASSWORD_RESET, newPassword)
+                .map(applied -> applied ? UserService.PASSWORD_RESET : "Invalid or expired password reset token.");
+    }
+
+    /**
+     * Hashes {@code rawPassword} for the user the token belongs to, then consumes the token and stores
+     * the hash in one transaction. A database token counts as consumed only if this call deleted it,
+     * so two concurrent submissions of the same link cannot both succeed; the owner's other links go
+     * with it.
+     */
+    private Mono<Boolean> applyPassword(String token, TokenPurpose purpose, String rawPassword)
+    {
+        return findTokenOwner(token, purpose)
+                .flatMap(owner -> Mono.fromFuture(() -> passwordEncoder.encodeAsync(rawPassword))
+                        .flatMap(encoded -> storePassword(owner, purpose, encoded)))
+                .defaultIfEmpty(false)
+                .doOnNext(applied -> {
+                    if (!applied)
+                    {
+                        auditLog.record(AuditLog.Type.TOKEN_REJECTED, null, null, purpose, "invalid_expired_or_used");
+                    }
+                });
+    }
+
+    private Mono<TokenOwner> findTokenOwner(String token, TokenPurpose purpose)
+    {
+        if (signedTokens())
+        {
+            return Mono.justOrEmpty(signedTokenService.parse(token, purpose))
+                    .flatMap(claims -> userRepository.findById(claims.userId())
+                            .filter(user -> signedTokenService.matchesPassword(token, claims, user.getPassword())))
+                    .map(user -> new TokenOwner(user, null));
+        }
+        return tokenRepository.findByTokenHash(StoredTokens.hash(token), purpose)
+                .filter(verificationToken -> verificationToken.getExpiryDate().isAfter(LocalDateTime.now()))
+                .map(verificationToken -> new TokenOwner(verificationToken.getUser(), verificationToken.getId()));
+    }
+
+    private Mono<Boolean> storePassword(TokenOwner owner, TokenPurpose purpose, String encodedPassword)
+    {
+        Mono<Boolean> claimed = owner.tokenId() == null
+                ? Mono.just(true)
+                : tokenRepository.deleteById(owner.tokenId())
+                        .flatMap(deleted -> deleted > 0
+                                ? tokenRepository.deleteByUserId(owner.user().getId()).thenReturn(true)
+                                : Mono.just(false));
+        return claimed
+                .flatMap(consumed -> consumed
+                        ? userRepository.updatePassword(owner.user().getId(), encodedPassword, true).thenReturn(true)
+                        : Mono.just(false))
+                .flatMap(stored -> stored
+                        ? auditLog.deferUntilCommit(purpose == TokenPurpose.PASSWORD_RESET ? AuditLog.Type.PASSWORD_RESET : AuditLog.Type.PASSWORD_SET,
+                                owner.user().getId(), owner.user().getEmail(), purpose, null).thenReturn(true)
+                        : Mono.just(false))
+                .as(transactionalOperator::transactional);
+    }
+}
@@ -0,0 +1,288 @@
+package com.example.authsystem.service;
+import com.example.authsystem.util.EmailAddresses;
+import com.example.authsystem.util.ReplicaRoutingDataSource;
+import com.example.authsystem.util.SharedState;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Bounded, TTL-based cache of the fields {@link UserService#loadUserByUsername} needs, keyed by
+ * normalized email. Entries are immutable snapshots and a fresh {@link UserDetails} is built on every
+ * hit, because the authentication manager erases credentials on the instance it is handed.
+ * <p>
+ * When a {@link SharedState} is configured this cache becomes the near cache of a second, shared tier:
+ * a local miss is served from the shared store before falling back to the database, and invalidations
+ * are broadcast so every node drops its local copy. Each invalidation also bumps a per-user epoch in the
+ * shared store; a node writes what it loaded from the database only while the epoch it read before the
+ * load is unchanged, so a load that raced a password change on another node cannot put the old row
+ * back for every node. Broadcasts are asynchronous and cannot guarantee that on their own.
+ * <p>
+ * For {@code app.datasource.replicas.read-your-writes-window} after an invalidation, a user is loaded
+ * from the primary database, so replica lag cannot put the row from before a password change back.
+ */
+@Component
+public class UserDetailsCache
+{
+    public record Snapshot(String email, String password, boolean enabled, List<GrantedAuthority> authorities, LocalDateTime lockedUntil)
+    {
+        public Snapshot(String email, String password, boolean enabled, Collection<? extends GrantedAuthority> authorities)
+        {
+            this(email, password, enabled, List.copyOf(authorities), null);
+        }
+
+        public Snapshot(String email, String password, boolean enabled, Collection<? extends GrantedAuthority> authorities, LocalDateTime lockedUntil)
+        {
+            this(email, password, enabled, List.copyOf(authorities), lockedUntil);
+        }
+
+        UserDetails toUserDetails()
+        {
+            boolean nonLocked = lockedUntil == null || lockedUntil.isBefore(LocalDateTime.now());
+            return new User(email, password == null ? "" : password, enabled, true, true, nonLocked, authorities);
+        }
+    }
+
+    private record SharedSnapshot(String email, String password, boolean enabled, List<String> authorities, String lockedUntil)
+    {
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(UserDetailsCache.class);
+    private static final String KEY_PREFIX = "users:";
+    private static final String EPOCH_PREFIX = "users-epoch:";
+    /** Epoch placeholder when the shared store could not be read; epochs themselves are numbers. */
+    private static final String UNKNOWN_EPOCH = "unknown";
+    private static final String INVALIDATION_CHANNEL = "user-invalidations";
+    private static final ObjectMapper JSON = new ObjectMapper();
+    /** Number of invalidation counters; keys share one only by hash, which costs at most a reload. */
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final Cache<String, Snapshot> cache;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final Cache<String, Boolean> recentWrites;
+    private final Duration ttl;
+    private final SharedState sharedState;
+
+    public UserDetailsCache(@Value("${app.security.user-cache.max-size:10000}") long maxSize,
+                            @Value("${app.security.user-cache.ttl:PT5M}") Duration ttl,
+                            @Value("${app.datasource.replicas.read-your-writes-window:PT5S}") Duration readYourWritesWindow,
+                            ObjectProvider<SharedState> sharedState)
+    {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.recentWrites = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(readYourWritesWindow)
+                .build();
+        this.ttl = ttl;
+        this.sharedState = sharedState.getIfAvailable();
+        if (this.sharedState != null)
+        {
+            this.sharedState.subscribe(INVALIDATION_CHANNEL, this::evictLocal);
+        }
+    }
+
+    /**
+     * Returns the cached user or loads it with {@code loader}. Exceptions thrown by the loader
+     * (such as {@code UsernameNotFoundException}) propagate and nothing is cached.
+     * <p>
+     * The loader runs outside the cache's compute lock: {@code Cache.get(key, fn)} would hold a
+     * {@code ConcurrentHashMap} bin monitor across the JDBC call and pin the carrier thread when
+     * running on virtual threads. An invalidation of the same key that races with the load is detected
+     * through its {@link #generations} counter, and only this node's freshly loaded entry is dropped
+     * again: the invalidation itself already cleared the shared tier and told the other nodes.
+     */
+    public UserDetails get(String email, Function<String, Snapshot> loader)
+    {
+        String key = EmailAddresses.normalize(email);
+        Snapshot cached = cache.getIfPresent(key);
+        if (cached != null)
+        {
+            return cached.toUserDetails();
+        }
+        int stripe = stripe(key);
+        long generation = generations.get(stripe);
+        Snapshot loaded = readShared(key);
+        if (loaded == null)
+        {
+            String epoch = readEpoch(key);
+            loaded = recentWrites.getIfPresent(key) != null
+                    ? ReplicaRoutingDataSource.onPrimary(() -> loader.apply(email))
+                    : loader.apply(email);
+            writeShared(key, loaded, epoch);
+        }
+        cache.put(key, loaded);
+        if (generations.get(stripe) != generation)
+        {
+            cache.asMap().remove(key, loaded);
+        }
+        return loaded.toUserDetails();
+    }
+
+    private static int stripe(String key)
+    {
+        return Math.floorMod(key.hashCode(), GENERATION_STRIPES);
+    }
+
+    /**
+     * Evicts the entry now and again once the surrounding transaction commits, so a concurrent
+     * login cannot re-populate the cache with the pre-commit row.
+     */
+    public void invalidate(String email)
+    {
+        String key = EmailAddresses.normalize(email);
+        evict(key);
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+        {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit()
+                {
+                    evict(key);
+                }
+            });
+        }
+    }
+
+    private void evict(String key)
+    {
+        evictLocal(key);
+        if (sharedState == null)
+        {
+            return;
+        }
+        try
+        {
+            sharedState.increment(EPOCH_PREFIX + key, ttl);
+            sharedState.delete(KEY_PREFIX + key);
+            sharedState.publish(INVALIDATION_CHANNEL, key);
+        }
+        catch (RuntimeException e)
+        {
+            // Other nodes keep their copy until the TTL expires; the change itself must not fail.
+            logger.warn("UserDetailsCache.evict() - Could not broadcast invalidation for [{}]: {}", key, e.toString());
+        }
+    }
+
+    private void evictLocal(String key)
+    {
+        generations.incrementAndGet(stripe(key));
+        cache.invalidate(key);
+        recentWrites.put(key, Boolean.TRUE);
+    }
+
+    private Snapshot readShared(String key)
+    {
+        if (sharedState == null)
+        {
+            return null;
+        }
+        try
+        {
+            String json = sharedState.get(KEY_PREFIX + key);
+            if (json == null)
+            {
+                return null;
+            }
+            SharedSnapshot shared = JSON.readValue(json, SharedSnapshot.class);
+            return new Snapshot(shared.email(), shared.password(), shared.enabled(),
+                    shared.authorities().stream().map(SimpleGrantedAuthority::new).toList(),
+                    shared.lockedUntil() == null ? null : LocalDateTime.parse(shared.lockedUntil()));
+        }
+        catch (JsonProcessingException | RuntimeException e)
+        {
+            logger.warn("UserDetailsCache.readShared() - Shared cache unavailable for [{}], using the database: {}", key, e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * The user's invalidation epoch, read before loading from the database; {@code null} if the user has
+     * none yet. If the shared store cannot be read, the load is not written back either.
+     */
+    private String readEpoch(String key)
+    {
+        if (sharedState == null)
+        {
+            return null;
+        }
+        try
+        {
+            return sharedState.get(EPOCH_PREFIX + key);
+        }
+        catch (RuntimeException e)
+        {
+            return UNKNOWN_EPOCH;
+        }
+    }
+
+    private void writeShared(String key, Snapshot snapshot, String epoch)
+    {
+        if (sharedState == null || UNKNOWN_EPOCH.equals(epoch))
+        {
+            return;
+        }
+        try
+        {
+            List<String> authorities = snapshot.authorities().stream().map(GrantedAuthority::getAuthority).toList();
+            boolean written = sharedState.setIfGuardUnchanged(KEY_PREFIX + key, JSON.writeValueAsString(
+                    new SharedSnapshot(snapshot.email(), snapshot.password(), snapshot.enabled(), authorities,
+                            snapshot.lockedUntil() == null ? null : snapshot.lockedUntil().toString())), ttl,
+                    EPOCH_PREFIX + key, epoch);
+            if (!written)
+            {
+                logger.debug("UserDetailsCache.writeShared() - [{}] was invalidated during the load, not sharing it", key);
+            }
+        }
+        catch (JsonProcessingException | RuntimeException e)
+        {
+            logger.warn("UserDetailsCache.writeShared() - Could not store [{}] in the shared cache: {}", key, e.toString());
+        }
+    }
+
+    public void invalidateAll()
+    {
+        for (int i = 0; i < GENERATION_STRIPES; i++)
+        {
+            generations.incrementAndGet(i);
+        }
+        cache.invalidateAll();
+    }
+
+    public long size()
+    {
+        return cache.estimatedSize();
+    }
+
+    public CacheStats stats()
+    {
+        return cache.stats();
+    }
+
+    public Cache<String, Snapshot> getNativeCache()
+    {
+        return cache;
+    }
+}
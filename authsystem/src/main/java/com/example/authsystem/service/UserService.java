@@ -1,31 +1,56 @@
 
 package com.example.authsystem.service;
+import com.example.authsystem.model.TokenPurpose;
 import com.example.authsystem.model.User;
-import com.example.authsystem.model.VerificationToken;
 import com.example.authsystem.repository.UserRepository;
 import com.example.authsystem.repository.VerificationTokenRepository;
+import com.example.authsystem.security.AccountLockStore;
+import com.example.authsystem.security.CredentialValidator;
+import com.example.authsystem.security.SignedTokenService;
+import com.example.authsystem.security.StoredTokens;
+import com.example.authsystem.security.TokenProperties;
+import com.example.authsystem.util.AuditLog;
+import com.example.authsystem.util.EmailAddresses;
 import com.example.authsystem.util.EmailUtil;
+import com.example.authsystem.util.ReplicaRoutingDataSource;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 @Service
-public class UserService implements UserDetailsService 
+public class UserService implements UserDetailsService, UserDetailsPasswordService, AccountLockStore
 {
 
     private static final Logger logger = LoggerFactory.getLogger(UserService.class);
 
+    static final String REGISTRATION_SUCCESSFUL = "Registration successful. Please check your email to set your password.";
+    static final String PASSWORD_SET = "Password set successfully";
+    static final String PASSWORD_RESET = "Your password has been successfully reset.";
+    static final String NAME_REQUIRED = "Please enter your name.";
+    static final String REGISTRATION_IN_PROGRESS = "A registration for this email is already in progress.";
+    private static final String RESET_REQUESTED = "If an account with that email exists, a password reset link has been sent.";
+
+    /** Normalized emails whose registration transaction has not finished yet, on this node. */
+    private final Set<String> registrationsInFlight = ConcurrentHashMap.newKeySet();
+
     @Autowired
     private UserRepository userRepository;
 
@@ -38,42 +63,147 @@ public class UserService implements UserDetailsService
     @Autowired
     private EmailUtil emailUtil;
 
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private AuthMetrics metrics;
+
+    @Autowired
+    private SignedTokenService signedTokenService;
+
+    @Autowired
+    private TokenProperties tokenProperties;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Autowired
+    private CredentialValidator credentialValidator;
+
+    @Value("${app.security.admin-emails:}")
+    private Set<String> adminEmails;
+
+    @Value("${app.datasource.replicas.enabled:false}")
+    private boolean replicasEnabled;
+
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException 
     {
-        logger.info("UserService - loadUserByUsername - Attempting to load user by email: [{}]", email);
-        logger.info("UserService - loadUserByUsername - Email parameter: [{}]", email);
-        Optional<User> userOptional = userRepository.findByEmail(email);
-        logger.info("UserService - loadUserByUsername - findByEmail result: {}", userOptional);
+        return metrics.time("auth.user.load", () -> userDetailsCache.get(email, this::loadUserSnapshot));
+    }
 
-        if (!userOptional.isPresent())
-         {
-            logger.info("UserService - loadUserByUsername - User not found with email: [{}]", email);
-           
-            throw new UsernameNotFoundException("User not found with email: " + email);
+    private UserDetailsCache.Snapshot loadUserSnapshot(String email)
+    {
+        logger.debug("UserService.loadUserSnapshot() - Cache miss, loading user by email: [{}]", email);
+        String normalizedEmail = EmailAddresses.normalize(email);
+        Optional<User> found = userRepository.findByEmail(normalizedEmail);
+        if (found.isEmpty() && replicasEnabled)
+        {
+            // Someone who registered moments ago may not have reached the replicas yet.
+            found = ReplicaRoutingDataSource.onPrimary(() -> userRepository.findByEmail(normalizedEmail));
         }
-
-        User user = userOptional.get();
-        logger.info("UserService - loadUserByUsername - Found user: {}, Enabled: {}", user.getEmail(), user.isEnabled());
-
-        return new org.springframework.security.core.userdetails.User(
+        User user = found.orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
+        return new UserDetailsCache.Snapshot(
                 user.getEmail(),
                 user.getPassword(),
-                user.isEnabled(), 
-                true,
-                true, 
-                true, 
-                Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"))
+                user.isEnabled(),
+                authoritiesFor(user.getEmail()),
+                user.getLockedUntil()
         );
     }
 
+    /**
+     * Everyone is a {@code ROLE_USER}; the emails listed in {@code app.security.admin-emails}
+     * additionally get {@code ROLE_ADMIN}, which guards the {@code /admin/**} endpoints.
+     */
+    private List<GrantedAuthority> authoritiesFor(String email)
+    {
+        boolean admin = adminEmails.stream().anyMatch(adminEmail -> EmailAddresses.normalize(adminEmail).equals(EmailAddresses.normalize(email)));
+        if (admin)
+        {
+            return List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN"));
+        }
+        return Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"));
+    }
+
+    /**
+     * Called by the authentication provider after a successful login whose stored hash uses an
+     * outdated algorithm or cost; {@code newPassword} is already encoded.
+     */
+    @Override
     @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword)
+    {
+        userRepository.findByEmail(userDetails.getUsername()).ifPresent(user -> {
+            user.setPassword(newPassword);
+            userRepository.save(user);
+            userDetailsCache.invalidate(user.getEmail());
+            auditLog.recordAfterCommit(AuditLog.Type.PASSWORD_REHASHED, user.getId(), user.getEmail());
+        });
+        return org.springframework.security.core.userdetails.User.withUserDetails(userDetails)
+                .password(newPassword)
+                .build();
+    }
+
+    /**
+     * Stores a login lockout so it outlives this node's in-memory failure counters; the account is
+     * reported as locked until then, which stops authentication before the password is checked.
+     */
+    @Override
+    @Transactional
+    public void lockAccount(String email, LocalDateTime until)
+    {
+        if (userRepository.lockUntil(email, until) > 0)
+        {
+            userDetailsCache.invalidate(email);
+        }
+    }
+
+    /**
+     * Validates and normalizes the input in memory first, so malformed or blocked emails and a second
+     * submission of a registration still in progress are turned away without touching the database.
+     * The in-flight claim is released only after the registration transaction has committed.
+     */
     public String registerUser(String name, String email) 
     {
-        logger.info("UserService.registerUser() - Attempting to register user with Email: {}", email);
+        return metrics.timeOutcome("auth.register", REGISTRATION_SUCCESSFUL, () -> {
+            String normalizedEmail = EmailAddresses.normalize(email);
+            String invalid = credentialValidator.checkEmail(normalizedEmail);
+            if (invalid != null)
+            {
+                auditLog.record(AuditLog.Type.REGISTRATION_REJECTED, null, normalizedEmail, null,
+                        invalid.equals(CredentialValidator.BLOCKED_DOMAIN) ? "blocked_domain" : "invalid_email");
+                return invalid;
+            }
+            if (name == null || name.isBlank())
+            {
+                return NAME_REQUIRED;
+            }
+            if (!registrationsInFlight.add(normalizedEmail))
+            {
+                auditLog.record(AuditLog.Type.REGISTRATION_REJECTED, null, normalizedEmail, null, "in_flight");
+                return REGISTRATION_IN_PROGRESS;
+            }
+            try
+            {
+                return transactionTemplate.execute(status -> doRegisterUser(name.trim(), normalizedEmail));
+            }
+            finally
+            {
+                registrationsInFlight.remove(normalizedEmail);
+            }
+        });
+    }
+
+    private String doRegisterUser(String name, String email)
+    {
         if (userRepository.findByEmail(email).isPresent()) 
         {
-            logger.warn("UserService.registerUser() - User with this email already exists: {}", email);
+            auditLog.record(AuditLog.Type.REGISTRATION_REJECTED, null, email, null, "email_taken");
             return "User with this email already exists";
         }
         User user = new User();
@@ -81,76 +211,171 @@ public class UserService implements UserDetailsService
         user.setEmail(email);
         user.setPassword(null); 
         user.setEnabled(false);
-        User savedUser = userRepository.save(user); 
-        logger.info("UserService.registerUser() - User saved with ID: {}", savedUser.getId());
+        User savedUser = metrics.timeRegistrationStage("db_save", () -> userRepository.save(user));
+        userDetailsCache.invalidate(email);
+        auditLog.recordAfterCommit(AuditLog.Type.USER_REGISTERED, savedUser.getId(), email);
 
-        String token = UUID.randomUUID().toString();
-        createVerificationToken(savedUser, token); 
-        logger.info("UserService.registerUser() - Verification token created for user ID: {}", savedUser.getId());
+        String token = metrics.timeRegistrationStage("token_create", () -> issueToken(savedUser, TokenPurpose.EMAIL_VERIFICATION));
 
         String verificationLink = "http://localhost:8080/set-password?token=" + token;
-        try 
+        metrics.timeRegistrationStage("email_enqueue", () -> emailUtil.queueEmail(email, "Set Your Password", verificationLink));
+        return REGISTRATION_SUCCESSFUL;
+    }
+
+    /**
+     * Creates the token for an emailed link, valid for the purpose's TTL: a random token stored as its
+     * hash in database mode, or a signed token that needs no row in signed mode.
+     */
+    private String issueToken(User user, TokenPurpose purpose)
+    {
+        auditLog.recordAfterCommit(AuditLog.Type.TOKEN_ISSUED, user.getId(), user.getEmail(), purpose, tokenProperties.getMode().name());
+        if (signedTokens())
+        {
+            return signedTokenService.issue(user.getId(), purpose, user.getPassword(), Instant.now().plus(tokenProperties.ttlFor(purpose)));
+        }
+        String token = StoredTokens.generate();
+        createVerificationToken(user, purpose, token);
+        return token;
+    }
+
+    private boolean signedTokens()
+    {
+        return tokenProperties.getMode() == TokenProperties.Mode.SIGNED;
+    }
+
+    /**
+     * Resolves the user a signed token was issued to, or null if the token is invalid, expired, for
+     * another purpose, or already used (the user's password hash has changed since it was issued).
+     */
+    private User findUserForSignedToken(String token, TokenPurpose purpose)
+    {
+        SignedTokenService.Claims claims = signedTokenService.parse(token, purpose).orElse(null);
+        if (claims == null)
+        {
+            return null;
+        }
+        User user = userRepository.findById(claims.userId()).orElse(null);
+        if (user == null || !signedTokenService.matchesPassword(token, claims, user.getPassword()))
         {
-            logger.info("UserService.registerUser() - Sending verification email to: {}, link: {}", email, verificationLink);
-            emailUtil.sendVerificationEmail(email, "Set Your Password", verificationLink);
-            logger.info("UserService.registerUser() - Verification email sent successfully to {}", email);
-        } catch (Exception e) 
+            return null;
+        }
+        return user;
+    }
+
+    /**
+     * Checks a link token without consuming it. In signed mode this is done entirely in memory: only the
+     * signature, expiry and purpose are checked, and a used link is turned away when the password is
+     * submitted. Stored tokens are looked up on a replica, and on the primary if the replica does not
+     * have them yet.
+     */
+    public boolean isTokenValid(String token, TokenPurpose purpose)
+    {
+        if (signedTokens())
+        {
+            return signedTokenService.parse(token, purpose).isPresent();
+        }
+        byte[] tokenHash = StoredTokens.hash(token);
+        if (isStoredTokenValid(tokenHash, purpose))
         {
-            logger.error("UserService.registerUser() - Error sending verification email to {}: {}", email, e.getMessage(), e);
-            throw new RuntimeException("Failed to send verification email. Registration failed.", e);
+            return true;
         }
-        logger.info("UserService.registerUser() - Registration successful for email: {}", email);
-        return "Registration successful. Please check your email to set your password.";
+        return replicasEnabled && ReplicaRoutingDataSource.onPrimary(() -> isStoredTokenValid(tokenHash, purpose));
     }
 
-    public void createVerificationToken(User user, String token)
+    private boolean isStoredTokenValid(byte[] tokenHash, TokenPurpose purpose)
+    {
+        return tokenRepository.existsByTokenHashAndPurposeAndExpiryDateAfter(tokenHash, purpose, LocalDateTime.now());
+    }
+
+    /**
+     * Stores the hash of a new link token, replacing the user's previous token for the same purpose.
+     */
+    public void createVerificationToken(User user, TokenPurpose purpose, String token)
      {
-        logger.info("UserService.createVerificationToken() - User ID: {}, Token: {}", user.getId(), token);
-        VerificationToken vToken = new VerificationToken();
-        vToken.setToken(token);
-        vToken.setUser(user);
-        vToken.setExpiryDate(LocalDateTime.now().plusMinutes(30)); 
-        tokenRepository.save(vToken);
-        logger.info("UserService.createVerificationToken() - Verification token saved with ID: {}", vToken.getId());
+        tokenRepository.replaceToken(user.getId(), purpose.name(), StoredTokens.hash(token),
+                LocalDateTime.now().plus(tokenProperties.ttlFor(purpose)));
+        logger.debug("UserService.createVerificationToken() - Verification token saved for user ID: {}", user.getId());
     }
 
-    @Transactional
     public String savePassword(String token, String password)
      {
-        logger.info("UserService.savePassword() - Attempting to save password for token: {}", token);
-        VerificationToken verificationToken = tokenRepository.findByToken(token).orElse(null);
-        if (verificationToken == null) 
+        return metrics.timeOutcome("auth.password.set", PASSWORD_SET, () -> doSavePassword(token, password));
+    }
+
+    private String doSavePassword(String token, String password)
+    {
+        String weak = credentialValidator.checkPassword(password);
+        if (weak != null)
         {
-            logger.warn("UserService.savePassword() - Verification token is NULL for token: {}", token);
-            return "Invalid or expired token";
+            return weak;
         }
-        if (verificationToken.getExpiryDate().isBefore(LocalDateTime.now())) 
+        boolean saved = signedTokens()
+                ? consumeSignedToken(token, TokenPurpose.EMAIL_VERIFICATION, password)
+                : consumeStoredToken(token, TokenPurpose.EMAIL_VERIFICATION, password);
+        if (!saved)
         {
-            logger.warn("UserService.savePassword() - Token expired for token: {}, Expiry Date: {}", token, verificationToken.getExpiryDate());
+            auditLog.record(AuditLog.Type.TOKEN_REJECTED, null, null, TokenPurpose.EMAIL_VERIFICATION, "invalid_expired_or_used");
             return "Invalid or expired token";
         }
-        logger.info("UserService.savePassword() - Found verification token for user ID: {}", verificationToken.getUser().getId());
-
-        User userFromToken = verificationToken.getUser();
-        logger.info("UserService.savePassword() - User ID from token: {}", userFromToken.getId());
-        User existingUser = userRepository.findById(userFromToken.getId()).orElse(null);
+        return PASSWORD_SET;
+    }
 
-        if (existingUser != null) 
+    /**
+     * Sets the password of a stored token's owner and deletes the token, along with the owner's other
+     * links, which the new password supersedes. The owner is found with one projection query and the
+     * password is hashed before any transaction starts, so the transaction is just a few statements.
+     * The token is claimed with a conditional delete: of several concurrent submissions of the same
+     * token, exactly one succeeds.
+     */
+    private boolean consumeStoredToken(String token, TokenPurpose purpose, String rawPassword)
+    {
+        LocalDateTime now = LocalDateTime.now();
+        byte[] tokenHash = StoredTokens.hash(token);
+        VerificationTokenRepository.TokenOwner owner = tokenRepository.findActiveTokenOwner(tokenHash, purpose, now).orElse(null);
+        if (owner == null)
         {
-            logger.info("UserService.savePassword() - Found existing user: {}", existingUser.getEmail());
-            existingUser.setPassword(passwordEncoder.encode(password));
-            existingUser.setEnabled(true);
-            logger.info("UserService.savePassword() - Setting password and enabling user: {}", existingUser.getEmail());
-            userRepository.save(existingUser);
-            logger.info("UserService.savePassword() - User password saved successfully for: {}", existingUser.getEmail());
-            tokenRepository.delete(verificationToken);
-            logger.info("UserService.savePassword() - Token deleted for user: {}", existingUser.getEmail());
-            return "Password set successfully";
-        } else 
+            return false;
+        }
+        String encodedPassword = passwordEncoder.encode(rawPassword);
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            if (tokenRepository.deleteActiveToken(tokenHash, purpose, now) == 0)
+            {
+                return false;
+            }
+            tokenRepository.deleteByUserId(owner.getUserId());
+            userRepository.setPasswordAndEnable(owner.getUserId(), encodedPassword);
+            userDetailsCache.invalidate(owner.getEmail());
+            auditLog.recordAfterCommit(passwordChanged(purpose), owner.getUserId(), owner.getEmail(), purpose, null);
+            return true;
+        }));
+    }
+
+    /**
+     * Same for signed tokens, which are single-use because they are bound to the hash the user had
+     * when the token was issued: the update only applies while that hash is still in place.
+     */
+    private boolean consumeSignedToken(String token, TokenPurpose purpose, String rawPassword)
+    {
+        User user = ReplicaRoutingDataSource.onPrimary(() -> findUserForSignedToken(token, purpose));
+        if (user == null)
         {
-            logger.error("UserService.savePassword() - User not found for token: {}", token);
-            return "Error: User not found for the provided token.";
+            return false;
         }
+        String encodedPassword = passwordEncoder.encode(rawPassword);
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            if (userRepository.setPasswordAndEnableIfUnchanged(user.getId(), user.getPassword(), encodedPassword) == 0)
+            {
+                return false;
+            }
+            userDetailsCache.invalidate(user.getEmail());
+            auditLog.recordAfterCommit(passwordChanged(purpose), user.getId(), user.getEmail(), purpose, null);
+            return true;
+        }));
+    }
+
+    private static AuditLog.Type passwordChanged(TokenPurpose purpose)
+    {
+        return purpose == TokenPurpose.PASSWORD_RESET ? AuditLog.Type.PASSWORD_RESET : AuditLog.Type.PASSWORD_SET;
     }
 
     public User findByEmail(String email) 
@@ -161,68 +386,57 @@ public class UserService implements UserDetailsService
     @Transactional
     public String createPasswordResetTokenForUser(String email)
      {
-        logger.info("UserService.createPasswordResetTokenForUser() - Attempting to create password reset token for email: {}", email);
+        return metrics.time("auth.password.reset.request", () -> doCreatePasswordResetTokenForUser(email));
+    }
+
+    private String doCreatePasswordResetTokenForUser(String requestedEmail)
+    {
+        String email = EmailAddresses.normalize(requestedEmail);
+        if (credentialValidator.checkEmail(email) != null)
+        {
+            auditLog.record(AuditLog.Type.RESET_REQUEST_IGNORED, null, email, TokenPurpose.PASSWORD_RESET, "invalid_email");
+            return RESET_REQUESTED;
+        }
         Optional<User> userOptional = userRepository.findByEmail(email);
         if (!userOptional.isPresent()) 
         {
-            logger.warn("UserService.createPasswordResetTokenForUser() - User not found for email: {}", email);
-            return "If an account with that email exists, a password reset link has been sent.";
+            auditLog.record(AuditLog.Type.RESET_REQUEST_IGNORED, null, email, TokenPurpose.PASSWORD_RESET, "unknown_email");
+            return RESET_REQUESTED;
         }
         User user = userOptional.get();
-        String token = UUID.randomUUID().toString();
-
-        tokenRepository.deleteByUser(user); 
-        logger.info("UserService.createPasswordResetTokenForUser() - Deleted existing tokens for user ID: {}", user.getId());
-
-        createVerificationToken(user, token); 
-        logger.info("UserService.createPasswordResetTokenForUser() - Password reset token created for user ID: {}", user.getId());
+        String token = issueToken(user, TokenPurpose.PASSWORD_RESET);
 
         String resetLink = "http://localhost:8080/reset-password?token=" + token;
-        try 
-        {
-            logger.info("UserService.createPasswordResetTokenForUser() - Sending password reset email to: {}, link: {}", email, resetLink);
-            emailUtil.sendVerificationEmail(email, "Password Reset Request", resetLink);
-            logger.info("UserService.createPasswordResetTokenForUser() - Password reset email sent successfully to {}", email);
-        } catch (Exception e) 
-        {
-            logger.error("UserService.createPasswordResetTokenForUser() - Error sending password reset email to {}: {}", email, e.getMessage(), e);
-            throw new RuntimeException("Failed to send password reset email.", e);
-        }
-        return "If an account with that email exists, a password reset link has been sent.";
+        emailUtil.queueEmail(email, "Password Reset Request", resetLink);
+        return RESET_REQUESTED;
     }
 
-    @Transactional
     public String resetPassword(String token, String newPassword, String confirmNewPassword)
      {
-        logger.info("UserService.resetPassword() - Attempting to reset password for token: {}", token);
+        return metrics.timeOutcome("auth.password.reset", PASSWORD_RESET, () -> doResetPassword(token, newPassword, confirmNewPassword));
+    }
+
+    private String doResetPassword(String token, String newPassword, String confirmNewPassword)
+    {
         if (newPassword == null || confirmNewPassword == null || !newPassword.equals(confirmNewPassword))
          {
-            logger.warn("UserService.resetPassword() - Passwords do not match or are null for token: {}", token);
+            logger.debug("UserService.resetPassword() - Passwords do not match or are missing");
             return "Passwords do not match.";
         }
-
-        VerificationToken verificationToken = tokenRepository.findByToken(token).orElse(null);
-        if (verificationToken == null || verificationToken.getExpiryDate().isBefore(LocalDateTime.now())) 
+        String weak = credentialValidator.checkPassword(newPassword);
+        if (weak != null)
         {
-            logger.warn("UserService.resetPassword() - Invalid or expired password reset token: {}", token);
-            return "Invalid or expired password reset token.";
+            return weak;
         }
 
-        User user = verificationToken.getUser();
-        if (user == null) 
+        boolean reset = signedTokens()
+                ? consumeSignedToken(token, TokenPurpose.PASSWORD_RESET, newPassword)
+                : consumeStoredToken(token, TokenPurpose.PASSWORD_RESET, newPassword);
+        if (!reset)
         {
-            logger.error("UserService.resetPassword() - User associated with token {} not found.", token);
-            return "Error: User associated with token not found.";
+            auditLog.record(AuditLog.Type.TOKEN_REJECTED, null, null, TokenPurpose.PASSWORD_RESET, "invalid_expired_or_used");
+            return "Invalid or expired password reset token.";
         }
-
-        user.setPassword(passwordEncoder.encode(newPassword));
-        user.setEnabled(true);
-        userRepository.save(user);
-        logger.info("UserService.resetPassword() - Password successfully reset for user: {}", user.getEmail());
-
-        tokenRepository.delete(verificationToken);
-        logger.info("UserService.resetPassword() - Password reset token deleted for user: {}", user.getEmail());
-
-        return "Your password has been successfully reset.";
+        return PASSWORD_RESET;
     }
 }
\ No newline at end of file
@@ -0,0 +1,272 @@
+package com.example.authsystem.util;
+
+import com.example.authsystem.model.TokenPurpose;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Security audit trail: one JSON line per event on the {@code audit} logger, for example
+ * <pre>{"ts":"2025-01-01T10:00:00.123Z","event":"PASSWORD_SET","userId":42,"email":"j***@example.com","purpose":"EMAIL_VERIFICATION"}</pre>
+ * {@link #record} only copies its arguments into a preallocated slot of an {@link AuditRingBuffer}; a single
+ * writer thread formats the lines and hands them to the appender, so request threads neither build strings
+ * nor wait on I/O. Events never carry tokens or passwords, emails are masked unless
+ * {@code app.audit.mask-emails=false}, and busy types can be sampled with {@code app.audit.sample-rates.*}.
+ * If the writer falls a full buffer behind, new events are dropped and counted as {@code auth.audit.dropped}.
+ * Events about a change made in a transaction go through {@link #recordAfterCommit} or {@link #deferUntilCommit},
+ * so a rolled-back change never appears in the trail.
+ */
+@Component
+@EnableConfigurationProperties(AuditProperties.class)
+public class AuditLog implements SmartLifecycle {
+
+    public enum Type {
+        USER_REGISTERED,
+        REGISTRATION_REJECTED,
+        TOKEN_ISSUED,
+        TOKEN_REJECTED,
+        PASSWORD_SET,
+        PASSWORD_RESET,
+        PASSWORD_REHASHED,
+        RESET_REQUEST_IGNORED,
+        LOGIN_SUCCEEDED,
+        LOGIN_FAILED,
+        LOGIN_LOCKED_OUT
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLog.class);
+    private static final Logger audit = LoggerFactory.getLogger("audit");
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final int DRAIN_BATCH = 256;
+    private static final long NO_USER = -1;
+
+    /**
+     * Start before and stop after the web server (which stops after its graceful shutdown), so requests
+     * still draining during shutdown can record events and those events are flushed.
+     */
+    static final int PHASE = WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 2048;
+
+    private final boolean enabled;
+    private final boolean maskEmails;
+    private final double[] sampleRates;
+    private final AuditRingBuffer buffer;
+    private final Consumer<String> sink;
+    private final StringBuilder line = new StringBuilder(256);
+    private final Consumer<AuditRingBuffer.Slot> writeEvent = this::write;
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile Thread writer;
+
+    @Autowired
+    public AuditLog(AuditProperties properties, MeterRegistry meterRegistry) {
+        this(properties, audit::info);
+        FunctionCounter.builder("auth.audit.dropped", dropped, AtomicLong::get)
+                .description("Audit events dropped because the writer thread fell behind")
+                .register(meterRegistry);
+        Gauge.builder("auth.audit.buffer.size", buffer, AuditRingBuffer::size)
+                .description("Audit events waiting for the writer thread")
+                .register(meterRegistry);
+    }
+
+    AuditLog(AuditProperties properties, Consumer<String> sink) {
+        this.enabled = properties.isEnabled();
+        this.maskEmails = properties.isMaskEmails();
+        this.sampleRates = new double[Type.values().length];
+        for (Type type : Type.values()) {
+            sampleRates[type.ordinal()] = properties.getSampleRates().getOrDefault(type, 1.0);
+        }
+        this.buffer = new AuditRingBuffer(properties.getBufferSize());
+        this.sink = sink;
+    }
+
+    public void record(Type type, Long userId, String email) {
+        record(type, userId, email, null, null);
+    }
+
+    /**
+     * Queues an event; {@code userId}, {@code email}, {@code purpose} and {@code detail} may be null.
+     * {@code detail} must be a short reason code, never user input or a secret.
+     */
+    public void record(Type type, Long userId, String email, TokenPurpose purpose, String detail) {
+        if (!enabled) {
+            return;
+        }
+        double sampleRate = sampleRates[type.ordinal()];
+        if (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        if (!buffer.offer(type, System.currentTimeMillis(), userId == null ? NO_USER : userId, email, purpose, detail)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    public void recordAfterCommit(Type type, Long userId, String email) {
+        recordAfterCommit(type, userId, email, null, null);
+    }
+
+    /**
+     * Queues the event once the surrounding transaction has committed, and drops it on rollback;
+     * outside a transaction it is queued right away.
+     */
+    public void recordAfterCommit(Type type, Long userId, String email, TokenPurpose purpose, String detail) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            record(type, userId, email, purpose, detail);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                record(type, userId, email, purpose, detail);
+            }
+        });
+    }
+
+    /**
+     * Reactive counterpart of {@link #recordAfterCommit}: subscribe to it inside the reactive transaction.
+     */
+    public Mono<Void> deferUntilCommit(Type type, Long userId, String email, TokenPurpose purpose, String detail) {
+        Runnable event = () -> record(type, userId, email, purpose, detail);
+        return org.springframework.transaction.reactive.TransactionSynchronizationManager.forCurrentTransaction()
+                .filter(transaction -> transaction.isSynchronizationActive())
+                .doOnNext(transaction -> transaction.registerSynchronization(
+                        new org.springframework.transaction.reactive.TransactionSynchronization() {
+                            @Override
+                            public Mono<Void> afterCommit() {
+                                return Mono.fromRunnable(event);
+                            }
+                        }))
+                .switchIfEmpty(Mono.fromRunnable(event))
+                .onErrorResume(NoTransactionException.class, e -> Mono.fromRunnable(event))
+                .then();
+    }
+
+    long droppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Writes everything queued so far on the calling thread; only safe while the writer thread is stopped.
+     */
+    void flush() {
+        while (buffer.drain(writeEvent, DRAIN_BATCH) > 0) {
+            // keep draining
+        }
+    }
+
+    @Override
+    public void start() {
+        if (enabled) {
+            writer = Thread.ofPlatform().name("audit-writer").daemon().start(this::run);
+        }
+    }
+
+    @Override
+    public void stop() {
+        Thread thread = writer;
+        writer = null;
+        if (thread == null) {
+            return;
+        }
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!thread.isAlive()) {
+            flush();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return writer != null;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private void run() {
+        Thread self = Thread.currentThread();
+        while (writer == self) {
+            if (buffer.drain(writeEvent, DRAIN_BATCH) == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    private void write(AuditRingBuffer.Slot event) {
+        StringBuilder json = line;
+        json.setLength(0);
+        json.append("{\"ts\":\"");
+        DateTimeFormatter.ISO_INSTANT.formatTo(Instant.ofEpochMilli(event.timestamp), json);
+        json.append("\",\"event\":\"").append(event.type.name()).append('"');
+        if (event.userId != NO_USER) {
+            json.append(",\"userId\":").append(event.userId);
+        }
+        if (event.email != null) {
+            json.append(",\"email\":\"");
+            appendEmail(json, event.email);
+            json.append('"');
+        }
+        if (event.purpose != null) {
+            json.append(",\"purpose\":\"").append(event.purpose.name()).append('"');
+        }
+        if (event.detail != null) {
+            json.append(",\"detail\":\"");
+            appendEscaped(json, event.detail, 0, event.detail.length());
+            json.append('"');
+        }
+        json.append('}');
+        try {
+            sink.accept(json.toString());
+        } catch (RuntimeException e) {
+            logger.warn("AuditLog.write() - Could not write audit event {}: {}", event.type, e.getMessage());
+        }
+    }
+
+    private void appendEmail(StringBuilder json, String email) {
+        int at = email.lastIndexOf('@');
+        if (!maskEmails) {
+            appendEscaped(json, email, 0, email.length());
+        } else if (at <= 0) {
+            json.append("***");
+        } else {
+            appendEscaped(json, email, 0, 1);
+            json.append("***");
+            appendEscaped(json, email, at, email.length());
+        }
+    }
+
+    private static void appendEscaped(StringBuilder json, String value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append("\\u00").append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xF, 16));
+            } else {
+                json.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.authsystem.util;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Settings for the {@link AuditLog}, bound from {@code app.audit.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.audit")
+public class AuditProperties {
+
+    private boolean enabled = true;
+
+    /** Events buffered for the writer thread, rounded up to a power of two. */
+    private int bufferSize = 8192;
+
+    /** Log only the first character and the domain of email addresses. */
+    private boolean maskEmails = true;
+
+    /** Fraction of the events of a type that are written, e.g. {@code login-succeeded=0.1}; unlisted types are always written. */
+    private Map<AuditLog.Type, Double> sampleRates = new EnumMap<>(AuditLog.Type.class);
+}
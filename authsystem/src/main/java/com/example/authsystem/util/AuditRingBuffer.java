@@ -0,0 +1,103 @@
+package com.example.authsystem.util;
+
+import com.example.authsystem.model.TokenPurpose;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded multi-producer, single-consumer queue of audit entries. Slots are allocated once and reused:
+ * a producer claims a sequence number with a CAS, fills the slot in place and publishes it; the consumer
+ * reads slots strictly in sequence order. Producers never block or allocate; when the consumer is a
+ * full buffer behind, {@link #offer} fails instead.
+ */
+final class AuditRingBuffer {
+
+    static final class Slot {
+        AuditLog.Type type;
+        long timestamp;
+        long userId;
+        String email;
+        TokenPurpose purpose;
+        String detail;
+
+        private void clear() {
+            type = null;
+            email = null;
+            purpose = null;
+            detail = null;
+        }
+    }
+
+    private final Slot[] slots;
+    private final int mask;
+    /** Sequence number last published in each slot; a slot is readable when it holds the expected sequence. */
+    private final AtomicLongArray published;
+    private final AtomicLong tail = new AtomicLong();
+    /** Next sequence the consumer reads; written by the consumer only. */
+    private volatile long head;
+
+    AuditRingBuffer(int capacity) {
+        int size = 1 << (32 - Integer.numberOfLeadingZeros(Math.max(capacity, 2) - 1));
+        this.slots = new Slot[size];
+        this.mask = size - 1;
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+            published.set(i, -1);
+        }
+    }
+
+    boolean offer(AuditLog.Type type, long timestamp, long userId, String email, TokenPurpose purpose, String detail) {
+        long sequence;
+        do {
+            sequence = tail.get();
+            if (sequence - head >= slots.length) {
+                return false;
+            }
+        } while (!tail.compareAndSet(sequence, sequence + 1));
+
+        int index = (int) sequence & mask;
+        Slot slot = slots[index];
+        slot.type = type;
+        slot.timestamp = timestamp;
+        slot.userId = userId;
+        slot.email = email;
+        slot.purpose = purpose;
+        slot.detail = detail;
+        published.lazySet(index, sequence);
+        return true;
+    }
+
+    /**
+     * Hands up to {@code max} published entries to {@code handler}, in order, on the calling thread, which
+     * must be the only consumer. The slot is reused once the handler returns.
+     */
+    int drain(Consumer<Slot> handler, int max) {
+        int drained = 0;
+        while (drained < max) {
+            long sequence = head;
+            int index = (int) sequence & mask;
+            if (published.get(index) != sequence) {
+                break;
+            }
+            Slot slot = slots[index];
+            try {
+                handler.accept(slot);
+            } finally {
+                slot.clear();
+                head = sequence + 1;
+            }
+            drained++;
+        }
+        return drained;
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+
+    int size() {
+        return (int) (tail.get() - head);
+    }
+}
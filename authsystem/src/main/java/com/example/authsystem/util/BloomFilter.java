@@ -0,0 +1,59 @@
+package com.example.authsystem.util;
+
+/**
+ * Fixed-size Bloom filter over 128-bit keys, such as the leading bytes of a SHA-1 digest. Membership
+ * tests can return false positives at roughly the rate it was sized for, never false negatives. The
+ * bit positions are derived from the two 64-bit halves of the key by double hashing, so the key must
+ * already be a uniformly distributed hash. Not thread-safe while being filled; read-only use after
+ * the last {@link #put} is safe once the filter has been published.
+ */
+public class BloomFilter {
+
+    private final long[] bits;
+    private final long bitCount;
+    private final int hashCount;
+    private long size;
+
+    /**
+     * @param expectedEntries   number of keys the filter will hold
+     * @param falsePositiveRate target probability that an absent key tests as present
+     */
+    public BloomFilter(long expectedEntries, double falsePositiveRate) {
+        long entries = Math.max(1L, expectedEntries);
+        double ln2 = Math.log(2);
+        long optimalBits = (long) Math.ceil(-entries * Math.log(falsePositiveRate) / (ln2 * ln2));
+        this.bits = new long[(int) Math.max(1L, (optimalBits + 63) / 64)];
+        this.bitCount = bits.length * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / entries * ln2));
+    }
+
+    public void put(long high, long low) {
+        for (int i = 0; i < hashCount; i++) {
+            long index = index(high, low, i);
+            bits[(int) (index >>> 6)] |= 1L << index;
+        }
+        size++;
+    }
+
+    public boolean mightContain(long high, long low) {
+        for (int i = 0; i < hashCount; i++) {
+            long index = index(high, low, i);
+            if ((bits[(int) (index >>> 6)] & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public long bitCount() {
+        return bitCount;
+    }
+
+    private long index(long high, long low, int i) {
+        return Math.floorMod(high + i * low, bitCount);
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.authsystem.util;
+
+import java.util.Locale;
+
+/**
+ * The one canonical form of an email address, used for storage, lookups, cache keys, rate-limit and
+ * lockout keys alike: surrounding whitespace removed and lower-cased with {@link Locale#ROOT}.
+ */
+public final class EmailAddresses {
+
+    private EmailAddresses() {
+    }
+
+    /**
+     * Returns the canonical form of {@code email}, or an empty string for {@code null}.
+     */
+    public static String normalize(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+}
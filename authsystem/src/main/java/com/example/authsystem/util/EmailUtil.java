@@ -1,27 +1,57 @@
 package com.example.authsystem.util;
 
+import com.example.authsystem.model.EmailOutboxMessage;
+import com.example.authsystem.repository.EmailOutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Component;
+import java.time.LocalDateTime;
+import java.util.List;
 
 @Component
 public class EmailUtil {
 
+    private static final Logger logger = LoggerFactory.getLogger(EmailUtil.class);
+
     @Autowired
     private JavaMailSender mailSender;
 
-    public void sendVerificationEmail(String to, String subject, String body) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(to);
+    @Autowired
+    private EmailOutboxRepository outboxRepository;
+
+    /**
+     * Writes the email to the outbox. When called inside a transaction the row commits (or rolls back)
+     * together with the caller's changes; {@link com.example.authsystem.service.EmailOutboxDispatcher}
+     * delivers it afterwards.
+     */
+    public void queueEmail(String to, String subject, String body) {
+        outboxRepository.save(newOutboxMessage(to, subject, body));
+    }
+
+    /**
+     * Builds a pending outbox row that is due immediately.
+     */
+    public static EmailOutboxMessage newOutboxMessage(String to, String subject, String body) {
+        EmailOutboxMessage message = new EmailOutboxMessage();
+        message.setRecipient(to);
         message.setSubject(subject);
-        message.setText(body);
-        try {
-            mailSender.send(message);
-            System.out.println("Email sent successfully to: " + to);
-        } catch (Exception e) {
-            System.err.println("Error sending email to " + to + ": " + e.getMessage());
-            e.printStackTrace();
-        }
+        message.setBody(body);
+        message.setStatus(EmailOutboxMessage.Status.PENDING);
+        LocalDateTime now = LocalDateTime.now();
+        message.setCreatedAt(now);
+        message.setNextAttemptAt(now);
+        return message;
+    }
+
+    /**
+     * Sends all messages over a single SMTP connection. Failures are reported through
+     * {@link org.springframework.mail.MailSendException#getFailedMessages()}, keyed by the original message.
+     */
+    public void sendBatch(List<SimpleMailMessage> messages) {
+        mailSender.send(messages.toArray(new SimpleMailMessage[0]));
+        logger.debug("EmailUtil.sendBatch() - Sent {} emails", messages.size());
     }
-}
\ No newline at end of file
+}
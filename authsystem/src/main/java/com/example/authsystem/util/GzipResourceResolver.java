@@ -0,0 +1,119 @@
+package com.example.authsystem.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.resource.AbstractResourceResolver;
+import org.springframework.web.servlet.resource.HttpResource;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serves text assets gzip-compressed to clients that accept it. An asset is compressed once, when it is
+ * first resolved, and kept by the {@code CachingResourceResolver} at the head of the chain, which caches
+ * per accepted encoding. Other resources and clients get the resource unchanged.
+ */
+@Slf4j
+public class GzipResourceResolver extends AbstractResourceResolver {
+
+    private static final Set<String> COMPRESSIBLE = Set.of("css", "js", "svg", "json", "txt", "html");
+
+    @Override
+    protected Resource resolveResourceInternal(@Nullable HttpServletRequest request, String requestPath,
+                                               List<? extends Resource> locations, ResourceResolverChain chain) {
+        Resource resource = chain.resolveResource(request, requestPath, locations);
+        if (resource == null || request == null || !acceptsGzip(request)
+                || !COMPRESSIBLE.contains(StringUtils.getFilenameExtension(resource.getFilename()))) {
+            return resource;
+        }
+        try {
+            return new GzippedResource(resource);
+        } catch (IOException e) {
+            log.warn("GzipResourceResolver - Could not compress {}: {}", resource.getDescription(), e.toString());
+            return resource;
+        }
+    }
+
+    @Override
+    protected String resolveUrlPathInternal(String resourceUrlPath, List<? extends Resource> locations,
+                                            ResourceResolverChain chain) {
+        return chain.resolveUrlPath(resourceUrlPath, locations);
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+    }
+
+    /**
+     * The compressed bytes under the original's file name and modification time, so the media type and
+     * {@code Last-Modified} come out as for the original.
+     */
+    private static final class GzippedResource extends AbstractResource implements HttpResource {
+
+        private final Resource original;
+        private final byte[] gzipped;
+
+        GzippedResource(Resource original) throws IOException {
+            this.original = original;
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            try (InputStream in = original.getInputStream(); OutputStream out = new GZIPOutputStream(buffer)) {
+                in.transferTo(out);
+            }
+            this.gzipped = buffer.toByteArray();
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new ByteArrayInputStream(gzipped);
+        }
+
+        @Override
+        public boolean exists() {
+            return true;
+        }
+
+        @Override
+        public long contentLength() {
+            return gzipped.length;
+        }
+
+        @Override
+        public long lastModified() throws IOException {
+            return original.lastModified();
+        }
+
+        @Override
+        public String getFilename() {
+            return original.getFilename();
+        }
+
+        @Override
+        public String getDescription() {
+            return "gzipped " + original.getDescription();
+        }
+
+        @Override
+        public HttpHeaders getResponseHeaders() {
+            HttpHeaders headers = new HttpHeaders();
+            if (original instanceof HttpResource httpResource) {
+                headers.putAll(httpResource.getResponseHeaders());
+            }
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            headers.set(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            return headers;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.authsystem.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-process {@link SharedState} used when {@code app.shared-state.store=in-memory}: a single node, or
+ * several "nodes" in one JVM sharing an instance in tests. Messages are delivered synchronously on the
+ * publishing thread; the conditional writes are serialised on the instance.
+ */
+public class InMemorySharedState implements SharedState {
+
+    private record Entry(String value, long ttlNanos) {
+    }
+
+    private final Cache<String, Entry> values;
+    private final Map<String, List<Consumer<String>>> listeners = new ConcurrentHashMap<>();
+
+    public InMemorySharedState(long maxSize) {
+        this.values = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String key, Entry entry, long currentTime) {
+                        return entry.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+                        return entry.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public String get(String key) {
+        Entry entry = values.getIfPresent(key);
+        return entry == null ? null : entry.value();
+    }
+
+    @Override
+    public void set(String key, String value, Duration ttl) {
+        values.put(key, new Entry(value, ttl.toNanos()));
+    }
+
+    @Override
+    public void delete(String key) {
+        values.invalidate(key);
+    }
+
+    @Override
+    public synchronized long increment(String key, Duration ttl) {
+        String current = get(key);
+        long next = current == null ? 1L : Long.parseLong(current) + 1L;
+        set(key, Long.toString(next), ttl);
+        return next;
+    }
+
+    @Override
+    public synchronized boolean setIfGuardUnchanged(String key, String value, Duration ttl, String guardKey, String expectedGuard) {
+        if (!Objects.equals(get(guardKey), expectedGuard)) {
+            return false;
+        }
+        set(key, value, ttl);
+        return true;
+    }
+
+    @Override
+    public void publish(String channel, String message) {
+        listeners.getOrDefault(channel, List.of()).forEach(listener -> listener.accept(message));
+    }
+
+    @Override
+    public void subscribe(String channel, Consumer<String> listener) {
+        listeners.computeIfAbsent(channel, key -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+}
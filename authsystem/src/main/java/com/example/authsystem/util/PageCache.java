@@ -0,0 +1,202 @@
+package com.example.authsystem.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.thymeleaf.ThymeleafProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.security.web.csrf.CsrfToken;
+import org.springframework.security.web.csrf.DefaultCsrfToken;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.BindingResult;
+import org.springframework.web.servlet.View;
+import org.springframework.web.servlet.ViewResolver;
+import org.thymeleaf.spring6.view.ThymeleafViewResolver;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * Serves anonymous GET pages such as the login and registration forms from rendered HTML instead of running
+ * Thymeleaf on every request. A page is rendered once per view, set of query parameter names and model
+ * messages, with a placeholder in place of the CSRF token; the text around the placeholder is kept and
+ * every hit is completed with the request's own token, so tokens stay per session and masked per request.
+ * Other requests, requests without a CSRF token, and models holding anything but strings are rendered
+ * normally. Off when {@code spring.thymeleaf.cache=false}, so template edits show up during development.
+ */
+@Slf4j
+@Component
+@Profile("!reactive")
+@EnableConfigurationProperties(PageCacheProperties.class)
+public class PageCache implements ViewResolver, Ordered, MeterBinder {
+
+    private static final String TOKEN_PLACEHOLDER = "csrf-placeholder-4c1f9e27d8b3";
+    private static final Pattern TOKEN_SPLIT = Pattern.compile(Pattern.quote(TOKEN_PLACEHOLDER));
+    /** Query strings with more parameters than this are rendered normally rather than widening the key space. */
+    private static final int MAX_KEY_PARAMETERS = 4;
+
+    private final boolean enabled;
+    private final Set<String> views;
+    private final ThymeleafViewResolver thymeleafViewResolver;
+    private final Cache<String, Page> pages;
+
+    public PageCache(PageCacheProperties properties, ThymeleafProperties thymeleafProperties,
+                     ThymeleafViewResolver thymeleafViewResolver) {
+        this.enabled = properties.isEnabled() && thymeleafProperties.isCache();
+        this.views = Set.copyOf(properties.getViews());
+        this.thymeleafViewResolver = thymeleafViewResolver;
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxEntries())
+                .recordStats()
+                .build();
+        if (properties.isEnabled() && !enabled) {
+            log.info("PageCache - Disabled because Thymeleaf template caching is off");
+        }
+    }
+
+    /**
+     * Ahead of the Thymeleaf view resolver, which it delegates to.
+     */
+    @Override
+    public int getOrder() {
+        return thymeleafViewResolver.getOrder() - 1;
+    }
+
+    @Override
+    public View resolveViewName(String viewName, Locale locale) throws Exception {
+        if (!enabled || !views.contains(viewName)) {
+            return null;
+        }
+        View view = thymeleafViewResolver.resolveViewName(viewName, locale);
+        return view == null ? null : new CachedView(viewName, view);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, pages, "pages");
+    }
+
+    long size() {
+        return pages.estimatedSize();
+    }
+
+    /**
+     * Key over everything the cached templates may read: the view, which query parameters are present
+     * ({@code ${param.error}} and the like) and the model's messages. {@code null} if the page must not be cached.
+     */
+    private static String key(String viewName, Map<String, ?> model, HttpServletRequest request) {
+        Set<String> parameterNames = request.getParameterMap().keySet();
+        if (parameterNames.size() > MAX_KEY_PARAMETERS) {
+            return null;
+        }
+        StringBuilder key = new StringBuilder(viewName).append('?');
+        for (String name : new TreeSet<>(parameterNames)) {
+            key.append(name).append('&');
+        }
+        if (model != null) {
+            for (Map.Entry<String, ?> entry : new TreeMap<>(model).entrySet()) {
+                if (entry.getKey().startsWith(BindingResult.MODEL_KEY_PREFIX)) {
+                    continue;
+                }
+                if (!(entry.getValue() instanceof String value)) {
+                    return null;
+                }
+                key.append('\n').append(entry.getKey()).append('=').append(value);
+            }
+        }
+        return key.toString();
+    }
+
+    private final class CachedView implements View {
+
+        private final String viewName;
+        private final View delegate;
+
+        CachedView(String viewName, View delegate) {
+            this.viewName = viewName;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String getContentType() {
+            return delegate.getContentType();
+        }
+
+        @Override
+        public void render(Map<String, ?> model, HttpServletRequest request, HttpServletResponse response) throws Exception {
+            CsrfToken token = (CsrfToken) request.getAttribute(CsrfToken.class.getName());
+            String key = token != null && "GET".equals(request.getMethod()) ? key(viewName, model, request) : null;
+            if (key == null) {
+                delegate.render(model, request, response);
+                return;
+            }
+            Page page = pages.getIfPresent(key);
+            if (page == null) {
+                // Two first requests may both render; the page is the same either way.
+                page = renderPage(model, request, response, token);
+                pages.put(key, page);
+            }
+            page.writeTo(response, token.getToken());
+        }
+
+        private Page renderPage(Map<String, ?> model, HttpServletRequest request, HttpServletResponse response,
+                                CsrfToken token) throws Exception {
+            CsrfToken placeholder = new DefaultCsrfToken(token.getHeaderName(), token.getParameterName(), TOKEN_PLACEHOLDER);
+            HttpServletRequest placeholderRequest = new HttpServletRequestWrapper(request) {
+                @Override
+                public Object getAttribute(String name) {
+                    Object value = super.getAttribute(name);
+                    return value instanceof CsrfToken ? placeholder : value;
+                }
+            };
+            StringWriter html = new StringWriter(4096);
+            PrintWriter writer = new PrintWriter(html);
+            HttpServletResponse capturingResponse = new HttpServletResponseWrapper(response) {
+                @Override
+                public PrintWriter getWriter() {
+                    return writer;
+                }
+
+                @Override
+                public ServletOutputStream getOutputStream() {
+                    throw new IllegalStateException("Cached pages are captured through getWriter()");
+                }
+            };
+            delegate.render(model, placeholderRequest, capturingResponse);
+            writer.flush();
+            return new Page(response.getContentType(), TOKEN_SPLIT.split(html.toString(), -1));
+        }
+    }
+
+    /**
+     * Rendered markup split around the CSRF token placeholder.
+     */
+    private record Page(String contentType, String[] segments) {
+
+        void writeTo(HttpServletResponse response, String token) throws IOException {
+            response.setContentType(contentType);
+            PrintWriter writer = response.getWriter();
+            writer.write(segments[0]);
+            for (int i = 1; i < segments.length; i++) {
+                writer.write(token);
+                writer.write(segments[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.authsystem.util;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Rendered-page cache for {@link PageCache}, bound from {@code app.web.page-cache.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.web.page-cache")
+public class PageCacheProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Views served from the cache on GET. Only list pages whose model holds nothing user-specific:
+     * set-password and reset-password carry the emailed token and must stay out.
+     */
+    private Set<String> views = new LinkedHashSet<>(List.of("login", "register", "forgot-password"));
+
+    /** Upper bound on cached variants (view, query parameters and model messages). */
+    private long maxEntries = 256;
+}
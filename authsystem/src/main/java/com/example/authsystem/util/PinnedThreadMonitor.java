@@ -0,0 +1,78 @@
+package com.example.authsystem.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+/**
+ * Streams the JFR {@code jdk.VirtualThreadPinned} event in-process, logging the top frames of every
+ * virtual thread that stayed pinned to its carrier (blocking inside {@code synchronized} or native code)
+ * for longer than {@code app.diagnostics.pinned-threads.threshold}, and counting them as
+ * {@code auth.virtual-threads.pinned}. Enable with {@code app.diagnostics.pinned-threads.enabled=true}.
+ */
+@Component
+@ConditionalOnProperty(name = "app.diagnostics.pinned-threads.enabled", havingValue = "true")
+public class PinnedThreadMonitor implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(PinnedThreadMonitor.class);
+    private static final int LOGGED_FRAMES = 8;
+
+    private final Duration threshold;
+    private final Counter pinned;
+    private volatile RecordingStream stream;
+
+    public PinnedThreadMonitor(@Value("${app.diagnostics.pinned-threads.threshold:PT0.02S}") Duration threshold,
+                               MeterRegistry meterRegistry) {
+        this.threshold = threshold;
+        this.pinned = Counter.builder("auth.virtual-threads.pinned")
+                .description("Virtual threads pinned to their carrier longer than the configured threshold")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        RecordingStream recording = new RecordingStream();
+        recording.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+        recording.onEvent("jdk.VirtualThreadPinned", this::onPinned);
+        recording.startAsync();
+        stream = recording;
+        logger.info("PinnedThreadMonitor - Reporting virtual threads pinned longer than {}", threshold);
+    }
+
+    @Override
+    public void stop() {
+        RecordingStream recording = stream;
+        stream = null;
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return stream != null;
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinned.increment();
+        String frames = event.getStackTrace() == null ? "<no stack trace>" : event.getStackTrace().getFrames().stream()
+                .limit(LOGGED_FRAMES)
+                .map(PinnedThreadMonitor::describe)
+                .collect(Collectors.joining("\n\tat ", "\n\tat ", ""));
+        logger.warn("PinnedThreadMonitor - Virtual thread pinned for {} ms{}", event.getDuration().toMillis(), frames);
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.authsystem.util;
+
+import jakarta.mail.Address;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * In-memory mail sink used instead of SMTP when {@code app.mail.sink=memory}. Keeps the most recent
+ * {@code capacity} messages so tests and local runs can read verification links without a mail server.
+ * Listeners see every message as it is sent, which lets a load test wait for one link without scanning.
+ */
+public class RecordingMailSender implements JavaMailSender {
+
+    private final Session session = Session.getInstance(new Properties());
+    private final ConcurrentLinkedDeque<SimpleMailMessage> messages = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final List<Consumer<SimpleMailMessage>> listeners = new CopyOnWriteArrayList<>();
+    private final int capacity;
+
+    public RecordingMailSender(int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public void send(SimpleMailMessage... simpleMessages) {
+        for (SimpleMailMessage message : simpleMessages) {
+            record(new SimpleMailMessage(message));
+        }
+    }
+
+    @Override
+    public MimeMessage createMimeMessage() {
+        return new MimeMessage(session);
+    }
+
+    @Override
+    public MimeMessage createMimeMessage(InputStream contentStream) {
+        try {
+            return new MimeMessage(session, contentStream);
+        } catch (MessagingException e) {
+            throw new MailParseException("Could not parse raw MIME content", e);
+        }
+    }
+
+    @Override
+    public void send(MimeMessage... mimeMessages) {
+        for (MimeMessage mimeMessage : mimeMessages) {
+            try {
+                SimpleMailMessage message = new SimpleMailMessage();
+                Address[] recipients = mimeMessage.getAllRecipients();
+                if (recipients != null) {
+                    message.setTo(Arrays.stream(recipients).map(Address::toString).toArray(String[]::new));
+                }
+                message.setSubject(mimeMessage.getSubject());
+                Object content = mimeMessage.getContent();
+                message.setText(content != null ? content.toString() : null);
+                record(message);
+            } catch (MessagingException | IOException e) {
+                throw new MailParseException("Could not read MIME message", e);
+            }
+        }
+    }
+
+    public List<SimpleMailMessage> getSentMessages() {
+        return new ArrayList<>(messages);
+    }
+
+    public void addListener(Consumer<SimpleMailMessage> listener) {
+        listeners.add(listener);
+    }
+
+    public void clear() {
+        messages.clear();
+        size.set(0);
+    }
+
+    private void record(SimpleMailMessage message) {
+        messages.addLast(message);
+        if (size.incrementAndGet() > capacity && messages.pollFirst() != null) {
+            size.decrementAndGet();
+        }
+        listeners.forEach(listener -> listener.accept(message));
+    }
+}
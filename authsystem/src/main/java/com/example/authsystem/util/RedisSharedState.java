@@ -0,0 +1,91 @@
+package com.example.authsystem.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * {@link SharedState} on a Redis-compatible server when {@code app.shared-state.store=redis}. Values are
+ * plain strings with {@code SET ... PX}, counters and the conditional write are Lua scripts, messages use
+ * Redis pub/sub. Every key and channel is prefixed with {@code app.shared-state.key-prefix} so several
+ * deployments can share one server.
+ */
+@Slf4j
+public class RedisSharedState implements SharedState {
+
+    /** KEYS[1] counter; ARGV: TTL in ms. Incremented and given its TTL in one round trip. */
+    private static final RedisScript<Long> INCREMENT_WITH_TTL = RedisScript.of("""
+            local value = redis.call('INCR', KEYS[1])
+            redis.call('PEXPIRE', KEYS[1], ARGV[1])
+            return value
+            """, Long.class);
+
+    /** KEYS[1] value, KEYS[2] guard; ARGV: value, TTL in ms, expected guard ("" for absent). */
+    private static final RedisScript<Long> SET_IF_GUARD_UNCHANGED = RedisScript.of("""
+            if (redis.call('GET', KEYS[2]) or '') == ARGV[3] then
+                redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+                return 1
+            end
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate redis;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final String keyPrefix;
+
+    public RedisSharedState(StringRedisTemplate redis, RedisMessageListenerContainer listenerContainer, String keyPrefix) {
+        this.redis = redis;
+        this.listenerContainer = listenerContainer;
+        this.keyPrefix = keyPrefix;
+    }
+
+    @Override
+    public String get(String key) {
+        return redis.opsForValue().get(keyPrefix + key);
+    }
+
+    @Override
+    public void set(String key, String value, Duration ttl) {
+        redis.opsForValue().set(keyPrefix + key, value, ttl);
+    }
+
+    @Override
+    public void delete(String key) {
+        redis.delete(keyPrefix + key);
+    }
+
+    @Override
+    public long increment(String key, Duration ttl) {
+        Long value = redis.execute(INCREMENT_WITH_TTL, List.of(keyPrefix + key), Long.toString(ttl.toMillis()));
+        return value == null ? 0L : value;
+    }
+
+    @Override
+    public boolean setIfGuardUnchanged(String key, String value, Duration ttl, String guardKey, String expectedGuard) {
+        Long written = redis.execute(SET_IF_GUARD_UNCHANGED, List.of(keyPrefix + key, keyPrefix + guardKey),
+                value, Long.toString(ttl.toMillis()), expectedGuard == null ? "" : expectedGuard);
+        return written != null && written == 1L;
+    }
+
+    @Override
+    public void publish(String channel, String message) {
+        redis.convertAndSend(keyPrefix + channel, message);
+    }
+
+    @Override
+    public void subscribe(String channel, Consumer<String> listener) {
+        listenerContainer.addMessageListener((message, pattern) -> {
+            try {
+                listener.accept(new String(message.getBody(), StandardCharsets.UTF_8));
+            } catch (RuntimeException e) {
+                log.warn("RedisSharedState.subscribe() - Listener on {} failed: {}", channel, e.toString());
+            }
+        }, new ChannelTopic(keyPrefix + channel));
+    }
+}
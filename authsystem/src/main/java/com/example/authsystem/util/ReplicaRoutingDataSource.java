@@ -0,0 +1,103 @@
+package com.example.authsystem.util;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Connections for read-only transactions: replicas in round-robin order, skipping a replica whose pool
+ * cannot hand out a connection and falling back to the primary when none can. Used as the read-only
+ * variant of a {@code LazyConnectionDataSourceProxy}, which decides per transaction on first use.
+ * <p>
+ * {@link #onPrimary(Supplier)} sends read-only work on the current thread to the primary as well, for
+ * reads that must see a write the replicas may not have applied yet.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+
+    private static final ThreadLocal<Boolean> PRIMARY_ONLY = new ThreadLocal<>();
+
+    private final HikariDataSource primary;
+    private final List<HikariDataSource> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+    }
+
+    /**
+     * Runs {@code work} with read-only connections taken from the primary. Only connections obtained
+     * inside {@code work} are affected; a transaction that already holds one keeps it.
+     */
+    public static <T> T onPrimary(Supplier<T> work) {
+        Boolean previous = PRIMARY_ONLY.get();
+        PRIMARY_ONLY.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                PRIMARY_ONLY.remove();
+            } else {
+                PRIMARY_ONLY.set(previous);
+            }
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    /**
+     * Passes the credentials to the pool that is picked. Hikari pools reject per-call credentials with
+     * {@link SQLFeatureNotSupportedException}; that is returned as is rather than treated as an
+     * unavailable replica.
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(target -> target.getConnection(username, password));
+    }
+
+    private Connection route(ConnectionSource source) throws SQLException {
+        if (PRIMARY_ONLY.get() != null || replicas.isEmpty()) {
+            return source.connect(primary);
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            HikariDataSource replica = replicas.get((start + i) % replicas.size());
+            try {
+                return source.connect(replica);
+            } catch (SQLFeatureNotSupportedException e) {
+                throw e;
+            } catch (SQLException e) {
+                log.warn("ReplicaRoutingDataSource.getConnection() - Replica pool {} unavailable: {}", replica.getPoolName(), e.getMessage());
+            }
+        }
+        log.warn("ReplicaRoutingDataSource.getConnection() - No replica available, reading from the primary");
+        return source.connect(primary);
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection connect(DataSource target) throws SQLException;
+    }
+
+    public HikariDataSource getPrimary() {
+        return primary;
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(HikariDataSource::close);
+        primary.close();
+    }
+}
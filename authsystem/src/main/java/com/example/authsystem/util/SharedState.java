@@ -0,0 +1,36 @@
+package com.example.authsystem.util;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * State shared by every node of a deployment, selected with {@code app.shared-state.store}: short-lived
+ * string values with a TTL and fire-and-forget broadcast channels. Callers keep their own near cache and
+ * use this as the second tier, so a hit on the local copy never pays a network round trip.
+ * <p>
+ * Messages are delivered to every subscribed node, including the publisher, at most once; a node that
+ * is down when a message is sent misses it, so anything driven by messages must also expire on its own.
+ */
+public interface SharedState {
+
+    String get(String key);
+
+    void set(String key, String value, Duration ttl);
+
+    void delete(String key);
+
+    /**
+     * Increments the counter at {@code key}, starting from 0 if absent, and lets it expire after {@code ttl}.
+     */
+    long increment(String key, Duration ttl);
+
+    /**
+     * Sets {@code key} only if {@code guardKey} still holds {@code expectedGuard} ({@code null} for absent),
+     * checked and written atomically. Returns whether the value was written.
+     */
+    boolean setIfGuardUnchanged(String key, String value, Duration ttl, String guardKey, String expectedGuard);
+
+    void publish(String channel, String message);
+
+    void subscribe(String channel, Consumer<String> listener);
+}
@@ -0,0 +1,41 @@
+-- Schema as previously created by spring.jpa.hibernate.ddl-auto=update. Existing databases are
+-- baselined at this version (spring.flyway.baseline-on-migrate) instead of running it.
+
+CREATE TABLE users (
+    id           BIGINT       NOT NULL AUTO_INCREMENT,
+    name         VARCHAR(255) NOT NULL,
+    email        VARCHAR(255) NOT NULL,
+    password     VARCHAR(255),
+    enabled      BIT          NOT NULL,
+    locked_until DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE verification_token (
+    id          BIGINT       NOT NULL AUTO_INCREMENT,
+    token       VARCHAR(255) NOT NULL,
+    user_id     BIGINT       NOT NULL,
+    expiry_date DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_verification_token_token UNIQUE (token),
+    CONSTRAINT uk_verification_token_user_id UNIQUE (user_id),
+    CONSTRAINT FK_USER_VERIFICATION_TOKEN FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE INDEX idx_verification_token_expiry_date ON verification_token (expiry_date);
+
+CREATE TABLE email_outbox (
+    id              BIGINT        NOT NULL AUTO_INCREMENT,
+    recipient       VARCHAR(255)  NOT NULL,
+    subject         VARCHAR(255)  NOT NULL,
+    body            VARCHAR(2000) NOT NULL,
+    status          VARCHAR(16)   NOT NULL,
+    attempts        INT           NOT NULL,
+    last_error      VARCHAR(500),
+    created_at      DATETIME(6)   NOT NULL,
+    next_attempt_at DATETIME(6)   NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_email_outbox_status_next_attempt ON email_outbox (status, next_attempt_at);
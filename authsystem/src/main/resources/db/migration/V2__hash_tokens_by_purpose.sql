@@ -0,0 +1,20 @@
+-- Link tokens get a purpose and are stored as the SHA-256 of the token (a fixed 32-byte key) instead of
+-- the token itself, and a user may hold one token per purpose instead of one in total. Existing tokens
+-- cannot be hashed in portable SQL, so links issued before this migration stop working; they were valid
+-- for 30 minutes at most, and a password reset request issues a new one.
+
+DROP TABLE verification_token;
+
+CREATE TABLE verification_token (
+    id          BIGINT      NOT NULL AUTO_INCREMENT,
+    token_hash  BINARY(32)  NOT NULL,
+    purpose     VARCHAR(32) NOT NULL,
+    user_id     BIGINT      NOT NULL,
+    expiry_date DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_verification_token_token_hash UNIQUE (token_hash),
+    CONSTRAINT FK_USER_VERIFICATION_TOKEN FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE INDEX idx_verification_token_user_purpose ON verification_token (user_id, purpose);
+CREATE INDEX idx_verification_token_expiry_date ON verification_token (expiry_date);
@@ -0,0 +1,7 @@
+-- Dispatchers on several nodes claim outbox rows before sending them: a claim stamps the row with the
+-- dispatcher's claim token and pushes next_attempt_at out by the lease, so other nodes skip it until it
+-- is sent, rescheduled, or the lease runs out because the claiming node died.
+
+ALTER TABLE email_outbox ADD COLUMN claim_token VARCHAR(36);
+
+CREATE INDEX idx_email_outbox_claim_token ON email_outbox (claim_token);
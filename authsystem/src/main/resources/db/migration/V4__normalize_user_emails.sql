@@ -0,0 +1,23 @@
+-- Emails are looked up in their normalized form: trimmed and lower-cased (EmailAddresses.normalize).
+-- Accounts created before normalization may be stored with other spellings; rewrite them in place.
+--
+-- Two accounts whose emails only differ in case or surrounding spaces cannot be merged automatically.
+-- If there are any, the INSERT below violates chk_email_case_collision and the migration stops before
+-- anything is changed. List them with
+--   SELECT LOWER(TRIM(email)), COUNT(*) FROM users GROUP BY LOWER(TRIM(email)) HAVING COUNT(*) > 1;
+-- resolve them by hand, then restart (on MySQL run `flyway repair` first).
+
+CREATE TABLE IF NOT EXISTS email_case_collision (
+    email    VARCHAR(255) NOT NULL,
+    accounts INT          NOT NULL,
+    CONSTRAINT chk_email_case_collision CHECK (accounts < 2)
+);
+
+INSERT INTO email_case_collision (email, accounts)
+SELECT LOWER(TRIM(email)), COUNT(*) FROM users GROUP BY LOWER(TRIM(email)) HAVING COUNT(*) > 1;
+
+DROP TABLE email_case_collision;
+
+-- With MySQL's case-insensitive collations, 'A' <> 'a' is false, so every row is visited; rows that are
+-- already normalized are matched but not written.
+UPDATE users SET email = LOWER(TRIM(email));
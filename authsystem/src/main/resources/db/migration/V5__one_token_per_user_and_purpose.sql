@@ -0,0 +1,10 @@
+-- A user holds at most one stored token per purpose: issuing a new link replaces the previous one in a
+-- single upsert on (user_id, purpose) instead of a delete followed by an insert. Older rows left behind
+-- by concurrent requests are dropped first, keeping the newest token of each user and purpose.
+
+DELETE FROM verification_token
+WHERE id NOT IN (SELECT id FROM (SELECT MAX(id) AS id FROM verification_token GROUP BY user_id, purpose) AS latest);
+
+ALTER TABLE verification_token ADD CONSTRAINT uk_verification_token_user_purpose UNIQUE (user_id, purpose);
+
+DROP INDEX idx_verification_token_user_purpose ON verification_token;
@@ -0,0 +1,58 @@
+package com.example.authsystem;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.FlywayException;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EmailMigrationTests {
+
+	@Test
+	void existingEmailsAreNormalized() {
+		DataSource dataSource = freshDatabase();
+		migrate(dataSource, "3");
+		JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+		insertUser(jdbc, " Jane.Doe@Example.COM ");
+		insertUser(jdbc, "john@example.com");
+
+		migrate(dataSource, "4");
+
+		assertThat(jdbc.queryForList("select email from users order by id", String.class))
+				.containsExactly("jane.doe@example.com", "john@example.com");
+	}
+
+	@Test
+	void emailsThatOnlyDifferInCaseStopTheMigrationUnchanged() {
+		DataSource dataSource = freshDatabase();
+		migrate(dataSource, "3");
+		JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+		insertUser(jdbc, "Twin@example.com");
+		insertUser(jdbc, "twin@example.com");
+
+		assertThatThrownBy(() -> migrate(dataSource, "4"))
+				.isInstanceOf(FlywayException.class)
+				.hasMessageContaining("chk_email_case_collision");
+		assertThat(jdbc.queryForList("select email from users order by id", String.class))
+				.containsExactly("Twin@example.com", "twin@example.com");
+	}
+
+	private static DataSource freshDatabase() {
+		return new DriverManagerDataSource("jdbc:h2:mem:migration-" + UUID.randomUUID()
+				+ ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+	}
+
+	private static void migrate(DataSource dataSource, String target) {
+		Flyway.configure().dataSource(dataSource).target(target).load().migrate();
+	}
+
+	private static void insertUser(JdbcTemplate jdbc, String email) {
+		jdbc.update("insert into users (name, email, enabled) values (?, ?, ?)", "Migrated", email, true);
+	}
+}
@@ -0,0 +1,106 @@
+package com.example.authsystem.config;
+
+import com.example.authsystem.model.User;
+import com.example.authsystem.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+		"app.mail.outbox.poll-interval-ms=3600000",
+		"app.security.admin-emails=metrics-admin@example.com",
+		"app.metrics.scrape.username=scraper",
+		"app.metrics.scrape.password=" + MetricsEndpointSecurityTests.SCRAPE_PASSWORD
+})
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class MetricsEndpointSecurityTests {
+
+	static final String SCRAPE_PASSWORD = "scrape-secret-0123456789";
+
+	private static final String PASSWORD = "Scrape-Passw0rd";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	@BeforeEach
+	void createAccounts() {
+		createAccount("metrics-admin@example.com");
+		createAccount("metrics-user@example.com");
+	}
+
+	@Test
+	void anonymousScrapeIsChallenged() throws Exception {
+		mockMvc.perform(get("/actuator/prometheus"))
+				.andExpect(status().isUnauthorized())
+				.andExpect(header().exists("WWW-Authenticate"));
+	}
+
+	/**
+	 * User accounts are never consulted, so a correct password gets the same 401 as a wrong one and the
+	 * endpoint tells nothing about account passwords.
+	 */
+	@Test
+	void userAccountsCannotScrape() throws Exception {
+		mockMvc.perform(get("/actuator/prometheus").with(httpBasic("metrics-admin@example.com", PASSWORD)))
+				.andExpect(status().isUnauthorized());
+		mockMvc.perform(get("/actuator/prometheus").with(httpBasic("metrics-user@example.com", PASSWORD)))
+				.andExpect(status().isUnauthorized());
+		mockMvc.perform(get("/actuator/prometheus").with(httpBasic("metrics-user@example.com", "wrong")))
+				.andExpect(status().isUnauthorized());
+	}
+
+	@Test
+	void wrongScrapePasswordIsRejected() throws Exception {
+		mockMvc.perform(get("/actuator/prometheus").with(httpBasic("scraper", "wrong")))
+				.andExpect(status().isUnauthorized());
+	}
+
+	@Test
+	void scrapeCredentialReturnsMetricsWithoutASession() throws Exception {
+		mockMvc.perform(get("/actuator/prometheus").with(httpBasic("scraper", SCRAPE_PASSWORD)))
+				.andExpect(status().isOk())
+				.andExpect(content().string(containsString("jvm_")))
+				.andExpect(content().string(containsString("auth_password_hash_queued")))
+				.andExpect(content().string(containsString("auth_password_hash_active")))
+				.andExpect(content().string(containsString("executor_active_threads")))
+				.andExpect(header().doesNotExist("Set-Cookie"));
+	}
+
+	@Test
+	void healthStaysPublic() throws Exception {
+		mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+	}
+
+	private void createAccount(String email) {
+		if (userRepository.findByEmail(email).isPresent()) {
+			return;
+		}
+		User user = new User();
+		user.setName("Metrics");
+		user.setEmail(email);
+		user.setPassword(passwordEncoder.encode(PASSWORD));
+		user.setEnabled(true);
+		userRepository.save(user);
+	}
+}
@@ -0,0 +1,36 @@
+package com.example.authsystem.config;
+
+import com.example.authsystem.model.User;
+import com.example.authsystem.model.VerificationToken;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NativeHintsTests {
+
+	private final RuntimeHints hints = new RuntimeHints();
+
+	NativeHintsTests() {
+		new NativeHints().registerHints(hints, getClass().getClassLoader());
+	}
+
+	@Test
+	void entitiesAreReflectivelyAccessible() throws NoSuchMethodException {
+		assertThat(RuntimeHintsPredicates.reflection().onType(User.class)
+				.withMemberCategories(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.DECLARED_FIELDS)).accepts(hints);
+		assertThat(RuntimeHintsPredicates.reflection().onMethod(User.class.getMethod("getLockedUntil"))).accepts(hints);
+		assertThat(RuntimeHintsPredicates.reflection().onMethod(VerificationToken.class.getMethod("setExpiryDate", LocalDateTime.class))).accepts(hints);
+	}
+
+	@Test
+	void packagePrivateFormObjectsAreRegisteredByName() {
+		assertThat(RuntimeHintsPredicates.reflection().onType(TypeReference.of("com.example.authsystem.controller.RegistrationRequest"))).accepts(hints);
+		assertThat(RuntimeHintsPredicates.reflection().onType(TypeReference.of("com.example.authsystem.service.UserDetailsCache$SharedSnapshot"))).accepts(hints);
+	}
+}
@@ -0,0 +1,100 @@
+package com.example.authsystem.controller;
+
+import com.example.authsystem.model.EmailOutboxMessage;
+import com.example.authsystem.repository.EmailOutboxRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.BodyInserters;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.csrf;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.springSecurity;
+
+@SpringBootTest(properties = {
+		"app.mail.outbox.poll-interval-ms=3600000",
+		"spring.datasource.url=jdbc:h2:mem:authsystem-reactive;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+		"spring.r2dbc.url=r2dbc:h2:mem:///authsystem-reactive?options=MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+		"app.metrics.scrape.password=reactive-scrape-secret"
+})
+@AutoConfigureObservability
+@ActiveProfiles({"test", "reactive"})
+class ReactiveAuthControllerTests {
+
+	@Autowired
+	private ApplicationContext context;
+
+	@Autowired
+	private EmailOutboxRepository outboxRepository;
+
+	@Test
+	void registerSetPasswordAndLogin() {
+		WebTestClient client = WebTestClient.bindToApplicationContext(context)
+				.apply(springSecurity())
+				.configureClient()
+				.build();
+
+		client.mutateWith(csrf()).post().uri("/register")
+				.body(BodyInserters.fromFormData("name", "Reactive User").with("email", "reactive@example.com"))
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody(String.class).value(body -> assertThat(body).contains("Registration successful"));
+
+		String link = outboxRepository.findAll().stream()
+				.map(EmailOutboxMessage::getBody)
+				.filter(body -> body.contains("/set-password?token="))
+				.findFirst()
+				.orElseThrow();
+		String token = link.substring(link.indexOf("token=") + "token=".length());
+
+		client.mutateWith(csrf()).post().uri("/set-password")
+				.body(BodyInserters.fromFormData("token", token).with("password", "s3cret-Passw0rd"))
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody(String.class).value(body -> assertThat(body).contains("Password set successfully"));
+
+		client.mutateWith(csrf()).post().uri("/set-password")
+				.body(BodyInserters.fromFormData("token", token).with("password", "another-Passw0rd"))
+				.exchange()
+				.expectBody(String.class).value(body -> assertThat(body).contains("Invalid or expired token"));
+
+		client.mutateWith(csrf()).post().uri("/login")
+				.body(BodyInserters.fromFormData("email", "reactive@example.com").with("password", "s3cret-Passw0rd"))
+				.exchange()
+				.expectStatus().is3xxRedirection()
+				.expectHeader().location("/dashboard");
+
+		client.mutateWith(csrf()).post().uri("/login")
+				.body(BodyInserters.fromFormData("email", "reactive@example.com").with("password", "wrong"))
+				.exchange()
+				.expectStatus().is3xxRedirection()
+				.expectHeader().location("/login?error");
+	}
+
+	@Test
+	void prometheusScrapeRequiresTheScrapeCredential() {
+		WebTestClient client = WebTestClient.bindToApplicationContext(context)
+				.apply(springSecurity())
+				.configureClient()
+				.build();
+
+		client.get().uri("/actuator/prometheus")
+				.exchange()
+				.expectStatus().isUnauthorized()
+				.expectHeader().exists("WWW-Authenticate");
+		client.get().uri("/actuator/prometheus")
+				.headers(headers -> headers.setBasicAuth("prometheus", "wrong"))
+				.exchange()
+				.expectStatus().isUnauthorized();
+		client.get().uri("/actuator/prometheus")
+				.headers(headers -> headers.setBasicAuth("prometheus", "reactive-scrape-secret"))
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody(String.class).value(body -> assertThat(body).contains("jvm_"));
+	}
+
+}
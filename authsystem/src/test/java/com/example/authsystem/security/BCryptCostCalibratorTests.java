@@ -0,0 +1,42 @@
+package com.example.authsystem.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BCryptCostCalibratorTests {
+
+	@Test
+	void staysWithinTheConfiguredBounds() {
+		assertThat(BCryptCostCalibrator.calibrate(Duration.ZERO)).isEqualTo(BCryptCostCalibrator.MIN_STRENGTH);
+		assertThat(BCryptCostCalibrator.calibrate(Duration.ofHours(1))).isEqualTo(BCryptCostCalibrator.MAX_STRENGTH);
+	}
+
+	@Test
+	void chosenCostHashesWithinTwiceTheTarget() {
+		Duration target = Duration.ofMillis(150);
+		int strength = BCryptCostCalibrator.calibrate(target);
+		assertThat(strength).isBetween(BCryptCostCalibrator.MIN_STRENGTH, BCryptCostCalibrator.MAX_STRENGTH);
+
+		BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+		encoder.encode("warmup");
+		long best = Long.MAX_VALUE;
+		for (int i = 0; i < 3; i++) {
+			long start = System.nanoTime();
+			encoder.encode("calibrated");
+			best = Math.min(best, System.nanoTime() - start);
+		}
+
+		// One more cost step would have doubled the time, so the calibrated cost lands in (target / 2, target],
+		// unless the minimum cost alone is already slower than the target. Allow 2x for noise on shared runners.
+		if (strength > BCryptCostCalibrator.MIN_STRENGTH) {
+			assertThat(Duration.ofNanos(best)).isLessThanOrEqualTo(target.multipliedBy(2));
+		}
+		if (strength < BCryptCostCalibrator.MAX_STRENGTH) {
+			assertThat(Duration.ofNanos(best * 2)).isGreaterThan(target.dividedBy(2));
+		}
+	}
+}
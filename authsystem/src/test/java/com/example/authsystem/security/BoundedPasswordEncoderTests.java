@@ -0,0 +1,102 @@
+package com.example.authsystem.security;
+
+import com.example.authsystem.config.SecurityConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedPasswordEncoderTests {
+
+	private BoundedPasswordEncoder encoder;
+
+	@AfterEach
+	void shutDownPool() {
+		if (encoder != null) {
+			encoder.close();
+		}
+	}
+
+	@Test
+	void bcryptRejectsPasswordsLongerThan72Bytes() {
+		encoder = configuredEncoder(4);
+		String seventyTwoBytes = "€".repeat(24);
+		String seventyFiveBytes = seventyTwoBytes + "€";
+
+		assertThat(encoder.matches(seventyTwoBytes, encoder.encode(seventyTwoBytes))).isTrue();
+		assertThatThrownBy(() -> encoder.encode(seventyFiveBytes))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("72 bytes");
+	}
+
+	@Test
+	void outdatedHashesAskForAnUpgrade() {
+		encoder = configuredEncoder(5);
+		String current = encoder.encode("Upgrade-passw0rd");
+
+		assertThat(current).startsWith("{bcrypt}");
+		assertThat(encoder.upgradeEncoding(current)).isFalse();
+		assertThat(encoder.upgradeEncoding("{bcrypt}" + new BCryptPasswordEncoder(4).encode("Upgrade-passw0rd"))).isTrue();
+		assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(5).encode("Upgrade-passw0rd"))).isTrue();
+		assertThat(encoder.upgradeEncoding("{pbkdf2}" + Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8().encode("Upgrade-passw0rd"))).isTrue();
+
+		String legacy = new BCryptPasswordEncoder(4).encode("Upgrade-passw0rd");
+		assertThat(encoder.matches("Upgrade-passw0rd", legacy)).isTrue();
+	}
+
+	@Test
+	void callsBeyondThePoolAndQueueAreRejectedAndCounted() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch started = new CountDownLatch(1);
+		encoder = new BoundedPasswordEncoder(new BlockingEncoder(started, release), 1, 1);
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		encoder.bindTo(registry);
+
+		CompletableFuture<String> running = encoder.encodeAsync("first");
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+		CompletableFuture<String> queued = encoder.encodeAsync("second");
+		assertThat(encoder.getQueueSize()).isEqualTo(1);
+
+		assertThatThrownBy(() -> encoder.encode("third")).isInstanceOf(HashingCapacityExceededException.class);
+		assertThat(encoder.matchesAsync("fourth", "encoded")).isCompletedExceptionally();
+		assertThat(registry.get("auth.password.hash.rejected").counter().count()).isEqualTo(2);
+
+		release.countDown();
+		assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("encoded:first");
+		assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("encoded:second");
+		assertThat(registry.get("auth.password.hash").tag("operation", "encode").timer().count()).isEqualTo(2);
+	}
+
+	private static BoundedPasswordEncoder configuredEncoder(int bcryptStrength) {
+		return new SecurityConfig().passwordEncoder("bcrypt", bcryptStrength, Duration.ZERO, 2, 4);
+	}
+
+	private record BlockingEncoder(CountDownLatch started, CountDownLatch release) implements PasswordEncoder {
+
+		@Override
+		public String encode(CharSequence rawPassword) {
+			started.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return "encoded:" + rawPassword;
+		}
+
+		@Override
+		public boolean matches(CharSequence rawPassword, String encodedPassword) {
+			return encode(rawPassword).equals(encodedPassword);
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package com.example.authsystem.security;
+
+import com.example.authsystem.util.EmailAddresses;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CredentialValidatorTests {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void emailsAreNormalizedAndCheckedAgainstSyntaxAndBlockedDomains() throws IOException {
+		ValidationProperties properties = new ValidationProperties();
+		properties.setBlockedDomains(Set.of("Mailinator.com"));
+		CredentialValidator validator = new CredentialValidator(properties, new DefaultResourceLoader());
+
+		String email = EmailAddresses.normalize("  Jane.Doe+news@Example.COM ");
+		assertThat(email).isEqualTo("jane.doe+news@example.com");
+		assertThat(validator.checkEmail(email)).isNull();
+
+		assertThat(validator.checkEmail("jane@mailinator.com")).isEqualTo(CredentialValidator.BLOCKED_DOMAIN);
+		assertThat(validator.checkEmail("jane@eu.mailinator.com")).isEqualTo(CredentialValidator.BLOCKED_DOMAIN);
+		assertThat(validator.checkEmail("jane@notmailinator.com")).isNull();
+
+		for (String invalid : List.of("", "jane", "@example.com", "jane@", "jane@example", "jane@@example.com",
+				"jane..doe@example.com", ".jane@example.com", "jane@-example.com", "jane@example.c0m", "ja ne@example.com")) {
+			assertThat(validator.checkEmail(invalid)).as(invalid).isEqualTo(CredentialValidator.INVALID_EMAIL);
+		}
+	}
+
+	@Test
+	void passwordsAreCheckedForLengthAndAgainstTheBreachedList() throws IOException {
+		Path breached = tempDir.resolve("breached.txt");
+		// "password1" as plain text, "letmein123" as the upper-case SHA-1 with a count.
+		Files.write(breached, List.of("password1", "E286977B13F1A89E20D0459207545D15FE1EBA08:12"));
+		ValidationProperties properties = new ValidationProperties();
+		properties.getPassword().setBreachedFile(breached.toUri().toString());
+		CredentialValidator validator = new CredentialValidator(properties, new DefaultResourceLoader());
+
+		assertThat(validator.checkPassword("correct horse battery")).isNull();
+		assertThat(validator.checkPassword("short")).startsWith("Password must be at least 8");
+		assertThat(validator.checkPassword("a".repeat(73))).isEqualTo(CredentialValidator.PASSWORD_TOO_LONG);
+		assertThat(validator.checkPassword("é".repeat(37))).isEqualTo(CredentialValidator.PASSWORD_TOO_LONG);
+		assertThat(validator.checkPassword("password1")).isEqualTo(CredentialValidator.PASSWORD_BREACHED);
+		assertThat(validator.checkPassword("letmein123")).isEqualTo(CredentialValidator.PASSWORD_BREACHED);
+	}
+
+	@Test
+	void sha1AndPlainTextEntriesMatchTheSamePassword() throws Exception {
+		String sha1 = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-1").digest("Tr0ub4dor&3".getBytes(StandardCharsets.UTF_8)));
+		Path plainText = tempDir.resolve("plain.txt");
+		Path hashed = tempDir.resolve("sha1.txt");
+		Files.write(plainText, List.of("Tr0ub4dor&3"));
+		Files.write(hashed, List.of(sha1));
+
+		for (Path file : List.of(plainText, hashed)) {
+			ValidationProperties properties = new ValidationProperties();
+			properties.getPassword().setBreachedFile(file.toUri().toString());
+			CredentialValidator validator = new CredentialValidator(properties, new DefaultResourceLoader());
+
+			assertThat(validator.checkPassword("Tr0ub4dor&3")).isEqualTo(CredentialValidator.PASSWORD_BREACHED);
+			assertThat(validator.checkPassword("Tr0ub4dor&4")).isNull();
+		}
+		ValidationProperties properties = new ValidationProperties();
+		properties.getPassword().setBreachedFile(hashed.toUri().toString());
+		// A hash line blocks the password it is the hash of, not the hex string itself.
+		assertThat(new CredentialValidator(properties, new DefaultResourceLoader()).checkPassword(sha1)).isNull();
+	}
+}
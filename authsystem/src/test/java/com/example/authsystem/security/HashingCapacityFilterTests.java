@@ -0,0 +1,57 @@
+package com.example.authsystem.security;
+
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HashingCapacityFilterTests {
+
+	private final HashingCapacityFilter filter = new HashingCapacityFilter();
+
+	@Test
+	void saturatedHashingPoolIsAnswered503WithRetryAfter() throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		filter.doFilter(login(), response, (request, res) -> {
+			throw new HashingCapacityExceededException("Password hashing capacity exceeded");
+		});
+
+		assertThat(response.getStatus()).isEqualTo(503);
+		assertThat(response.getHeader("Retry-After")).isEqualTo("1");
+		assertThat(response.getContentAsString()).contains("busy");
+	}
+
+	@Test
+	void capacityErrorsWrappedByTheDispatcherAreRecognised() throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		filter.doFilter(login(), response, (request, res) -> {
+			throw new ServletException("Request processing failed", new IllegalStateException(
+					new HashingCapacityExceededException("Password hashing capacity exceeded")));
+		});
+
+		assertThat(response.getStatus()).isEqualTo(503);
+	}
+
+	@Test
+	void otherFailuresAndCommittedResponsesPassThrough() {
+		assertThatThrownBy(() -> filter.doFilter(login(), new MockHttpServletResponse(), (request, res) -> {
+			throw new IllegalStateException("unrelated");
+		})).isInstanceOf(IllegalStateException.class).hasMessage("unrelated");
+
+		MockHttpServletResponse committed = new MockHttpServletResponse();
+		assertThatThrownBy(() -> filter.doFilter(login(), committed, (request, res) -> {
+			res.flushBuffer();
+			throw new HashingCapacityExceededException("too late");
+		})).isInstanceOf(HashingCapacityExceededException.class);
+		assertThat(committed.getStatus()).isEqualTo(200);
+	}
+
+	private static MockHttpServletRequest login() {
+		return new MockHttpServletRequest("POST", "/login");
+	}
+}
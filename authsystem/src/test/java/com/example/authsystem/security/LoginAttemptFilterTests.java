@@ -0,0 +1,85 @@
+package com.example.authsystem.security;
+
+import com.example.authsystem.model.User;
+import com.example.authsystem.repository.UserRepository;
+import com.example.authsystem.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+		"app.mail.outbox.poll-interval-ms=3600000",
+		"app.security.login-attempts.free-failures-per-email=2",
+		"app.security.login-attempts.base-lockout=PT1M",
+		"app.security.login-attempts.persist-lockouts=true",
+		"app.security.login-attempts.persist-min-lockout=PT1M"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class LoginAttemptFilterTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void lockedOutEmailIsRejectedBeforeAuthentication() throws Exception {
+		for (int i = 0; i < 3; i++) {
+			login("nobody@example.com", "guess-" + i).andExpect(redirectedUrl("/login?error"));
+		}
+
+		login("nobody@example.com", "guess-3")
+				.andExpect(status().isTooManyRequests())
+				.andExpect(header().exists("Retry-After"));
+		login("somebody.else@example.com", "guess").andExpect(redirectedUrl("/login?error"));
+	}
+
+	@Test
+	void longLockoutsArePersistedAndLockTheAccount() throws Exception {
+		User user = new User();
+		user.setName("Locked");
+		user.setEmail("locked@example.com");
+		user.setPassword(passwordEncoder.encode("Correct-passw0rd"));
+		user.setEnabled(true);
+		userRepository.save(user);
+
+		for (int i = 0; i < 3; i++) {
+			login("locked@example.com", "wrong-" + i).andExpect(redirectedUrl("/login?error"));
+		}
+
+		LocalDateTime lockedUntil = jdbcTemplate.queryForObject(
+				"select locked_until from users where email = 'locked@example.com'", LocalDateTime.class);
+		assertThat(lockedUntil).isAfter(LocalDateTime.now());
+		assertThat(userService.loadUserByUsername("locked@example.com").isAccountNonLocked()).isFalse();
+	}
+
+	private ResultActions login(String email, String password) throws Exception {
+		return mockMvc.perform(post("/login").servletPath("/login").with(csrf()).param("email", email).param("password", password));
+	}
+}
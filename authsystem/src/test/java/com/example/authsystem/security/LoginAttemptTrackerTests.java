@@ -0,0 +1,49 @@
+package com.example.authsystem.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoginAttemptTrackerTests {
+
+	private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+	private final LoginAttemptTracker tracker =
+			new LoginAttemptTracker(3, Duration.ofSeconds(1), Duration.ofSeconds(10), Duration.ofMinutes(1), 1000);
+
+	@Test
+	void lockoutDoublesWithEveryFailurePastTheFreeOnesUpToTheMaximum() {
+		long now = 0;
+		for (int i = 0; i < 3; i++) {
+			assertThat(tracker.recordFailure("user@example.com", now)).isZero();
+		}
+		assertThat(tracker.lockedFor("user@example.com", now)).isZero();
+
+		assertThat(tracker.recordFailure("user@example.com", now)).isEqualTo(SECOND);
+		assertThat(tracker.recordFailure("user@example.com", now)).isEqualTo(2 * SECOND);
+		assertThat(tracker.recordFailure("user@example.com", now)).isEqualTo(4 * SECOND);
+		assertThat(tracker.recordFailure("user@example.com", now)).isEqualTo(8 * SECOND);
+		assertThat(tracker.recordFailure("user@example.com", now)).isEqualTo(10 * SECOND);
+		assertThat(tracker.lockedFor("user@example.com", now + 3 * SECOND)).isEqualTo(7 * SECOND);
+		assertThat(tracker.lockedFor("user@example.com", now + 10 * SECOND)).isZero();
+		assertThat(tracker.lockedFor("other@example.com", now)).isZero();
+	}
+
+	@Test
+	void failuresDecayAndResetClearsThem() {
+		for (int i = 0; i < 3; i++) {
+			tracker.recordFailure("user@example.com", 0);
+		}
+		// Two decay intervals later only one failure is remembered.
+		long later = Duration.ofMinutes(2).toNanos();
+		assertThat(tracker.recordFailure("user@example.com", later)).isZero();
+		assertThat(tracker.recordFailure("user@example.com", later)).isZero();
+		assertThat(tracker.recordFailure("user@example.com", later)).isEqualTo(SECOND);
+
+		tracker.reset("user@example.com");
+		assertThat(tracker.lockedFor("user@example.com", later)).isZero();
+		assertThat(tracker.recordFailure("user@example.com", later)).isZero();
+	}
+}
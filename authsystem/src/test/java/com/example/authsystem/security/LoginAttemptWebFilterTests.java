@@ -0,0 +1,102 @@
+package com.example.authsystem.security;
+
+import com.example.authsystem.model.User;
+import com.example.authsystem.repository.UserRepository;
+import com.example.authsystem.service.ReactiveUserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.BodyInserters;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.csrf;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.springSecurity;
+
+@SpringBootTest(properties = {
+		"app.mail.outbox.poll-interval-ms=3600000",
+		"spring.datasource.url=jdbc:h2:mem:authsystem-reactive-lockout;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+		"spring.r2dbc.url=r2dbc:h2:mem:///authsystem-reactive-lockout?options=MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+		"app.security.login-attempts.free-failures-per-email=2",
+		"app.security.login-attempts.base-lockout=PT1M",
+		"app.security.login-attempts.persist-lockouts=true",
+		"app.security.login-attempts.persist-min-lockout=PT1M"
+})
+@ActiveProfiles({"test", "reactive"})
+class LoginAttemptWebFilterTests {
+
+	@Autowired
+	private ApplicationContext context;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private ReactiveUserService userService;
+
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private WebTestClient client;
+
+	@BeforeEach
+	void bindClient() {
+		client = WebTestClient.bindToApplicationContext(context)
+				.apply(springSecurity())
+				.configureClient()
+				.build();
+	}
+
+	@Test
+	void lockedOutEmailIsRejectedBeforeAuthentication() {
+		for (int i = 0; i < 3; i++) {
+			login("nobody@example.com", "guess-" + i)
+					.expectStatus().is3xxRedirection()
+					.expectHeader().location("/login?error");
+		}
+
+		login("nobody@example.com", "guess-3")
+				.expectStatus().isEqualTo(429)
+				.expectHeader().exists("Retry-After");
+		login("somebody.else@example.com", "guess")
+				.expectStatus().is3xxRedirection()
+				.expectHeader().location("/login?error");
+	}
+
+	@Test
+	void longLockoutsArePersistedAndLockTheAccount() {
+		User user = new User();
+		user.setName("Locked");
+		user.setEmail("locked@example.com");
+		user.setPassword(passwordEncoder.encode("Correct-passw0rd"));
+		user.setEnabled(true);
+		userRepository.save(user);
+
+		for (int i = 0; i < 3; i++) {
+			login("locked@example.com", "wrong-" + i)
+					.expectStatus().is3xxRedirection()
+					.expectHeader().location("/login?error");
+		}
+
+		LocalDateTime lockedUntil = jdbcTemplate.queryForObject(
+				"select locked_until from users where email = 'locked@example.com'", LocalDateTime.class);
+		assertThat(lockedUntil).isAfter(LocalDateTime.now());
+		assertThat(userService.findByUsername("locked@example.com").block().isAccountNonLocked()).isFalse();
+	}
+
+	private WebTestClient.ResponseSpec login(String email, String password) {
+		return client.mutateWith(csrf()).post().uri("/login")
+				.body(BodyInserters.fromFormData("email", email).with("password", password))
+				.exchange();
+	}
+}
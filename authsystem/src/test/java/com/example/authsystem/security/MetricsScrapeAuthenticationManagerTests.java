@@ -0,0 +1,33 @@
+package com.example.authsystem.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MetricsScrapeAuthenticationManagerTests {
+
+	@Test
+	void acceptsOnlyTheConfiguredCredential() {
+		MetricsScrapeAuthenticationManager manager = new MetricsScrapeAuthenticationManager("prometheus", "scrape-secret");
+
+		assertThat(manager.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("prometheus", "scrape-secret"))
+				.getAuthorities()).extracting("authority").containsExactly("ROLE_METRICS");
+		assertThatThrownBy(() -> manager.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("prometheus", "scrape")))
+				.isInstanceOf(BadCredentialsException.class);
+		assertThatThrownBy(() -> manager.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("admin", "scrape-secret")))
+				.isInstanceOf(BadCredentialsException.class);
+	}
+
+	@Test
+	void rejectsEveryScrapeWithoutAConfiguredPassword() {
+		MetricsScrapeAuthenticationManager manager = new MetricsScrapeAuthenticationManager("prometheus", "");
+
+		assertThatThrownBy(() -> manager.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("prometheus", "")))
+				.isInstanceOf(BadCredentialsException.class);
+		assertThatThrownBy(() -> manager.reactive().authenticate(UsernamePasswordAuthenticationToken.unauthenticated("prometheus", "")).block())
+				.isInstanceOf(BadCredentialsException.class);
+	}
+}
@@ -0,0 +1,84 @@
+package com.example.authsystem.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTests {
+
+	@Test
+	void answers429WithRetryAfterOnceTheIpBucketIsEmpty() throws Exception {
+		RateLimitFilter filter = new RateLimitFilter(properties(2, 100));
+
+		assertThat(perform(filter, "POST", "/register", "10.0.0.1", "a@example.com").getStatus()).isEqualTo(200);
+		assertThat(perform(filter, "POST", "/register", "10.0.0.1", "b@example.com").getStatus()).isEqualTo(200);
+		MockHttpServletResponse throttled = perform(filter, "POST", "/register", "10.0.0.1", "c@example.com");
+
+		assertThat(throttled.getStatus()).isEqualTo(429);
+		assertThat(Long.parseLong(throttled.getHeader("Retry-After"))).isBetween(1L, 31L);
+		assertThat(perform(filter, "POST", "/register", "10.0.0.2", "d@example.com").getStatus()).isEqualTo(200);
+	}
+
+	@Test
+	void emailBucketIsSharedAcrossIpsAndIgnoresCase() throws Exception {
+		RateLimitFilter filter = new RateLimitFilter(properties(100, 1));
+
+		assertThat(perform(filter, "POST", "/register", "10.0.0.1", "Victim@Example.com").getStatus()).isEqualTo(200);
+		assertThat(perform(filter, "POST", "/register", "10.0.0.2", " victim@example.com ").getStatus()).isEqualTo(429);
+	}
+
+	@Test
+	void otherPathsAndMethodsAreNotLimited() throws Exception {
+		RateLimitFilter filter = new RateLimitFilter(properties(1, 1));
+
+		for (int i = 0; i < 5; i++) {
+			assertThat(perform(filter, "GET", "/register", "10.0.0.1", null).getStatus()).isEqualTo(200);
+			assertThat(perform(filter, "POST", "/dashboard", "10.0.0.1", null).getStatus()).isEqualTo(200);
+		}
+	}
+
+	@Test
+	void disabledFilterPassesEverythingThrough() throws Exception {
+		RateLimitProperties properties = properties(1, 1);
+		properties.setEnabled(false);
+		RateLimitFilter filter = new RateLimitFilter(properties);
+
+		for (int i = 0; i < 5; i++) {
+			assertThat(perform(filter, "POST", "/register", "10.0.0.1", "a@example.com").getStatus()).isEqualTo(200);
+		}
+	}
+
+	private static MockHttpServletResponse perform(RateLimitFilter filter, String method, String path, String ip, String email)
+			throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+		request.setServletPath(path);
+		request.setRemoteAddr(ip);
+		if (email != null) {
+			request.setParameter("email", email);
+		}
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, new MockFilterChain());
+		return response;
+	}
+
+	private static RateLimitProperties properties(long perIpCapacity, long perEmailCapacity) {
+		RateLimitProperties.Limit perIp = new RateLimitProperties.Limit();
+		perIp.setCapacity(perIpCapacity);
+		perIp.setPeriod(Duration.ofMinutes(1));
+		RateLimitProperties.Limit perEmail = new RateLimitProperties.Limit();
+		perEmail.setCapacity(perEmailCapacity);
+		perEmail.setPeriod(Duration.ofMinutes(10));
+		RateLimitProperties.Rule rule = new RateLimitProperties.Rule();
+		rule.setPath("/register");
+		rule.setPerIp(perIp);
+		rule.setPerEmail(perEmail);
+		RateLimitProperties properties = new RateLimitProperties();
+		properties.getRules().put("register", rule);
+		return properties;
+	}
+}
@@ -0,0 +1,86 @@
+package com.example.authsystem.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SessionTokenServiceTests {
+
+	private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+	@Test
+	void accessTokenCarriesSubjectAndRolesUntilItExpires() {
+		String token = service(NOW).issueAccessToken("user@example.com", List.of("ROLE_USER", "ROLE_ADMIN"));
+
+		SessionTokenService.Claims claims = service(NOW.plus(Duration.ofMinutes(14))).parse(token, SessionTokenService.Type.ACCESS).orElseThrow();
+		assertThat(claims.subject()).isEqualTo("user@example.com");
+		assertThat(claims.roles()).containsExactly("ROLE_USER", "ROLE_ADMIN");
+		assertThat(claims.expiresAt()).isEqualTo(NOW.plus(Duration.ofMinutes(15)));
+		assertThat(service(NOW.plus(Duration.ofMinutes(15))).parse(token, SessionTokenService.Type.ACCESS)).isEmpty();
+	}
+
+	@Test
+	void rejectsTamperedAndWrongTypeTokens() {
+		SessionTokenService service = service(NOW);
+		String access = service.issueAccessToken("user@example.com", List.of("ROLE_USER"));
+		String refresh = service.issueRefreshToken("user@example.com", "hash");
+		String tampered = access.substring(0, access.length() - 2) + (access.endsWith("AA") ? "BB" : "AA");
+
+		assertThat(service.parse(refresh, SessionTokenService.Type.ACCESS)).isEmpty();
+		assertThat(service.parse(access, SessionTokenService.Type.REFRESH)).isEmpty();
+		assertThat(service.parse(tampered, SessionTokenService.Type.ACCESS)).isEmpty();
+		assertThat(service.parse("a.b.c", SessionTokenService.Type.ACCESS)).isEmpty();
+		assertThat(service.parse(null, SessionTokenService.Type.ACCESS)).isEmpty();
+	}
+
+	@Test
+	void refreshTokenIsBoundToThePasswordHash() {
+		SessionTokenService service = service(NOW);
+		SessionTokenService.Claims claims = service.parse(service.issueRefreshToken("user@example.com", "old-hash"),
+				SessionTokenService.Type.REFRESH).orElseThrow();
+
+		assertThat(service.matchesPassword(claims, "old-hash")).isTrue();
+		assertThat(service.matchesPassword(claims, "new-hash")).isFalse();
+	}
+
+	@Test
+	void revokedTokensStayOnTheDenylist() {
+		SessionTokenService service = service(NOW);
+		SessionTokenService.Claims claims = service.parse(service.issueAccessToken("user@example.com", List.of()),
+				SessionTokenService.Type.ACCESS).orElseThrow();
+		TokenDenylist denylist = new TokenDenylist(new SessionProperties());
+
+		denylist.revoke(new SessionTokenService.Claims(claims.keyId(), claims.id(), claims.type(), claims.subject(), claims.roles(),
+				Instant.now(), Instant.now().plus(Duration.ofMinutes(15)), null));
+
+		assertThat(denylist.isRevoked(claims.id())).isTrue();
+		assertThat(denylist.isRevoked("other")).isFalse();
+	}
+
+	@Test
+	void statelessModeRequiresASigningKey() {
+		SessionProperties properties = new SessionProperties();
+		properties.setMode(SessionProperties.Mode.STATELESS);
+
+		assertThatThrownBy(() -> new SessionTokenService(properties)).isInstanceOf(IllegalStateException.class);
+	}
+
+	private static SessionTokenService service(Instant now) {
+		SessionProperties properties = new SessionProperties();
+		properties.setMode(SessionProperties.Mode.STATELESS);
+		properties.getSigning().setActiveKeyId("s1");
+		byte[] secret = new byte[32];
+		Arrays.fill(secret, (byte) 7);
+		properties.getSigning().getKeys().put("s1", Base64.getEncoder().encodeToString(secret));
+		return new SessionTokenService(properties, Clock.fixed(now, ZoneOffset.UTC));
+	}
+}
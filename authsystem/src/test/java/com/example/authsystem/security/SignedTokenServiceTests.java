@@ -0,0 +1,63 @@
+package com.example.authsystem.security;
+
+import com.example.authsystem.model.TokenPurpose;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SignedTokenServiceTests {
+
+	private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+	@Test
+	void issuedTokenValidatesUntilPasswordChanges() {
+		SignedTokenService service = service("k1", "k1");
+		String token = service.issue(42L, TokenPurpose.PASSWORD_RESET, "old-hash", NOW.plus(Duration.ofMinutes(30)));
+
+		SignedTokenService.Claims claims = service.parse(token, TokenPurpose.PASSWORD_RESET).orElseThrow();
+		assertThat(claims.userId()).isEqualTo(42L);
+		assertThat(service.matchesPassword(token, claims, "old-hash")).isTrue();
+		assertThat(service.matchesPassword(token, claims, "new-hash")).isFalse();
+	}
+
+	@Test
+	void rejectsTamperedExpiredAndWrongPurposeTokens() {
+		SignedTokenService service = service("k1", "k1");
+		String token = service.issue(42L, TokenPurpose.PASSWORD_RESET, null, NOW.plus(Duration.ofMinutes(30)));
+		String expired = service.issue(42L, TokenPurpose.PASSWORD_RESET, null, NOW.minusSeconds(1));
+		String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+		assertThat(service.parse(token, TokenPurpose.EMAIL_VERIFICATION)).isEmpty();
+		assertThat(service.parse(expired, TokenPurpose.PASSWORD_RESET)).isEmpty();
+		assertThat(service.parse(tampered, TokenPurpose.PASSWORD_RESET)).isEmpty();
+		assertThat(service.parse("not-a-token", TokenPurpose.PASSWORD_RESET)).isEmpty();
+	}
+
+	@Test
+	void tokensSignedWithRetiredKeyStillValidate() {
+		String token = service("k1", "k1").issue(7L, TokenPurpose.EMAIL_VERIFICATION, null, NOW.plus(Duration.ofMinutes(5)));
+
+		assertThat(service("k2", "k1", "k2").parse(token, TokenPurpose.EMAIL_VERIFICATION)).isPresent();
+		assertThat(service("k2", "k2").parse(token, TokenPurpose.EMAIL_VERIFICATION)).isEmpty();
+	}
+
+	private static SignedTokenService service(String activeKeyId, String... keyIds) {
+		TokenProperties properties = new TokenProperties();
+		properties.setMode(TokenProperties.Mode.SIGNED);
+		properties.getSigning().setActiveKeyId(activeKeyId);
+		for (String keyId : keyIds) {
+			byte[] secret = new byte[32];
+			Arrays.fill(secret, (byte) keyId.hashCode());
+			properties.getSigning().getKeys().put(keyId, Base64.getEncoder().encodeToString(secret));
+		}
+		return new SignedTokenService(properties, Clock.fixed(NOW, ZoneOffset.UTC));
+	}
+
+}
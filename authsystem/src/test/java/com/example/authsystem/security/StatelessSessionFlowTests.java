@@ -0,0 +1,135 @@
+package com.example.authsystem.security;
+
+import com.example.authsystem.model.User;
+import com.example.authsystem.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrlPattern;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+		"app.mail.outbox.poll-interval-ms=3600000",
+		"app.session.mode=stateless",
+		"app.session.signing.active-key-id=s1",
+		"app.session.signing.keys.s1=c3RhdGVsZXNzLWZsb3ctdGVzdC1zaWduaW5nLWtleS0zMmI="
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StatelessSessionFlowTests {
+
+	private static final String PASSWORD = "Stateless-Passw0rd";
+	private static final JsonMapper JSON = new JsonMapper();
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	@Test
+	void browserLoginRefreshAndLogoutThroughCookies() throws Exception {
+		createUser("stateless-browser@example.com");
+
+		MvcResult login = mockMvc.perform(post("/login").servletPath("/login").with(csrf())
+						.param("email", "stateless-browser@example.com")
+						.param("password", PASSWORD))
+				.andExpect(redirectedUrl("/dashboard"))
+				.andReturn();
+		Cookie access = login.getResponse().getCookie("AUTH_TOKEN");
+		Cookie refresh = login.getResponse().getCookie("AUTH_REFRESH");
+		assertThat(access).isNotNull();
+		assertThat(refresh).isNotNull();
+
+		mockMvc.perform(get("/dashboard").cookie(access)).andExpect(status().isOk());
+
+		MvcResult refreshed = mockMvc.perform(get("/dashboard").cookie(refresh))
+				.andExpect(status().isOk())
+				.andReturn();
+		Cookie renewedAccess = refreshed.getResponse().getCookie("AUTH_TOKEN");
+		assertThat(renewedAccess).isNotNull();
+		assertThat(renewedAccess.getValue()).isNotEmpty();
+
+		mockMvc.perform(post("/logout").with(csrf()).cookie(renewedAccess, refresh))
+				.andExpect(redirectedUrl("/login?logout"));
+
+		mockMvc.perform(get("/dashboard").cookie(refresh)).andExpect(redirectedUrlPattern("**/login"));
+		mockMvc.perform(get("/dashboard").cookie(renewedAccess)).andExpect(redirectedUrlPattern("**/login"));
+		refreshAsBearerClient(refresh.getValue()).andExpect(status().isUnauthorized());
+	}
+
+	@Test
+	void logoutRevokesARefreshTokenSentInAJsonBody() throws Exception {
+		JsonNode tokens = jsonLogin("stateless-json@example.com");
+		String refreshToken = tokens.get("refresh_token").asText();
+
+		refreshAsBearerClient(refreshToken).andExpect(status().isOk());
+		mockMvc.perform(post("/logout")
+						.header(HttpHeaders.AUTHORIZATION, "Bearer " + tokens.get("access_token").asText())
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"refresh_token\":\"" + refreshToken + "\"}"))
+				.andExpect(redirectedUrl("/login?logout"));
+
+		refreshAsBearerClient(refreshToken).andExpect(status().isUnauthorized());
+	}
+
+	@Test
+	void logoutRevokesARefreshTokenSentInAHeader() throws Exception {
+		JsonNode tokens = jsonLogin("stateless-header@example.com");
+		String refreshToken = tokens.get("refresh_token").asText();
+
+		mockMvc.perform(post("/logout")
+						.header(HttpHeaders.AUTHORIZATION, "Bearer " + tokens.get("access_token").asText())
+						.header(StatelessSessionHandler.REFRESH_TOKEN_HEADER, refreshToken))
+				.andExpect(redirectedUrl("/login?logout"));
+
+		refreshAsBearerClient(refreshToken).andExpect(status().isUnauthorized());
+		mockMvc.perform(get("/dashboard").header(HttpHeaders.AUTHORIZATION, "Bearer " + tokens.get("access_token").asText()))
+				.andExpect(redirectedUrlPattern("**/login"));
+	}
+
+	private JsonNode jsonLogin(String email) throws Exception {
+		createUser(email);
+		MvcResult login = mockMvc.perform(post("/login").servletPath("/login").with(csrf())
+						.accept(MediaType.APPLICATION_JSON)
+						.param("email", email)
+						.param("password", PASSWORD))
+				.andExpect(status().isOk())
+				.andReturn();
+		return JSON.readTree(login.getResponse().getContentAsString());
+	}
+
+	private ResultActions refreshAsBearerClient(String refreshToken) throws Exception {
+		return mockMvc.perform(post(StatelessAuthenticationFilter.REFRESH_PATH).servletPath(StatelessAuthenticationFilter.REFRESH_PATH)
+				.header(HttpHeaders.AUTHORIZATION, "Bearer " + refreshToken));
+	}
+
+	private void createUser(String email) {
+		User user = new User();
+		user.setName("Stateless");
+		user.setEmail(email);
+		user.setPassword(passwordEncoder.encode(PASSWORD));
+		user.setEnabled(true);
+		userRepository.save(user);
+	}
+}
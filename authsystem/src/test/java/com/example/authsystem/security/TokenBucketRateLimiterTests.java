@@ -0,0 +1,74 @@
+package com.example.authsystem.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketRateLimiterTests {
+
+	private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	@Test
+	void allowsABurstOfCapacityThenOneRequestPerEmissionInterval() {
+		TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(3, Duration.ofSeconds(3), 100);
+		long now = 0;
+
+		for (int i = 0; i < 3; i++) {
+			assertThat(limiter.tryAcquire("client", now)).isZero();
+		}
+		assertThat(limiter.tryAcquire("client", now)).isEqualTo(SECOND);
+		assertThat(limiter.tryAcquire("client", now + SECOND / 2)).isEqualTo(SECOND / 2);
+
+		assertThat(limiter.tryAcquire("client", now + SECOND)).isZero();
+		assertThat(limiter.tryAcquire("client", now + SECOND)).isPositive();
+	}
+
+	@Test
+	void refillsCompletelyAfterOnePeriod() {
+		TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(2, Duration.ofSeconds(2), 100);
+		limiter.tryAcquire("client", 0);
+		limiter.tryAcquire("client", 0);
+		assertThat(limiter.tryAcquire("client", 0)).isPositive();
+
+		long later = 10 * SECOND;
+		assertThat(limiter.tryAcquire("client", later)).isZero();
+		assertThat(limiter.tryAcquire("client", later)).isZero();
+		assertThat(limiter.tryAcquire("client", later)).isPositive();
+	}
+
+	@Test
+	void keysHaveSeparateBuckets() {
+		TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, Duration.ofMinutes(1), 100);
+
+		assertThat(limiter.tryAcquire("a", 0)).isZero();
+		assertThat(limiter.tryAcquire("a", 0)).isPositive();
+		assertThat(limiter.tryAcquire("b", 0)).isZero();
+	}
+
+	@Test
+	void evictIdleDropsOnlyRefilledBuckets() {
+		TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(2, Duration.ofSeconds(2), 100);
+		limiter.tryAcquire("idle", 0);
+		limiter.tryAcquire("busy", 5 * SECOND);
+		limiter.tryAcquire("busy", 5 * SECOND);
+
+		assertThat(limiter.evictIdle(5 * SECOND)).isEqualTo(1);
+		assertThat(limiter.size()).isEqualTo(1);
+		assertThat(limiter.tryAcquire("busy", 5 * SECOND)).isPositive();
+	}
+
+	@Test
+	void fullLimiterEvictsBucketsInsteadOfSharingOne() {
+		TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, Duration.ofMinutes(1), 10);
+		for (int i = 0; i < 1000; i++) {
+			assertThat(limiter.tryAcquire("flood-" + i, 0)).isZero();
+		}
+
+		assertThat(limiter.size()).isLessThanOrEqualTo(10);
+		assertThat(limiter.tryAcquire("newcomer", 0)).isZero();
+		assertThat(limiter.tryAcquire("another-newcomer", 0)).isZero();
+	}
+}
@@ -0,0 +1,140 @@
+package com.example.authsystem.service;
+
+import com.example.authsystem.repository.EmailOutboxRepository;
+import com.example.authsystem.repository.UserRepository;
+import com.example.authsystem.repository.VerificationTokenRepository;
+import com.example.authsystem.security.CredentialValidator;
+import com.example.authsystem.security.SignedTokenService;
+import com.example.authsystem.security.TokenProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.spy;
+
+@SpringBootTest(properties = {
+		"app.mail.outbox.poll-interval-ms=3600000",
+		"app.import.batch-size=3"
+})
+@ActiveProfiles("test")
+class BulkUserImportServiceTests {
+
+	@Autowired
+	private BulkUserImportService importService;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private VerificationTokenRepository tokenRepository;
+
+	@Autowired
+	private EmailOutboxRepository outboxRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private SignedTokenService signedTokenService;
+
+	@Autowired
+	private TokenProperties tokenProperties;
+
+	@Autowired
+	private CredentialValidator credentialValidator;
+
+	@Test
+	void importsNewUsersAndSkipsExistingDuplicateAndInvalidRows() throws Exception {
+		userService.registerUser("Already There", "existing.import@example.com");
+		long users = userRepository.count();
+		long tokens = tokenRepository.count();
+		long outbox = outboxRepository.count();
+
+		String csv = """
+				name,email
+				"Doe, Jane",jane.import@example.com
+				John,john.import@example.com
+				Jane Again,JANE.import@example.com
+				Existing,existing.import@example.com
+				No Email,
+				""";
+		BulkUserImportService.ImportResult result = importService.importUsers(
+				new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), BulkUserImportService.Format.CSV);
+
+		assertThat(result.read()).isEqualTo(5);
+		assertThat(result.imported()).isEqualTo(2);
+		assertThat(result.existing()).isEqualTo(1);
+		assertThat(result.duplicates()).isEqualTo(1);
+		assertThat(result.invalid()).isEqualTo(1);
+		assertThat(userRepository.findByEmail("jane.import@example.com")).get()
+				.satisfies(user -> assertThat(user.getName()).isEqualTo("Doe, Jane"));
+		assertThat(userRepository.count()).isEqualTo(users + 2);
+		assertThat(tokenRepository.count()).isEqualTo(tokens + 2);
+		assertThat(outboxRepository.count()).isEqualTo(outbox + 2);
+
+		String json = """
+				[{"name": "Json User", "email": "json.import@example.com"},
+				 {"name": "John", "email": "john.import@example.com"}]
+				""";
+		result = importService.importUsers(
+				new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), BulkUserImportService.Format.JSON);
+
+		assertThat(result.imported()).isEqualTo(1);
+		assertThat(result.existing()).isEqualTo(1);
+		String link = outboxRepository.findAll().getLast().getBody();
+		assertThat(userService.isTokenValid(link.substring(link.indexOf("token=") + "token=".length()),
+				com.example.authsystem.model.TokenPurpose.EMAIL_VERIFICATION)).isTrue();
+	}
+
+	@Test
+	void chunkRetriedAfterDuplicateKeyCountsEachRowOnce() throws Exception {
+		userService.registerUser("Already There", "existing.retry@example.com");
+		JdbcTemplate racingJdbcTemplate = spy(jdbcTemplate);
+		doThrow(new DuplicateKeyException("concurrent registration")).doCallRealMethod()
+				.when(racingJdbcTemplate).batchUpdate(startsWith("insert into users"), anyList(), anyInt(), any());
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		BulkUserImportService racingImportService = new BulkUserImportService(racingJdbcTemplate, transactionManager,
+				objectMapper, signedTokenService, tokenProperties, credentialValidator, meterRegistry);
+		ReflectionTestUtils.setField(racingImportService, "batchSize", 10);
+		ReflectionTestUtils.setField(racingImportService, "progressInterval", 1000L);
+
+		String csv = """
+				Existing,existing.retry@example.com
+				New,new.retry@example.com
+				""";
+		BulkUserImportService.ImportResult result = racingImportService.importUsers(
+				new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), BulkUserImportService.Format.CSV);
+
+		assertThat(result.imported()).isEqualTo(1);
+		assertThat(result.existing()).isEqualTo(1);
+		assertThat(meterRegistry.get("auth.import.users").tag("result", "existing").counter().count()).isEqualTo(1);
+		assertThat(meterRegistry.get("auth.import.users").tag("result", "imported").counter().count()).isEqualTo(1);
+		assertThat(userRepository.findByEmail("new.retry@example.com")).isPresent();
+	}
+
+}
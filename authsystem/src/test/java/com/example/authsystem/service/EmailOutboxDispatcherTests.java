@@ -0,0 +1,82 @@
+package com.example.authsystem.service;
+
+import com.example.authsystem.model.EmailOutboxMessage;
+import com.example.authsystem.repository.EmailOutboxRepository;
+import com.example.authsystem.util.EmailUtil;
+import com.example.authsystem.util.RecordingMailSender;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "app.mail.outbox.poll-interval-ms=3600000")
+@ActiveProfiles("test")
+class EmailOutboxDispatcherTests {
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private EmailOutboxDispatcher dispatcher;
+
+	@Autowired
+	private EmailOutboxRepository outboxRepository;
+
+	@Autowired
+	private JavaMailSender mailSender;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Test
+	void registrationQueuesEmailAndDispatcherDeliversIt() {
+		RecordingMailSender sink = (RecordingMailSender) mailSender;
+		sink.clear();
+
+		userService.registerUser("Outbox User", "outbox@example.com");
+		assertThat(outboxRepository.count()).isEqualTo(1);
+		assertThat(sink.getSentMessages()).isEmpty();
+
+		dispatcher.dispatchPending();
+
+		assertThat(outboxRepository.count()).isZero();
+		assertThat(sink.getSentMessages()).singleElement()
+				.satisfies(mail -> assertThat(mail.getText()).contains("/set-password?token="));
+	}
+
+	@Test
+	void messageClaimedByAnotherNodeIsOnlySentOnceItsLeaseRunsOut() {
+		RecordingMailSender sink = (RecordingMailSender) mailSender;
+		sink.clear();
+		Long id = outboxRepository.save(EmailUtil.newOutboxMessage("claimed@example.com", "Subject", "Body")).getId();
+		LocalDateTime now = LocalDateTime.now();
+
+		assertThat(claim(id, "other-node", now)).isEqualTo(1);
+		assertThat(claim(id, "third-node", now)).isZero();
+		dispatcher.dispatchPending();
+
+		assertThat(sink.getSentMessages()).isEmpty();
+		assertThat(outboxRepository.findById(id)).hasValueSatisfying(row -> assertThat(row.getClaimToken()).isEqualTo("other-node"));
+
+		EmailOutboxMessage abandoned = outboxRepository.findById(id).orElseThrow();
+		abandoned.setNextAttemptAt(now.minusSeconds(1));
+		outboxRepository.save(abandoned);
+		dispatcher.dispatchPending();
+
+		assertThat(sink.getSentMessages()).singleElement().satisfies(mail -> assertThat(mail.getTo()).containsExactly("claimed@example.com"));
+		assertThat(outboxRepository.findById(id)).isEmpty();
+	}
+
+	private int claim(Long id, String claimToken, LocalDateTime now) {
+		return transactionTemplate.execute(status -> outboxRepository.claim(List.of(id), EmailOutboxMessage.Status.PENDING, now,
+				claimToken, now.plusMinutes(5)));
+	}
+
+}
@@ -0,0 +1,73 @@
+package com.example.authsystem.service;
+
+import com.example.authsystem.model.TokenPurpose;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Primary and replica are two separate in-memory H2 databases; the replica never receives the primary's
+ * writes, which is replication lag taken to the extreme.
+ */
+@SpringBootTest(properties = {
+		"app.mail.outbox.poll-interval-ms=3600000",
+		"spring.datasource.url=jdbc:h2:mem:authsystem-primary;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+		"app.datasource.replicas.enabled=true",
+		"app.datasource.replicas.urls[0]=" + ReadWriteRoutingTests.REPLICA_URL
+})
+@ActiveProfiles("test")
+class ReadWriteRoutingTests {
+
+	static final String REPLICA_URL = "jdbc:h2:mem:authsystem-replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private JdbcTemplate primary;
+
+	private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+	@BeforeEach
+	void copySchemaToReplica() {
+		if (replica.queryForObject("select count(*) from information_schema.tables where table_schema = 'public' and table_name = 'users'", Integer.class) == 0) {
+			primary.queryForList("script nodata", String.class).forEach(replica::execute);
+		}
+	}
+
+	@Test
+	void loginLookupsReadFromTheReplica() {
+		replica.update("insert into users (name, email, password, enabled) values ('Replica', 'replica.only@example.com', 'hash', true)");
+
+		UserDetails user = userService.loadUserByUsername("replica.only@example.com");
+
+		assertThat(user.getPassword()).isEqualTo("hash");
+		assertThat(primary.queryForObject("select count(*) from users where email = 'replica.only@example.com'", Integer.class)).isZero();
+	}
+
+	@Test
+	void writesGoToThePrimaryAndAreReadBackDespiteLag() {
+		userService.registerUser("Fresh", "fresh.routing@example.com");
+		assertThat(replica.queryForObject("select count(*) from users where email = 'fresh.routing@example.com'", Integer.class)).isZero();
+
+		String link = primary.queryForObject(
+				"select body from email_outbox where recipient = 'fresh.routing@example.com'", String.class);
+		String token = link.substring(link.indexOf("token=") + "token=".length());
+		assertThat(userService.isTokenValid(token, TokenPurpose.EMAIL_VERIFICATION)).isTrue();
+		assertThat(userService.savePassword(token, "Sup3r-secret!")).isEqualTo(UserService.PASSWORD_SET);
+
+		// The replica finally has the user, but still from before the password was set.
+		replica.update("insert into users (name, email, password, enabled) values ('Fresh', 'fresh.routing@example.com', null, false)");
+
+		UserDetails user = userService.loadUserByUsername("fresh.routing@example.com");
+		assertThat(user.isEnabled()).isTrue();
+		assertThat(user.getPassword()).isNotEmpty();
+	}
+}
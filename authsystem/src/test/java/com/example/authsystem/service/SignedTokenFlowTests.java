@@ -0,0 +1,102 @@
+package com.example.authsystem.service;
+
+import com.example.authsystem.model.TokenPurpose;
+import com.example.authsystem.model.User;
+import com.example.authsystem.repository.EmailOutboxRepository;
+import com.example.authsystem.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+		"app.mail.outbox.poll-interval-ms=3600000",
+		"app.tokens.mode=signed",
+		"app.tokens.signing.active-key-id=k1",
+		"app.tokens.signing.keys.k1=c2lnbmVkLXRva2VuLWZsb3ctdGVzdC1zaWduaW5nLWtleQ=="
+})
+@ActiveProfiles("test")
+class SignedTokenFlowTests {
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	@Autowired
+	private EmailOutboxRepository outboxRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@AfterEach
+	void discardQueuedMail() {
+		outboxRepository.deleteAll();
+	}
+
+	@Test
+	void usedLinkIsRejectedWhenSubmitted() {
+		userService.registerUser("Signed", "signed-used@example.com");
+		String verification = tokenFor("signed-used@example.com");
+		assertThat(userService.isTokenValid(verification, TokenPurpose.EMAIL_VERIFICATION)).isTrue();
+
+		assertThat(userService.savePassword(verification, "Signed-passw0rd")).isEqualTo(UserService.PASSWORD_SET);
+
+		assertThat(userService.savePassword(verification, "Another-passw0rd")).isEqualTo("Invalid or expired token");
+	}
+
+	@Test
+	void linkCheckDoesNotReadTheUser() {
+		userService.registerUser("Stateless", "signed-stateless@example.com");
+		String verification = tokenFor("signed-stateless@example.com");
+		jdbcTemplate.update("delete from users where email = 'signed-stateless@example.com'");
+
+		assertThat(userService.isTokenValid(verification, TokenPurpose.EMAIL_VERIFICATION)).isTrue();
+		assertThat(userService.isTokenValid(verification, TokenPurpose.PASSWORD_RESET)).isFalse();
+		assertThat(userService.savePassword(verification, "Signed-passw0rd")).isEqualTo("Invalid or expired token");
+	}
+
+	@Test
+	void rehashOnLoginInvalidatesOutstandingResetLinks() {
+		User user = new User();
+		user.setName("Rehash");
+		user.setEmail("signed-rehash@example.com");
+		user.setPassword(new BCryptPasswordEncoder(4).encode("Rehash-passw0rd"));
+		user.setEnabled(true);
+		userRepository.save(user);
+		userService.createPasswordResetTokenForUser("signed-rehash@example.com");
+		String issuedBeforeLogin = tokenFor("signed-rehash@example.com");
+		assertThat(userService.isTokenValid(issuedBeforeLogin, TokenPurpose.PASSWORD_RESET)).isTrue();
+
+		DaoAuthenticationProvider provider = new DaoAuthenticationProvider(passwordEncoder);
+		provider.setUserDetailsService(userService);
+		provider.setUserDetailsPasswordService(userService);
+		provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("signed-rehash@example.com", "Rehash-passw0rd"));
+
+		assertThat(userService.resetPassword(issuedBeforeLogin, "Changed-passw0rd", "Changed-passw0rd"))
+				.isEqualTo("Invalid or expired password reset token.");
+
+		userService.createPasswordResetTokenForUser("signed-rehash@example.com");
+		String issuedAfterLogin = tokenFor("signed-rehash@example.com");
+		assertThat(userService.resetPassword(issuedAfterLogin, "Changed-passw0rd", "Changed-passw0rd"))
+				.isEqualTo(UserService.PASSWORD_RESET);
+	}
+
+	private String tokenFor(String email) {
+		String body = jdbcTemplate.queryForObject(
+				"select body from email_outbox where recipient = ? order by id desc limit 1", String.class, email);
+		return body.substring(body.indexOf("token=") + "token=".length());
+	}
+}
@@ -0,0 +1,91 @@
+package com.example.authsystem.service;
+
+import com.example.authsystem.model.TokenPurpose;
+import com.example.authsystem.model.User;
+import com.example.authsystem.repository.UserRepository;
+import com.example.authsystem.security.StoredTokens;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+		"app.mail.outbox.poll-interval-ms=3600000",
+		"app.tokens.purge.cron=-",
+		"app.tokens.purge.batch-size=3",
+		"app.tokens.purge.max-batches-per-run=2"
+})
+@ActiveProfiles("test")
+class TokenPurgeJobTests {
+
+	@Autowired
+	private TokenPurgeJob purgeJob;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void deletesOnlyExpiredTokensInBoundedBatches() {
+		LocalDateTime now = LocalDateTime.now();
+		// A user holds one token per purpose, so every expired token belongs to its own user.
+		List<String> expired = new ArrayList<>();
+		for (int i = 0; i < 7; i++) {
+			expired.add(insertToken(saveUser("purge-" + i + "@example.com"), TokenPurpose.EMAIL_VERIFICATION, now.minusHours(i + 1)));
+		}
+		Long liveUserId = saveUser("purge-live@example.com");
+		List<String> live = List.of(
+				insertToken(liveUserId, TokenPurpose.EMAIL_VERIFICATION, now.plusDays(1)),
+				insertToken(liveUserId, TokenPurpose.PASSWORD_RESET, now.plusMinutes(30)));
+		double purgedBefore = meterRegistry.get("auth.tokens.purged").counter().count();
+
+		// Two batches of three per run: the seventh expired token waits for the next run.
+		assertThat(purgeJob.purgeExpiredTokens()).isEqualTo(6);
+		assertThat(remaining(expired)).isEqualTo(1);
+		assertThat(remaining(live)).isEqualTo(2);
+
+		assertThat(purgeJob.purgeExpiredTokens()).isEqualTo(1);
+		assertThat(remaining(expired)).isZero();
+		assertThat(remaining(live)).isEqualTo(2);
+
+		assertThat(purgeJob.purgeExpiredTokens()).isZero();
+		assertThat(meterRegistry.get("auth.tokens.purged").counter().count() - purgedBefore).isEqualTo(7);
+	}
+
+	private Long saveUser(String email) {
+		User user = new User();
+		user.setName("Purge");
+		user.setEmail(email);
+		user.setEnabled(false);
+		return userRepository.save(user).getId();
+	}
+
+	private String insertToken(Long userId, TokenPurpose purpose, LocalDateTime expiry) {
+		String token = StoredTokens.generate();
+		jdbcTemplate.update("insert into verification_token (token_hash, purpose, user_id, expiry_date) values (?, ?, ?, ?)",
+				StoredTokens.hash(token), purpose.name(), userId, expiry);
+		return token;
+	}
+
+	private int remaining(List<String> tokens) {
+		int count = 0;
+		for (String token : tokens) {
+			count += jdbcTemplate.queryForObject("select count(*) from verification_token where token_hash = ?", Integer.class,
+					(Object) StoredTokens.hash(token));
+		}
+		return count;
+	}
+}
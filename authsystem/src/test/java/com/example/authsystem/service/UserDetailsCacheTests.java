@@ -0,0 +1,141 @@
+package com.example.authsystem.service;
+
+import com.example.authsystem.security.SessionProperties;
+import com.example.authsystem.security.SessionTokenService;
+import com.example.authsystem.security.TokenDenylist;
+import com.example.authsystem.util.InMemorySharedState;
+import com.example.authsystem.util.SharedState;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two "nodes" sharing one {@link InMemorySharedState}, the stand-in for Redis.
+ */
+class UserDetailsCacheTests {
+
+	private final ObjectProvider<SharedState> sharedState =
+			new StaticListableBeanFactory(Map.of("sharedState", new InMemorySharedState(100))).getBeanProvider(SharedState.class);
+
+	@Test
+	void secondNodeIsServedFromTheSharedTierAndInvalidatedByTheFirst() {
+		UserDetailsCache nodeA = new UserDetailsCache(100, Duration.ofMinutes(5), Duration.ofSeconds(5), sharedState);
+		UserDetailsCache nodeB = new UserDetailsCache(100, Duration.ofMinutes(5), Duration.ofSeconds(5), sharedState);
+		AtomicInteger databaseLoads = new AtomicInteger();
+		Function<String, UserDetailsCache.Snapshot> loader = email -> {
+			databaseLoads.incrementAndGet();
+			return new UserDetailsCache.Snapshot(email, "hash-" + databaseLoads.get(), true, List.of(new SimpleGrantedAuthority("ROLE_USER")));
+		};
+
+		assertThat(nodeA.get("User@Example.com", loader).getPassword()).isEqualTo("hash-1");
+		assertThat(nodeB.get("user@example.com", loader).getPassword()).isEqualTo("hash-1");
+		assertThat(nodeB.get("user@example.com", loader).getAuthorities()).extracting("authority").containsExactly("ROLE_USER");
+		assertThat(databaseLoads).hasValue(1);
+
+		nodeA.invalidate("user@example.com");
+
+		assertThat(nodeB.size()).isZero();
+		assertThat(nodeB.get("user@example.com", loader).getPassword()).isEqualTo("hash-2");
+		assertThat(nodeA.get("user@example.com", loader).getPassword()).isEqualTo("hash-2");
+		assertThat(databaseLoads).hasValue(2);
+	}
+
+	/**
+	 * Node B loads the user, node A changes the password and invalidates, then B finishes its load. The
+	 * broadcast is held back as Redis pub/sub may deliver it late, so only the epoch guard can keep B's
+	 * stale row out of the shared tier.
+	 */
+	@Test
+	void loadRacingAnInvalidationOnAnotherNodeIsNotShared() {
+		List<Runnable> undelivered = new ArrayList<>();
+		InMemorySharedState store = new InMemorySharedState(100) {
+			@Override
+			public void publish(String channel, String message) {
+				undelivered.add(() -> super.publish(channel, message));
+			}
+		};
+		ObjectProvider<SharedState> slowBroadcasts =
+				new StaticListableBeanFactory(Map.of("sharedState", store)).getBeanProvider(SharedState.class);
+		UserDetailsCache nodeA = new UserDetailsCache(100, Duration.ofMinutes(5), Duration.ofSeconds(5), slowBroadcasts);
+		UserDetailsCache nodeB = new UserDetailsCache(100, Duration.ofMinutes(5), Duration.ofSeconds(5), slowBroadcasts);
+
+		String staleOnB = nodeB.get("user@example.com", email -> {
+			UserDetailsCache.Snapshot oldRow = snapshot(email, "old-hash");
+			nodeA.invalidate(email);
+			return oldRow;
+		}).getPassword();
+
+		assertThat(staleOnB).isEqualTo("old-hash");
+		assertThat(nodeA.get("user@example.com", email -> snapshot(email, "new-hash")).getPassword()).isEqualTo("new-hash");
+		undelivered.forEach(Runnable::run);
+		assertThat(nodeB.get("user@example.com", email -> snapshot(email, "new-hash")).getPassword()).isEqualTo("new-hash");
+	}
+
+	/**
+	 * Alice and Bob load on node A at the same time and Bob's password changes during his load. Only
+	 * Bob's stale load is dropped; Alice stays cached on A and on B, and only Bob is broadcast.
+	 */
+	@Test
+	void loadRacingAnInvalidationOfAnotherUserStaysCached() {
+		List<String> published = new ArrayList<>();
+		InMemorySharedState store = new InMemorySharedState(100) {
+			@Override
+			public void publish(String channel, String message) {
+				published.add(message);
+				super.publish(channel, message);
+			}
+		};
+		ObjectProvider<SharedState> recordingBroadcasts =
+				new StaticListableBeanFactory(Map.of("sharedState", store)).getBeanProvider(SharedState.class);
+		UserDetailsCache nodeA = new UserDetailsCache(100, Duration.ofMinutes(5), Duration.ofSeconds(5), recordingBroadcasts);
+		UserDetailsCache nodeB = new UserDetailsCache(100, Duration.ofMinutes(5), Duration.ofSeconds(5), recordingBroadcasts);
+		nodeB.get("alice@example.com", email -> snapshot(email, "alice-hash"));
+		store.delete("users:alice@example.com");
+		AtomicInteger aliceLoads = new AtomicInteger();
+
+		nodeA.get("alice@example.com", alice -> {
+			aliceLoads.incrementAndGet();
+			nodeA.get("bob@example.com", bob -> {
+				nodeA.invalidate(bob);
+				return snapshot(bob, "old-bob-hash");
+			});
+			return snapshot(alice, "alice-hash");
+		});
+
+		assertThat(published).containsExactly("bob@example.com");
+		assertThat(store.get("users-epoch:alice@example.com")).isNull();
+		assertThat(nodeA.get("alice@example.com", alice -> {
+			aliceLoads.incrementAndGet();
+			return snapshot(alice, "reloaded");
+		}).getPassword()).isEqualTo("alice-hash");
+		assertThat(aliceLoads).hasValue(1);
+		assertThat(nodeB.size()).isEqualTo(1);
+		assertThat(nodeA.get("bob@example.com", bob -> snapshot(bob, "new-bob-hash")).getPassword()).isEqualTo("new-bob-hash");
+	}
+
+	@Test
+	void revokedTokensAreBroadcastToEveryNode() {
+		TokenDenylist nodeA = new TokenDenylist(new SessionProperties(), sharedState);
+		TokenDenylist nodeB = new TokenDenylist(new SessionProperties(), sharedState);
+
+		nodeA.revoke(new SessionTokenService.Claims("s1", "token-1", SessionTokenService.Type.ACCESS, "user@example.com", List.of(),
+				Instant.now(), Instant.now().plus(Duration.ofMinutes(5)), null));
+
+		assertThat(nodeB.isRevoked("token-1")).isTrue();
+	}
+
+	private static UserDetailsCache.Snapshot snapshot(String email, String password) {
+		return new UserDetailsCache.Snapshot(email, password, true, List.of(new SimpleGrantedAuthority("ROLE_USER")));
+	}
+}
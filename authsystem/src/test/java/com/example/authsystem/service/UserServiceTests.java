@@ -0,0 +1,176 @@
+package com.example.authsystem.service;
+
+import com.example.authsystem.model.TokenPurpose;
+import com.example.authsystem.model.User;
+import com.example.authsystem.repository.EmailOutboxRepository;
+import com.example.authsystem.repository.UserRepository;
+import com.example.authsystem.repository.VerificationTokenRepository;
+import com.example.authsystem.security.StoredTokens;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "app.mail.outbox.poll-interval-ms=3600000")
+@ActiveProfiles("test")
+class UserServiceTests {
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private VerificationTokenRepository tokenRepository;
+
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	@Autowired
+	private EmailOutboxRepository outboxRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@AfterEach
+	void discardQueuedMail() {
+		outboxRepository.deleteAll();
+	}
+
+	@Test
+	void concurrentSubmissionsOfOneTokenSetThePasswordOnce() throws Exception {
+		userService.registerUser("Racer", "racer@example.com");
+		String token = tokenFor("racer@example.com");
+		assertThat(userService.isTokenValid(token, TokenPurpose.EMAIL_VERIFICATION)).isTrue();
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Callable<String>> submissions = IntStream.range(0, 4)
+					.<Callable<String>>mapToObj(i -> () -> userService.savePassword(token, "Passw0rd-" + i))
+					.toList();
+			List<String> results = executor.invokeAll(submissions).stream().map(UserServiceTests::result).toList();
+
+			assertThat(results).containsOnlyOnce(UserService.PASSWORD_SET);
+			assertThat(results).filteredOn("Invalid or expired token"::equals).hasSize(3);
+		} finally {
+			executor.shutdown();
+		}
+		assertThat(tokenRepository.existsByTokenHashAndPurposeAndExpiryDateAfter(StoredTokens.hash(token),
+				TokenPurpose.EMAIL_VERIFICATION, LocalDateTime.MIN)).isFalse();
+		assertThat(userService.isTokenValid(token, TokenPurpose.EMAIL_VERIFICATION)).isFalse();
+		assertThat(userRepository.findByEmail("racer@example.com")).hasValueSatisfying(user -> assertThat(user.isEnabled()).isTrue());
+	}
+
+	@Test
+	void resetTokenIsSingleUseAndReplacesTheCachedPassword() {
+		userService.registerUser("Resetter", "resetter@example.com");
+		assertThat(userService.savePassword(tokenFor("resetter@example.com"), "First-passw0rd")).isEqualTo(UserService.PASSWORD_SET);
+		assertThat(passwordEncoder.matches("First-passw0rd", userService.loadUserByUsername("resetter@example.com").getPassword())).isTrue();
+
+		userService.createPasswordResetTokenForUser("resetter@example.com");
+		String token = tokenFor("resetter@example.com");
+
+		assertThat(userService.resetPassword(token, "Second-passw0rd", "Other")).isEqualTo("Passwords do not match.");
+		assertThat(userService.resetPassword(token, "Second-passw0rd", "Second-passw0rd")).isEqualTo(UserService.PASSWORD_RESET);
+		assertThat(userService.resetPassword(token, "Third-passw0rd", "Third-passw0rd")).isEqualTo("Invalid or expired password reset token.");
+		assertThat(passwordEncoder.matches("Second-passw0rd", userService.loadUserByUsername("resetter@example.com").getPassword())).isTrue();
+	}
+
+	@Test
+	void concurrentResetRequestsLeaveOneLiveTokenPerPurpose() throws Exception {
+		userService.registerUser("Resend", "resend@example.com");
+		Long userId = userRepository.findByEmail("resend@example.com").orElseThrow().getId();
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Callable<String>> requests = IntStream.range(0, 4)
+					.<Callable<String>>mapToObj(i -> () -> userService.createPasswordResetTokenForUser("resend@example.com"))
+					.toList();
+			List<String> results = executor.invokeAll(requests).stream().map(UserServiceTests::result).toList();
+
+			assertThat(results).containsOnly("If an account with that email exists, a password reset link has been sent.");
+		} finally {
+			executor.shutdown();
+		}
+		assertThat(jdbcTemplate.queryForObject("select count(*) from verification_token where user_id = ? and purpose = ?",
+				Integer.class, userId, TokenPurpose.PASSWORD_RESET.name())).isEqualTo(1);
+		List<String> links = jdbcTemplate.queryForList(
+				"select body from email_outbox where recipient = ? and body like '%reset-password%'", String.class, "resend@example.com");
+		assertThat(links).hasSize(4);
+		assertThat(links).map(link -> link.substring(link.indexOf("token=") + "token=".length()))
+				.filteredOn(token -> userService.isTokenValid(token, TokenPurpose.PASSWORD_RESET)).hasSize(1);
+	}
+
+	@Test
+	void tokensAreStoredHashedAndOnlyValidForTheirPurpose() {
+		userService.registerUser("Purpose", "purpose@example.com");
+		String verification = tokenFor("purpose@example.com");
+		userService.createPasswordResetTokenForUser("purpose@example.com");
+		String reset = tokenFor("purpose@example.com");
+
+		assertThat(jdbcTemplate.queryForObject("select count(*) from verification_token where token_hash = ?", Integer.class,
+				(Object) StoredTokens.hash(verification))).isEqualTo(1);
+		assertThat(userService.isTokenValid(verification, TokenPurpose.PASSWORD_RESET)).isFalse();
+		assertThat(userService.resetPassword(verification, "Purpose-passw0rd", "Purpose-passw0rd"))
+				.isEqualTo("Invalid or expired password reset token.");
+		assertThat(userService.isTokenValid(verification, TokenPurpose.EMAIL_VERIFICATION)).isTrue();
+
+		assertThat(userService.resetPassword(reset, "Purpose-passw0rd", "Purpose-passw0rd")).isEqualTo(UserService.PASSWORD_RESET);
+		assertThat(userService.isTokenValid(verification, TokenPurpose.EMAIL_VERIFICATION)).isFalse();
+	}
+
+	@Test
+	void legacyHashIsUpgradedOnTheNextSuccessfulLogin() {
+		User user = new User();
+		user.setName("Legacy");
+		user.setEmail("legacy-hash@example.com");
+		user.setPassword(new BCryptPasswordEncoder(4).encode("Legacy-passw0rd"));
+		user.setEnabled(true);
+		userRepository.save(user);
+		DaoAuthenticationProvider provider = new DaoAuthenticationProvider(passwordEncoder);
+		provider.setUserDetailsService(userService);
+		provider.setUserDetailsPasswordService(userService);
+
+		provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("legacy-hash@example.com", "Legacy-passw0rd"));
+
+		String upgraded = userRepository.findByEmail("legacy-hash@example.com").orElseThrow().getPassword();
+		assertThat(upgraded).startsWith("{bcrypt}");
+		assertThat(passwordEncoder.upgradeEncoding(upgraded)).isFalse();
+		assertThat(passwordEncoder.matches("Legacy-passw0rd", upgraded)).isTrue();
+		assertThat(userService.loadUserByUsername("legacy-hash@example.com").getPassword()).isEqualTo(upgraded);
+	}
+
+	/**
+	 * Only the hash of a token is stored, so tests take it from the queued email, like a user would.
+	 */
+	private String tokenFor(String email) {
+		String body = jdbcTemplate.queryForObject(
+				"select body from email_outbox where recipient = ? order by id desc limit 1", String.class, email);
+		return body.substring(body.indexOf("token=") + "token=".length());
+	}
+
+	private static String result(Future<String> future) {
+		try {
+			return future.get();
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,189 @@
+package com.example.authsystem.util;
+
+import com.example.authsystem.model.TokenPurpose;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.AbstractReactiveTransactionManager;
+import org.springframework.transaction.reactive.GenericReactiveTransaction;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditLogTests {
+
+	private final List<String> lines = new ArrayList<>();
+
+	@Test
+	void writesOneJsonLinePerEventWithTheEmailMasked() {
+		AuditLog auditLog = new AuditLog(new AuditProperties(), lines::add);
+
+		auditLog.record(AuditLog.Type.PASSWORD_SET, 42L, "jane.doe@example.com", TokenPurpose.EMAIL_VERIFICATION, null);
+		auditLog.record(AuditLog.Type.LOGIN_FAILED, null, "\"evil\"\n@example.com", null, "BadCredentialsException");
+		auditLog.flush();
+
+		assertThat(lines).hasSize(2);
+		assertThat(lines.get(0))
+				.startsWith("{\"ts\":\"")
+				.endsWith("\"event\":\"PASSWORD_SET\",\"userId\":42,\"email\":\"j***@example.com\",\"purpose\":\"EMAIL_VERIFICATION\"}");
+		assertThat(lines.get(1))
+				.endsWith("\"event\":\"LOGIN_FAILED\",\"email\":\"\\\"***@example.com\",\"detail\":\"BadCredentialsException\"}");
+	}
+
+	@Test
+	void sampledOutTypesAreNotWritten() {
+		AuditProperties properties = new Binder(new MapConfigurationPropertySource(Map.of("app.audit.sample-rates.login-succeeded", "0")))
+				.bindOrCreate("app.audit", AuditProperties.class);
+		AuditLog auditLog = new AuditLog(properties, lines::add);
+
+		auditLog.record(AuditLog.Type.LOGIN_SUCCEEDED, null, "user@example.com");
+		auditLog.record(AuditLog.Type.LOGIN_FAILED, null, "user@example.com");
+		auditLog.flush();
+
+		assertThat(lines).singleElement().asString().contains("LOGIN_FAILED");
+	}
+
+	@Test
+	void eventsBeyondTheBufferAreDroppedAndCounted() {
+		AuditProperties properties = new AuditProperties();
+		properties.setBufferSize(4);
+		AuditLog auditLog = new AuditLog(properties, lines::add);
+
+		for (int i = 0; i < 6; i++) {
+			auditLog.record(AuditLog.Type.USER_REGISTERED, (long) i, null);
+		}
+		auditLog.flush();
+
+		assertThat(lines).hasSize(4).allMatch(line -> line.contains("USER_REGISTERED"));
+		assertThat(auditLog.droppedCount()).isEqualTo(2);
+	}
+
+	@Test
+	void concurrentProducersLoseNothingWhileTheWriterKeepsUp() throws Exception {
+		List<String> written = new ArrayList<>();
+		AuditLog auditLog = new AuditLog(new AuditProperties(), written::add);
+		auditLog.start();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			for (int t = 0; t < 4; t++) {
+				executor.execute(() -> {
+					for (int i = 0; i < 1000; i++) {
+						auditLog.record(AuditLog.Type.TOKEN_ISSUED, (long) i, null);
+					}
+				});
+			}
+			executor.shutdown();
+			assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+		} finally {
+			auditLog.stop();
+		}
+
+		assertThat(written).hasSize(4000);
+		assertThat(auditLog.droppedCount()).isZero();
+	}
+
+	@Test
+	void eventsOfATransactionAreOnlyWrittenOnceItCommits() {
+		AuditLog auditLog = new AuditLog(new AuditProperties(), lines::add);
+		TransactionTemplate transactions = new TransactionTemplate(new NoOpTransactionManager());
+
+		transactions.executeWithoutResult(status -> {
+			auditLog.recordAfterCommit(AuditLog.Type.USER_REGISTERED, 1L, "committed@example.com");
+			auditLog.flush();
+			assertThat(lines).isEmpty();
+		});
+		transactions.executeWithoutResult(status -> {
+			auditLog.recordAfterCommit(AuditLog.Type.USER_REGISTERED, 2L, "rolled-back@example.com");
+			status.setRollbackOnly();
+		});
+		auditLog.flush();
+
+		assertThat(lines).singleElement().asString().contains("\"userId\":1,");
+	}
+
+	@Test
+	void reactiveEventsOfATransactionAreOnlyWrittenOnceItCommits() {
+		AuditLog auditLog = new AuditLog(new AuditProperties(), lines::add);
+		TransactionalOperator transactions = TransactionalOperator.create(new NoOpReactiveTransactionManager());
+
+		auditLog.deferUntilCommit(AuditLog.Type.PASSWORD_SET, 1L, null, null, null)
+				.then(Mono.fromRunnable(auditLog::flush))
+				.as(transactions::transactional)
+				.block();
+		assertThat(lines).isEmpty();
+		auditLog.deferUntilCommit(AuditLog.Type.PASSWORD_SET, 2L, null, null, null)
+				.then(Mono.error(new IllegalStateException("rolled back")))
+				.as(transactions::transactional)
+				.onErrorResume(IllegalStateException.class, e -> Mono.empty())
+				.block();
+		auditLog.deferUntilCommit(AuditLog.Type.PASSWORD_SET, 3L, null, null, null).block();
+		auditLog.flush();
+
+		assertThat(lines).hasSize(2);
+		assertThat(lines.get(0)).contains("\"userId\":1}");
+		assertThat(lines.get(1)).contains("\"userId\":3}");
+	}
+
+	@Test
+	void stopsAfterTheWebServer() {
+		assertThat(AuditLog.PHASE).isLessThan(WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 1024);
+	}
+
+	private static final class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+
+		@Override
+		protected Object doGetTransaction() {
+			return new Object();
+		}
+
+		@Override
+		protected void doBegin(Object transaction, TransactionDefinition definition) {
+		}
+
+		@Override
+		protected void doCommit(DefaultTransactionStatus status) {
+		}
+
+		@Override
+		protected void doRollback(DefaultTransactionStatus status) {
+		}
+	}
+
+	private static final class NoOpReactiveTransactionManager extends AbstractReactiveTransactionManager {
+
+		@Override
+		protected Object doGetTransaction(TransactionSynchronizationManager synchronizationManager) {
+			return new Object();
+		}
+
+		@Override
+		protected Mono<Void> doBegin(TransactionSynchronizationManager synchronizationManager, Object transaction,
+				TransactionDefinition definition) {
+			return Mono.empty();
+		}
+
+		@Override
+		protected Mono<Void> doCommit(TransactionSynchronizationManager synchronizationManager, GenericReactiveTransaction status) {
+			return Mono.empty();
+		}
+
+		@Override
+		protected Mono<Void> doRollback(TransactionSynchronizationManager synchronizationManager, GenericReactiveTransaction status) {
+			return Mono.empty();
+		}
+	}
+}
@@ -0,0 +1,50 @@
+package com.example.authsystem.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTests {
+
+	@Test
+	void hasNoFalseNegativesAndAboutTheTargetFalsePositiveRate() throws NoSuchAlgorithmException {
+		int entries = 100_000;
+		BloomFilter filter = new BloomFilter(entries, 0.01);
+		MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+		for (int i = 0; i < entries; i++) {
+			ByteBuffer key = key(sha1, "breached-" + i);
+			filter.put(key.getLong(0), key.getLong(8));
+		}
+
+		for (int i = 0; i < entries; i++) {
+			ByteBuffer key = key(sha1, "breached-" + i);
+			assertThat(filter.mightContain(key.getLong(0), key.getLong(8))).isTrue();
+		}
+		int falsePositives = 0;
+		for (int i = 0; i < entries; i++) {
+			ByteBuffer key = key(sha1, "absent-" + i);
+			if (filter.mightContain(key.getLong(0), key.getLong(8))) {
+				falsePositives++;
+			}
+		}
+		assertThat(falsePositives / (double) entries).isBetween(0.005, 0.015);
+		assertThat(filter.size()).isEqualTo(entries);
+	}
+
+	@Test
+	void oneInAThousandNeedsAbout1Point8MegabytesPerMillionEntries() {
+		BloomFilter filter = new BloomFilter(1_000_000, 0.001);
+
+		// -ln(0.001) / ln(2)^2 = 14.38 bits per entry
+		assertThat(filter.bitCount() / 8).isBetween(1_790_000L, 1_800_000L);
+	}
+
+	private static ByteBuffer key(MessageDigest sha1, String value) {
+		return ByteBuffer.wrap(sha1.digest(value.getBytes(StandardCharsets.UTF_8)));
+	}
+}
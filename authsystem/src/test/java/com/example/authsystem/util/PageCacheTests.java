@@ -0,0 +1,97 @@
+package com.example.authsystem.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.web.csrf.CsrfToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "app.mail.outbox.poll-interval-ms=3600000")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PageCacheTests {
+
+	private static final Pattern VERSIONED_STYLESHEET = Pattern.compile("href=\"(/css/styles-[0-9a-f]{32}\\.css)\"");
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private PageCache pageCache;
+
+	@Test
+	void cachedLoginPageCarriesEachRequestsCsrfToken() throws Exception {
+		MvcResult first = mockMvc.perform(get("/login")).andExpect(status().isOk()).andReturn();
+		MvcResult second = mockMvc.perform(get("/login")).andExpect(status().isOk()).andReturn();
+
+		String firstToken = csrfToken(first);
+		String secondToken = csrfToken(second);
+		String firstPage = first.getResponse().getContentAsString();
+		String secondPage = second.getResponse().getContentAsString();
+		assertThat(firstToken).isNotEqualTo(secondToken);
+		assertThat(firstPage).contains("value=\"" + firstToken + "\"");
+		assertThat(secondPage).contains("value=\"" + secondToken + "\"");
+		assertThat(firstPage.replace(firstToken, "")).isEqualTo(secondPage.replace(secondToken, ""));
+		assertThat(pageCache.size()).isPositive();
+
+		mockMvc.perform(post("/login").servletPath("/login")
+						.session((MockHttpSession) second.getRequest().getSession())
+						.param("email", "page-cache@example.com")
+						.param("password", "wrong-password")
+						.param("_csrf", secondToken))
+				.andExpect(redirectedUrl("/login?error"));
+	}
+
+	@Test
+	void queryParametersSelectTheirOwnVariant() throws Exception {
+		String plain = mockMvc.perform(get("/login")).andReturn().getResponse().getContentAsString();
+		String error = mockMvc.perform(get("/login").param("error", "")).andReturn().getResponse().getContentAsString();
+
+		assertThat(plain).doesNotContain("Invalid username or password.");
+		assertThat(error).contains("Invalid username or password.");
+	}
+
+	@Test
+	void stylesheetIsServedUnderContentHashWithImmutableCachingAndGzip() throws Exception {
+		String page = mockMvc.perform(get("/login")).andReturn().getResponse().getContentAsString();
+		Matcher stylesheet = VERSIONED_STYLESHEET.matcher(page);
+		assertThat(stylesheet.find()).isTrue();
+
+		MvcResult result = mockMvc.perform(get(stylesheet.group(1)).header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"))
+				.andReturn();
+		byte[] css;
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+			css = in.readAllBytes();
+		}
+		assertThat(css).isEqualTo(new ClassPathResource("static/css/styles.css").getContentAsByteArray());
+
+		mockMvc.perform(get(stylesheet.group(1)))
+				.andExpect(status().isOk())
+				.andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+	}
+
+	private static String csrfToken(MvcResult result) {
+		return ((CsrfToken) result.getRequest().getAttribute(CsrfToken.class.getName())).getToken();
+	}
+}
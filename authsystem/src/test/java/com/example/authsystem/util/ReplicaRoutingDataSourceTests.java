@@ -0,0 +1,64 @@
+package com.example.authsystem.util;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReplicaRoutingDataSourceTests {
+
+	@Test
+	void credentialsArePassedToTheReplicaThatIsPicked() throws SQLException {
+		HikariDataSource primary = mock(HikariDataSource.class);
+		HikariDataSource replica = mock(HikariDataSource.class);
+		Connection connection = mock(Connection.class);
+		when(replica.getConnection("reader", "secret")).thenReturn(connection);
+		ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(primary, List.of(replica));
+
+		assertThat(dataSource.getConnection("reader", "secret")).isSameAs(connection);
+		verify(primary, never()).getConnection("reader", "secret");
+	}
+
+	@Test
+	void credentialsFollowTheFallbackToThePrimary() throws SQLException {
+		HikariDataSource primary = mock(HikariDataSource.class);
+		HikariDataSource replica = mock(HikariDataSource.class);
+		Connection connection = mock(Connection.class);
+		when(replica.getConnection("reader", "secret")).thenThrow(new SQLTransientConnectionException("pool exhausted"));
+		when(primary.getConnection("reader", "secret")).thenReturn(connection);
+		ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(primary, List.of(replica));
+
+		assertThat(dataSource.getConnection("reader", "secret")).isSameAs(connection);
+		assertThat(ReplicaRoutingDataSource.onPrimary(() -> connectQuietly(dataSource))).isSameAs(connection);
+	}
+
+	@Test
+	void poolRejectingPerCallCredentialsIsNotTreatedAsUnavailable() throws SQLException {
+		HikariDataSource primary = mock(HikariDataSource.class);
+		HikariDataSource replica = mock(HikariDataSource.class);
+		when(replica.getConnection("reader", "secret")).thenThrow(new SQLFeatureNotSupportedException());
+		ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(primary, List.of(replica));
+
+		assertThatThrownBy(() -> dataSource.getConnection("reader", "secret")).isInstanceOf(SQLFeatureNotSupportedException.class);
+		verify(primary, never()).getConnection("reader", "secret");
+	}
+
+	private static Connection connectQuietly(ReplicaRoutingDataSource dataSource) {
+		try {
+			return dataSource.getConnection("reader", "secret");
+		} catch (SQLException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}